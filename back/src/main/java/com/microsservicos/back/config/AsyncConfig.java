@@ -0,0 +1,168 @@
+package com.microsservicos.back.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Executores dedicados por carga assíncrona, para que um pico em uma delas (ex.: emails de uma
+ * campanha) não atrase as outras (ex.: auditoria).
+ *
+ * Cada executor tem threads, fila e política de rejeição próprias e, no desligamento, espera as
+ * tarefas pendentes até o limite configurado. Métricas, com a tag {@code name}:
+ * {@code executor.*} do Micrometer (threads ativas, fila, concluídas), {@code executor.task.wait}
+ * (tempo na fila), {@code executor.task.duration} (execução) e {@code executor.rejected}.
+ *
+ * Os jobs {@code @Scheduled} rodam num agendador com pool próprio ({@code async.scheduler.pool-size},
+ * threads {@code scheduler-*}), e não na thread única padrão: um job lento não atrasa os demais. Ele
+ * exporta as mesmas métricas com {@code name=scheduler} (exceto o tempo na fila, que num agendador é
+ * o atraso programado).
+ *
+ * O pool de cada executor só é criado quando o Spring o inicializa (afterPropertiesSet); as métricas
+ * do Micrometer são ligadas depois disso, quando todos os singletons já existem.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class AsyncConfig implements SmartInitializingSingleton {
+
+    public static final String EMAIL_EXECUTOR = "emailExecutor";
+    public static final String AUDIT_EXECUTOR = "auditExecutor";
+    public static final String CERTIFICATE_JOB_EXECUTOR = "certificateJobExecutor";
+    public static final String SQL_EXPLAIN_EXECUTOR = "sqlExplainExecutor";
+    public static final String DASHBOARD_EXECUTOR = "dashboardExecutor";
+    /** Nome que o {@code @EnableScheduling} procura */
+    public static final String TASK_SCHEDULER = "taskScheduler";
+
+    private final AsyncExecutorProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    /** Nome da métrica -> pool do executor, para ligar as métricas após a inicialização */
+    private final Map<String, Supplier<ThreadPoolExecutor>> executores = new LinkedHashMap<>();
+
+    @Bean(name = EMAIL_EXECUTOR)
+    public ThreadPoolTaskExecutor emailExecutor() {
+        return criar("email", properties.getEmail());
+    }
+
+    @Bean(name = AUDIT_EXECUTOR)
+    public ThreadPoolTaskExecutor auditExecutor() {
+        return criar("audit", properties.getAudit());
+    }
+
+    @Bean(name = CERTIFICATE_JOB_EXECUTOR)
+    public ThreadPoolTaskExecutor certificateJobExecutor() {
+        return criar("certificate-job", properties.getCertificateJob());
+    }
+
+    @Bean(name = SQL_EXPLAIN_EXECUTOR)
+    public ThreadPoolTaskExecutor sqlExplainExecutor() {
+        return criar("sql-explain", properties.getSqlExplain());
+    }
+
+    @Bean(name = DASHBOARD_EXECUTOR)
+    public ThreadPoolTaskExecutor dashboardExecutor() {
+        return criar("dashboard-sse", properties.getDashboard());
+    }
+
+    @Bean(name = TASK_SCHEDULER)
+    public ThreadPoolTaskScheduler taskScheduler() {
+        String nome = "scheduler";
+        Timer duracao = duracao(nome);
+        AsyncExecutorProperties.Scheduler scheduler = properties.getScheduler();
+
+        ThreadPoolTaskScheduler executor = new ThreadPoolTaskScheduler();
+        executor.setThreadNamePrefix(nome + "-");
+        executor.setPoolSize(scheduler.getPoolSize());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(scheduler.getAwaitTerminationSeconds());
+        executor.setTaskDecorator(tarefa -> () -> {
+            long inicio = System.nanoTime();
+            try {
+                tarefa.run();
+            } finally {
+                duracao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+        });
+        executores.put(nome, executor::getScheduledThreadPoolExecutor);
+        return executor;
+    }
+
+    private ThreadPoolTaskExecutor criar(String nome, AsyncExecutorProperties.Pool pool) {
+        Tags tags = Tags.of("name", nome);
+        Timer espera = Timer.builder("executor.task.wait")
+                .description("Tempo das tarefas na fila do executor")
+                .tags(tags)
+                .register(meterRegistry);
+        Timer duracao = duracao(nome);
+        Counter rejeitadas = Counter.builder("executor.rejected")
+                .description("Tarefas rejeitadas pelo executor (fila cheia)")
+                .tags(tags)
+                .register(meterRegistry);
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(nome + "-");
+        executor.setCorePoolSize(pool.getCoreSize());
+        executor.setMaxPoolSize(Math.max(pool.getCoreSize(), pool.getMaxSize()));
+        executor.setQueueCapacity(pool.getQueueCapacity());
+        executor.setRejectedExecutionHandler(contarRejeicoes(politica(pool.getRejectionPolicy()), rejeitadas));
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(pool.getAwaitTerminationSeconds());
+        executor.setTaskDecorator(tarefa -> {
+            long submetida = System.nanoTime();
+            return () -> {
+                long inicio = System.nanoTime();
+                espera.record(inicio - submetida, TimeUnit.NANOSECONDS);
+                try {
+                    tarefa.run();
+                } finally {
+                    duracao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+            };
+        });
+        executores.put(nome, executor::getThreadPoolExecutor);
+        return executor;
+    }
+
+    private Timer duracao(String nome) {
+        return Timer.builder("executor.task.duration")
+                .description("Tempo de execução das tarefas do executor")
+                .tags(Tags.of("name", nome))
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        executores.forEach((nome, executor) ->
+                new ExecutorServiceMetrics(executor.get(), nome, Tags.empty()).bindTo(meterRegistry));
+    }
+
+    private static RejectedExecutionHandler politica(AsyncExecutorProperties.RejectionPolicy policy) {
+        return switch (policy) {
+            case CALLER_RUNS -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case DISCARD -> new ThreadPoolExecutor.DiscardPolicy();
+            case ABORT -> new ThreadPoolExecutor.AbortPolicy();
+        };
+    }
+
+    private static RejectedExecutionHandler contarRejeicoes(RejectedExecutionHandler delegate, Counter rejeitadas) {
+        return (tarefa, executor) -> {
+            rejeitadas.increment();
+            delegate.rejectedExecution(tarefa, executor);
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.microsservicos.back.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Dimensionamento dos executores dedicados de cada carga assíncrona (ver {@link AsyncConfig}).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "async")
+public class AsyncExecutorProperties {
+
+    /** Envio dos lotes da outbox de emails (uma sessão SMTP por thread) */
+    private Pool email = new Pool(2, 4, RejectionPolicy.ABORT, 30);
+
+    /** Gravação dos logs de auditoria */
+    private Pool audit = new Pool(2, 10000, RejectionPolicy.CALLER_RUNS, 10);
+
+    /** Jobs de geração de certificados, individuais e de lotes (chamadas ao serviço de certificados) */
+    private Pool certificateJob = new Pool(4, 100, RejectionPolicy.ABORT, 30);
+
+    /** Escrita dos eventos do painel de presença (SSE); no máximo uma tarefa por assinante na fila */
+    private Pool dashboard = new Pool(8, 500, RejectionPolicy.ABORT, 5);
+
+    /** EXPLAIN por amostragem das consultas lentas (ver {@link SqlObservabilityListener}) */
+    private Pool sqlExplain = new Pool(1, 16, RejectionPolicy.DISCARD, 5);
+
+    /** Jobs {@code @Scheduled} (pollers, atualização do dashboard, sincronizações) */
+    private Scheduler scheduler = new Scheduler();
+
+    public enum RejectionPolicy {
+        /** Rejeita a tarefa com RejectedExecutionException */
+        ABORT,
+        /** Executa na thread de quem submeteu (contrapressão) */
+        CALLER_RUNS,
+        /** Descarta a tarefa silenciosamente (a métrica de rejeições ainda a conta) */
+        DISCARD
+    }
+
+    @Data
+    public static class Pool {
+
+        private int coreSize;
+
+        /** Threads extras só são criadas com a fila cheia; 0 usa o coreSize */
+        private int maxSize;
+
+        private int queueCapacity;
+
+        private RejectionPolicy rejectionPolicy;
+
+        /** Tempo que o desligamento espera as tarefas em andamento e na fila terminarem */
+        private int awaitTerminationSeconds;
+
+        public Pool() {
+        }
+
+        public Pool(int coreSize, int queueCapacity, RejectionPolicy rejectionPolicy, int awaitTerminationSeconds) {
+            this.coreSize = coreSize;
+            this.queueCapacity = queueCapacity;
+            this.rejectionPolicy = rejectionPolicy;
+            this.awaitTerminationSeconds = awaitTerminationSeconds;
+        }
+    }
+
+    @Data
+    public static class Scheduler {
+
+        private int poolSize = 4;
+
+        private int awaitTerminationSeconds = 10;
+    }
+}
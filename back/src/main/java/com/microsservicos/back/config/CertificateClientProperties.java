@@ -0,0 +1,39 @@
+package com.microsservicos.back.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "certificate.client")
+public class CertificateClientProperties {
+
+    /** Conexões mantidas no pool (keep-alive) para o serviço de certificados */
+    private int maxConnections = 50;
+
+    /** Conexões por rota (host:porta) */
+    private int maxConnectionsPerRoute = 20;
+
+    private int connectTimeoutMs = 2000;
+
+    private int readTimeoutMs = 10000;
+
+    /** Tempo máximo aguardando uma conexão livre do pool */
+    private int connectionRequestTimeoutMs = 1000;
+
+    /** Conexões ociosas além deste tempo são descartadas */
+    private int idleEvictionMs = 30000;
+
+    /** Bulkhead: chamadas simultâneas permitidas ao serviço de certificados */
+    private int maxConcurrentCalls = 20;
+
+    /** Tempo máximo aguardando vaga no bulkhead antes de rejeitar */
+    private int bulkheadWaitMs = 500;
+
+    /** Falhas consecutivas que abrem o circuito */
+    private int circuitFailureThreshold = 5;
+
+    /** Tempo em que o circuito permanece aberto antes de uma chamada de teste */
+    private int circuitOpenDurationMs = 30000;
+}
@@ -0,0 +1,223 @@
+package com.microsservicos.back.config;
+
+import com.microsservicos.back.exception.ServiceUnavailableException;
+import com.microsservicos.back.util.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Aplica bulkhead, circuit breaker e métricas de latência por operação às chamadas
+ * feitas ao serviço de certificados (Node.js).
+ *
+ * A vaga do bulkhead e a medição de latência vão até o fechamento da resposta, e não só até os
+ * cabeçalhos: downloads em streaming (PDF e ZIP) contam no limite enquanto transferem o corpo.
+ */
+@Slf4j
+public class CertificateServiceResilienceInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String METRIC = "certificate.client.requests";
+    private static final String PATH_PREFIX = "/api/certificates/";
+
+    private final Semaphore bulkhead;
+    private final long bulkheadWaitMs;
+    private final CircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+
+    public CertificateServiceResilienceInterceptor(CertificateClientProperties properties, MeterRegistry meterRegistry) {
+        this.bulkhead = new Semaphore(properties.getMaxConcurrentCalls());
+        this.bulkheadWaitMs = properties.getBulkheadWaitMs();
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitFailureThreshold(),
+                properties.getCircuitOpenDurationMs());
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("certificate.client.bulkhead.available", bulkhead, Semaphore::availablePermits)
+                .description("Vagas livres no bulkhead do serviço de certificados")
+                .register(meterRegistry);
+        Gauge.builder("certificate.client.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("Estado do circuito (0 = fechado, 1 = aberto, 2 = semiaberto)")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String operation = operation(request);
+
+        if (!circuitBreaker.tryAcquire()) {
+            record(operation, "CIRCUIT_OPEN", 0);
+            throw new ServiceUnavailableException("Serviço de certificados indisponível (circuito aberto)");
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire(bulkheadWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            // A chamada não foi feita: não conta como sucesso nem falha do serviço
+            circuitBreaker.release();
+            record(operation, "REJECTED", 0);
+            throw new ServiceUnavailableException("Serviço de certificados sobrecarregado (limite de chamadas simultâneas)");
+        }
+
+        long start = System.nanoTime();
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            bulkhead.release();
+            falha(operation, e);
+            record(operation, "IO_ERROR", System.nanoTime() - start);
+            throw e;
+        }
+
+        String outcome;
+        try {
+            if (response.getStatusCode().is5xxServerError()) {
+                circuitBreaker.onFailure();
+                outcome = "SERVER_ERROR";
+            } else {
+                circuitBreaker.onSuccess();
+                outcome = response.getStatusCode().is4xxClientError() ? "CLIENT_ERROR" : "SUCCESS";
+            }
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            bulkhead.release();
+            falha(operation, e);
+            record(operation, "IO_ERROR", System.nanoTime() - start);
+            throw e;
+        }
+        return new GuardedResponse(response, operation, outcome, start);
+    }
+
+    private void falha(String operation, Exception e) {
+        circuitBreaker.onFailure();
+        if (circuitBreaker.getState() != CircuitBreaker.State.CLOSED) {
+            log.warn("Circuito do serviço de certificados aberto após falha em '{}': {}", operation, e.getMessage());
+        }
+    }
+
+    /**
+     * Resposta que devolve a vaga do bulkhead e registra a latência (até o fim do corpo) no close.
+     * Uma falha de I/O na leitura do corpo conta como falha do serviço.
+     */
+    private final class GuardedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final String operation;
+        private final long start;
+        private final AtomicBoolean fechada = new AtomicBoolean();
+        private volatile String outcome;
+        private InputStream body;
+
+        private GuardedResponse(ClientHttpResponse delegate, String operation, String outcome, long start) {
+            this.delegate = delegate;
+            this.operation = operation;
+            this.outcome = outcome;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        try {
+                            return super.read();
+                        } catch (IOException e) {
+                            falhaNoCorpo(e);
+                            throw e;
+                        }
+                    }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        try {
+                            return super.read(b, off, len);
+                        } catch (IOException e) {
+                            falhaNoCorpo(e);
+                            throw e;
+                        }
+                    }
+                };
+            }
+            return body;
+        }
+
+        private void falhaNoCorpo(IOException e) {
+            if (!"IO_ERROR".equals(outcome)) {
+                outcome = "IO_ERROR";
+                falha(operation, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!fechada.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                delegate.close();
+            } finally {
+                bulkhead.release();
+                record(operation, outcome, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void record(String operation, String outcome, long nanos) {
+        Timer.builder(METRIC)
+                .description("Latência das chamadas ao serviço de certificados")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Extrai a operação do caminho: /api/certificates/download/CERT-... -> download
+     */
+    private static String operation(HttpRequest request) {
+        String path = request.getURI().getPath();
+        int start = path.indexOf(PATH_PREFIX);
+        if (start < 0) {
+            return "other";
+        }
+        String rest = path.substring(start + PATH_PREFIX.length());
+        int end = rest.indexOf('/');
+        return end < 0 ? rest : rest.substring(0, end);
+    }
+}
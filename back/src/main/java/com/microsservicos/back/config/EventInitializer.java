@@ -2,6 +2,8 @@ package com.microsservicos.back.config;
 
 import com.microsservicos.back.domain.Event;
 import com.microsservicos.back.repository.EventRepository;
+import com.microsservicos.back.service.CacheInvalidationBus;
+import com.microsservicos.back.service.EntityCacheInvalidationHandler;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -20,6 +22,7 @@ import java.util.List;
 public class EventInitializer implements CommandLineRunner {
 
     private final EventRepository eventRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     @Override
     public void run(String... args) {
@@ -134,6 +137,8 @@ public class EventInitializer implements CommandLineRunner {
         );
 
         eventRepository.saveAll(eventos);
+        // Outras instâncias já em execução podem ter a lista (vazia) de eventos ativos em cache
+        cacheInvalidationBus.publicar(EntityCacheInvalidationHandler.EVENT, CacheInvalidationBus.TODAS);
         log.info("{} eventos criados com sucesso!", eventos.size());
     }
 }
@@ -0,0 +1,76 @@
+package com.microsservicos.back.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leituras nas réplicas: transações {@code @Transactional(readOnly = true)} usam uma conexão de
+ * réplica, as demais (e o acesso fora de transação) usam o primário.
+ *
+ * O DataSource da aplicação é um {@link LazyConnectionDataSourceProxy}: a conexão física só é obtida
+ * no primeiro comando, quando o flag somente leitura da transação já foi aplicado, e então vem do
+ * {@link ReplicaRoutingDataSource} ou do pool do primário. Leituras que precisam enxergar as próprias
+ * escritas recentes devem ficar em transações de escrita.
+ */
+@Configuration
+@ConditionalOnBooleanProperty("datasource.replica.enabled")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(HikariDataSource primaryDataSource,
+                                                      DataSourceProperties dataSourceProperties,
+                                                      ReadReplicaProperties properties,
+                                                      MeterRegistry meterRegistry) {
+        String username = StringUtils.hasText(properties.getUsername())
+                ? properties.getUsername() : dataSourceProperties.determineUsername();
+        String password = StringUtils.hasText(properties.getPassword())
+                ? properties.getPassword() : dataSourceProperties.determinePassword();
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getUrls().size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (i + 1));
+            replica.setJdbcUrl(properties.getUrls().get(i));
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setConnectionTimeout(properties.getConnectionTimeoutMs());
+            replica.setReadOnly(true);
+            // Réplica fora do ar na inicialização não impede a aplicação de subir
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.getMaxLagSeconds(), meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaDataSource);
+        return proxy;
+    }
+}
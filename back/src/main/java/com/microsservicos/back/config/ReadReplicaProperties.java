@@ -0,0 +1,41 @@
+package com.microsservicos.back.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réplicas de leitura do PostgreSQL (ver {@link ReadReplicaConfig}).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.replica")
+public class ReadReplicaProperties {
+
+    /** Desativado: todas as transações usam o primário */
+    private boolean enabled = false;
+
+    /** URLs JDBC das réplicas */
+    private List<String> urls = new ArrayList<>();
+
+    /** Usuário das réplicas; vazio usa o de spring.datasource */
+    private String username;
+
+    /** Senha das réplicas; vazia usa a de spring.datasource */
+    private String password;
+
+    /** Atraso de replicação acima do qual a réplica deixa de receber leituras */
+    private long maxLagSeconds = 5;
+
+    /** Intervalo da verificação de atraso das réplicas */
+    private long lagCheckMs = 2000;
+
+    /** Conexões por réplica */
+    private int maximumPoolSize = 10;
+
+    /** Espera por conexão da réplica antes de cair para o primário */
+    private long connectionTimeoutMs = 1000;
+}
@@ -0,0 +1,182 @@
+package com.microsservicos.back.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fonte das conexões das transações somente leitura: distribui entre as réplicas em round-robin,
+ * só entre as que estão acessíveis e com atraso de replicação até o limite. Sem nenhuma nessas
+ * condições (ou se a conexão falhar), usa o primário.
+ *
+ * O atraso é medido periodicamente em cada réplica contra a posição atual do WAL no primário: uma
+ * réplica que já aplicou tudo até essa posição tem atraso zero, mesmo que o primário esteja sem
+ * escritas há tempo; caso contrário, o atraso é a idade da última transação aplicada. Comparar com
+ * o primário (e não com o WAL recebido pela própria réplica) evita atraso zero com o receptor de WAL
+ * desconectado. Se o primário não responder, vale o estado do receptor ({@code streaming}).
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final String SQL_POSICAO_PRIMARIO = "SELECT pg_current_wal_lsn()::text";
+
+    /** Idade da última transação aplicada; sem nenhuma aplicada, atraso infinito */
+    private static final String IDADE_REPLAY =
+            "COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp())::float8, 'Infinity'::float8)";
+
+    private static final String SQL_ATRASO =
+            "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN pg_last_wal_replay_lsn() >= ?::pg_lsn THEN 0 " +
+            "ELSE " + IDADE_REPLAY + " END";
+
+    private static final String SQL_ATRASO_SEM_PRIMARIO =
+            "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() THEN 0 " +
+            "WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN " + IDADE_REPLAY + " " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE " + IDADE_REPLAY + " END";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagSeconds;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final Counter fallbacks;
+
+    static final class Replica {
+        private final String nome;
+        private final HikariDataSource dataSource;
+        private volatile boolean disponivel;
+        private volatile double atrasoSegundos = Double.NaN;
+
+        Replica(String nome, HikariDataSource dataSource) {
+            this.nome = nome;
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, List<HikariDataSource> replicas, long maxLagSeconds,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(ds -> new Replica(ds.getPoolName(), ds)).toList();
+        this.maxLagSeconds = maxLagSeconds;
+        this.fallbacks = Counter.builder("datasource.replica.fallback")
+                .description("Leituras enviadas ao primário por falta de réplica disponível")
+                .register(meterRegistry);
+        for (Replica replica : this.replicas) {
+            Gauge.builder("datasource.replica.lag", replica, r -> r.atrasoSegundos)
+                    .description("Atraso de replicação medido na réplica (segundos)")
+                    .tag("replica", replica.nome)
+                    .register(meterRegistry);
+            Gauge.builder("datasource.replica.available", replica, r -> r.disponivel ? 1 : 0)
+                    .description("Réplica recebendo leituras (1) ou fora do rodízio (0)")
+                    .tag("replica", replica.nome)
+                    .register(meterRegistry);
+        }
+        verificarReplicas();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = escolher();
+        if (replica != null) {
+            try {
+                return replica.dataSource.getConnection();
+            } catch (SQLException e) {
+                replica.disponivel = false;
+                log.warn("Réplica {} indisponível, leitura enviada ao primário: {}", replica.nome, e.getMessage());
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * Credenciais explícitas não valem para os pools das réplicas (que usam as configuradas): a
+     * conexão vem do primário, que as aceita. Não conta como fallback, pois nenhuma réplica foi tentada.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    private Replica escolher() {
+        int total = replicas.size();
+        int inicio = Math.floorMod(proxima.getAndIncrement(), Math.max(total, 1));
+        for (int i = 0; i < total; i++) {
+            Replica replica = replicas.get((inicio + i) % total);
+            if (replica.disponivel) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-ms:2000}")
+    public void verificarReplicas() {
+        String posicaoPrimario = posicaoPrimario();
+        for (Replica replica : replicas) {
+            boolean estava = replica.disponivel;
+            try (Connection connection = replica.dataSource.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                         posicaoPrimario != null ? SQL_ATRASO : SQL_ATRASO_SEM_PRIMARIO)) {
+                statement.setQueryTimeout(2);
+                if (posicaoPrimario != null) {
+                    statement.setString(1, posicaoPrimario);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    replica.atrasoSegundos = rs.getDouble(1);
+                }
+                replica.disponivel = replica.atrasoSegundos <= maxLagSeconds;
+            } catch (SQLException e) {
+                replica.atrasoSegundos = Double.NaN;
+                replica.disponivel = false;
+            }
+
+            if (estava != replica.disponivel) {
+                if (replica.disponivel) {
+                    log.info("Réplica {} disponível para leituras (atraso {}s)", replica.nome, replica.atrasoSegundos);
+                } else {
+                    log.warn("Réplica {} fora do rodízio de leituras (atraso {}s, limite {}s)",
+                            replica.nome, replica.atrasoSegundos, maxLagSeconds);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return posição atual do WAL no primário, ou null se ele não responder
+     */
+    private String posicaoPrimario() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.setQueryTimeout(2);
+            try (ResultSet rs = statement.executeQuery(SQL_POSICAO_PRIMARIO)) {
+                rs.next();
+                return rs.getString(1);
+            }
+        } catch (SQLException e) {
+            log.warn("Não foi possível ler a posição do WAL no primário: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+}
@@ -0,0 +1,67 @@
+package com.microsservicos.back.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache de segundo nível do Hibernate em Caffeine (via JCache), para as linhas lidas repetidamente
+ * por id ({@link com.microsservicos.back.domain.Event}, {@link com.microsservicos.back.domain.Usuario})
+ * e para a consulta de eventos ativos.
+ *
+ * As regiões são criadas aqui com o tamanho e o TTL de {@code jpa.cache.regions.*}. A região de
+ * timestamps, usada pelo Hibernate para invalidar o cache de consultas quando uma tabela é alterada,
+ * não tem limite nem expiração. Métricas {@code cache.*} do Micrometer com a tag {@code cache}
+ * (acertos, falhas, inclusões e remoções por região).
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    private static final String REGIAO_TIMESTAMPS = "default-update-timestamps-region";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(SecondLevelCacheProperties properties, MeterRegistry meterRegistry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager();
+
+        for (Map.Entry<String, SecondLevelCacheProperties.Region> regiao : properties.getRegions().entrySet()) {
+            criar(cacheManager, regiao.getKey(), regiao.getValue(), meterRegistry);
+        }
+        if (cacheManager.getCache(REGIAO_TIMESTAMPS) == null) {
+            criar(cacheManager, REGIAO_TIMESTAMPS, new SecondLevelCacheProperties.Region(0, 0), meterRegistry);
+        }
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private static void criar(CacheManager cacheManager, String nome, SecondLevelCacheProperties.Region regiao,
+                              MeterRegistry meterRegistry) {
+        CaffeineConfiguration<Object, Object> configuracao = new CaffeineConfiguration<>();
+        configuracao.setStatisticsEnabled(true);
+        if (regiao.getMaxEntries() > 0) {
+            configuracao.setMaximumSize(OptionalLong.of(regiao.getMaxEntries()));
+        }
+        if (regiao.getTtlSeconds() > 0) {
+            configuracao.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(regiao.getTtlSeconds())));
+        }
+
+        Cache<Object, Object> cache = cacheManager.createCache(nome, configuracao);
+        JCacheMetrics.monitor(meterRegistry, cache);
+    }
+}
@@ -0,0 +1,34 @@
+package com.microsservicos.back.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Regiões do cache de segundo nível do Hibernate (ver {@link SecondLevelCacheConfig}).
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jpa.cache")
+public class SecondLevelCacheProperties {
+
+    /** Nome da região (o de {@code @Cache(region = ...)} ou da hint da consulta) -> limites */
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Region {
+
+        /** Entradas na região antes de descartar as menos usadas */
+        private long maxEntries = 1000;
+
+        /** Tempo de vida das entradas; 0 mantém até serem descartadas ou invalidadas */
+        private long ttlSeconds = 600;
+    }
+}
@@ -2,6 +2,7 @@ package com.microsservicos.back.config;
 
 import com.microsservicos.back.domain.Usuario;
 import com.microsservicos.back.repository.UsuarioRepository;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
@@ -42,11 +43,18 @@ public class SecurityConfig {
             .cors(cors -> cors.configurationSource(corsConfigurationSource))
             .csrf(AbstractHttpConfigurer::disable)
             .authorizeHttpRequests(auth -> {
+                // Dispatches assíncronos (SSE) continuam uma requisição já autorizada
+                auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll();
+                
                 // Endpoint interno de email (usado pelo Node.js)
                 auth.requestMatchers(HttpMethod.POST, "/api/emails/**").permitAll();
                 
                 // Endpoint público de validação de certificados
                 auth.requestMatchers(HttpMethod.GET, "/api/certificates/validate/**").permitAll();
+                auth.requestMatchers(HttpMethod.GET, "/api/certificates/public-key").permitAll();
+                
+                // Revogação de certificados é restrita a administradores
+                auth.requestMatchers(HttpMethod.POST, "/api/certificates/revoke/**").hasRole("ADMIN");
                 
                 // Permitir apenas GETs nas rotas de eventos (consultas públicas)
                 auth.requestMatchers(HttpMethod.GET, "/api/events/**").permitAll();
@@ -0,0 +1,36 @@
+package com.microsservicos.back.config;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Envolve o DataSource da aplicação (bean {@code dataSource}, o pool do Hikari ou o roteamento de
+ * réplicas do {@link ReadReplicaConfig}) com a instrumentação do {@link SqlObservabilityListener}.
+ */
+@Configuration
+public class SqlObservabilityConfig {
+
+    private static final String DATA_SOURCE = "dataSource";
+
+    @Bean
+    public static BeanPostProcessor sqlObservabilityDataSourcePostProcessor(
+            ObjectProvider<SqlObservabilityListener> listener, Environment environment) {
+        boolean enabled = environment.getProperty("sql.observability.enabled", Boolean.class, true);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (enabled && DATA_SOURCE.equals(beanName) && bean instanceof DataSource dataSource
+                        && !(bean instanceof ProxyDataSource)) {
+                    return listener.getObject().instrumentar(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
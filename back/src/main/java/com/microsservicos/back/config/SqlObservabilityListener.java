@@ -0,0 +1,275 @@
+package com.microsservicos.back.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microsservicos.back.util.RateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instrumentação dos comandos SQL no DataSource da aplicação (datasource-proxy).
+ *
+ * Cada comando entra em {@code sql.statement.duration} (tag {@code type}: select, insert, ...) e, dentro
+ * de uma requisição HTTP, soma na contagem e no tempo de banco da requisição, publicados por rota pelo
+ * {@link SqlRequestMetricsFilter}. Comandos acima do limite são registrados em log com a rota, o SQL e
+ * o formato dos parâmetros (tipo e tamanho, nunca os valores), e contados em {@code sql.slow.statements}.
+ * Consultas lentas recebem por amostragem um {@code EXPLAIN} (sem ANALYZE, não executa a consulta),
+ * feito fora da requisição: no máximo um por SQL a cada intervalo e um limite global por minuto.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlObservabilityListener implements QueryExecutionListener {
+
+    private static final ThreadLocal<EstatisticasRequisicao> REQUISICAO = new ThreadLocal<>();
+    private static final int MAX_SQL_LOG = 2000;
+    private static final String SEM_ROTA = "NONE";
+
+    private final MeterRegistry meterRegistry;
+    @Qualifier(AsyncConfig.SQL_EXPLAIN_EXECUTOR)
+    private final TaskExecutor explainExecutor;
+
+    @Value("${sql.observability.slow-threshold-ms:500}")
+    private long slowThresholdMs;
+
+    @Value("${sql.observability.explain-enabled:true}")
+    private boolean explainEnabled;
+
+    /** Intervalo mínimo entre dois EXPLAIN do mesmo SQL */
+    @Value("${sql.observability.explain-interval-seconds:600}")
+    private long explainIntervalSeconds;
+
+    @Value("${sql.observability.explain-max-per-minute:6}")
+    private int explainMaxPerMinute;
+
+    /** DataSource sem instrumentação, usado nos EXPLAIN */
+    private volatile DataSource explainDataSource;
+    private Cache<String, Boolean> explicadas;
+    private RateLimiter explainLimiter;
+
+    /** Comandos e tempo de banco da requisição em andamento na thread */
+    public static final class EstatisticasRequisicao {
+        private final HttpServletRequest request;
+        private int comandos;
+        private long tempoMs;
+
+        private EstatisticasRequisicao(HttpServletRequest request) {
+            this.request = request;
+        }
+
+        public int getComandos() {
+            return comandos;
+        }
+
+        public long getTempoMs() {
+            return tempoMs;
+        }
+
+        /** Padrão da rota (ex.: /api/eventos/{id}); só é conhecido depois do mapeamento do handler */
+        public String getRota() {
+            Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            return padrao != null ? padrao.toString() : "UNKNOWN";
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        explicadas = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(Duration.ofSeconds(explainIntervalSeconds))
+                .build();
+        explainLimiter = new RateLimiter(Math.max(explainMaxPerMinute, 1) / 60.0, Math.max(explainMaxPerMinute, 1));
+    }
+
+    public DataSource instrumentar(DataSource dataSource) {
+        explainDataSource = dataSource;
+        return ProxyDataSourceBuilder.create("dataSource", dataSource)
+                .listener(this)
+                .build();
+    }
+
+    static EstatisticasRequisicao iniciarRequisicao(HttpServletRequest request) {
+        EstatisticasRequisicao estatisticas = new EstatisticasRequisicao(request);
+        REQUISICAO.set(estatisticas);
+        return estatisticas;
+    }
+
+    static void encerrarRequisicao() {
+        REQUISICAO.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long tempoMs = execInfo.getElapsedTime();
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+
+        Timer.builder("sql.statement.duration")
+                .description("Duração dos comandos SQL (batches contam como um comando)")
+                .tag("type", tipo(sql))
+                .register(meterRegistry)
+                .record(tempoMs, TimeUnit.MILLISECONDS);
+
+        EstatisticasRequisicao estatisticas = REQUISICAO.get();
+        if (estatisticas != null) {
+            estatisticas.comandos++;
+            estatisticas.tempoMs += tempoMs;
+        }
+
+        if (tempoMs >= slowThresholdMs) {
+            registrarLenta(execInfo, queryInfoList, tempoMs, estatisticas);
+        }
+    }
+
+    private void registrarLenta(ExecutionInfo execInfo, List<QueryInfo> queryInfoList, long tempoMs,
+                                EstatisticasRequisicao estatisticas) {
+        String rota = estatisticas != null
+                ? estatisticas.request.getMethod() + " " + estatisticas.getRota()
+                : "[" + Thread.currentThread().getName() + "]";
+        Counter.builder("sql.slow.statements")
+                .description("Comandos SQL acima do limite de lentidão")
+                .tag("uri", estatisticas != null ? estatisticas.getRota() : SEM_ROTA)
+                .register(meterRegistry)
+                .increment();
+
+        for (QueryInfo query : queryInfoList) {
+            List<List<ParameterSetOperation>> parametros = query.getParametersList();
+            log.warn("Comando SQL lento ({} ms) em {}{}: {} | parâmetros: {}",
+                    tempoMs, rota,
+                    execInfo.isBatch() ? " (batch de " + execInfo.getBatchSize() + ")" : "",
+                    truncar(query.getQuery()),
+                    parametros.isEmpty() ? "-" : formato(parametros.get(0)));
+        }
+
+        if (explainEnabled && !execInfo.isBatch() && queryInfoList.size() == 1) {
+            QueryInfo query = queryInfoList.get(0);
+            List<ParameterSetOperation> parametros = query.getParametersList().isEmpty()
+                    ? List.of()
+                    : new ArrayList<>(query.getParametersList().get(0));
+            agendarExplain(query.getQuery(), parametros);
+        }
+    }
+
+    private void agendarExplain(String sql, List<ParameterSetOperation> parametros) {
+        String tipo = tipo(sql);
+        if (!"select".equals(tipo) && !"with".equals(tipo)) {
+            return;
+        }
+        if (explicadas.asMap().putIfAbsent(sql, Boolean.TRUE) != null) {
+            return;
+        }
+        if (explainLimiter.tryAcquire(1) == 0) {
+            explicadas.invalidate(sql);
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> explicar(sql, parametros));
+        } catch (TaskRejectedException e) {
+            explicadas.invalidate(sql);
+        }
+    }
+
+    private void explicar(String sql, List<ParameterSetOperation> parametros) {
+        DataSource dataSource = explainDataSource;
+        if (dataSource == null) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            statement.setQueryTimeout(5);
+            for (ParameterSetOperation parametro : parametros) {
+                if (!ParameterSetOperation.isRegisterOutParameterOperation(parametro)) {
+                    parametro.getMethod().invoke(statement, parametro.getArgs());
+                }
+            }
+            StringJoiner plano = new StringJoiner("\n");
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    plano.add(rs.getString(1));
+                }
+            }
+            log.warn("Plano do comando SQL lento: {}\n{}", truncar(sql), plano);
+        } catch (Exception e) {
+            log.debug("EXPLAIN do comando SQL lento falhou: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Posição e tipo de cada parâmetro (com o tamanho de textos e binários), sem os valores.
+     */
+    private static String formato(List<ParameterSetOperation> parametros) {
+        StringJoiner formato = new StringJoiner(", ");
+        parametros.stream()
+                .filter(p -> !ParameterSetOperation.isRegisterOutParameterOperation(p))
+                .sorted(Comparator.comparingInt(p -> p.getArgs()[0] instanceof Integer indice ? indice : Integer.MAX_VALUE))
+                .forEach(p -> formato.add(p.getArgs()[0] + "=" + tipoParametro(p)));
+        return formato.toString();
+    }
+
+    private static String tipoParametro(ParameterSetOperation parametro) {
+        if (ParameterSetOperation.isSetNullParameterOperation(parametro)) {
+            return "null";
+        }
+        Object[] args = parametro.getArgs();
+        Object valor = args.length > 1 ? args[1] : null;
+        if (valor == null) {
+            return "null";
+        }
+        if (valor instanceof CharSequence texto) {
+            return "String(" + texto.length() + ")";
+        }
+        if (valor instanceof byte[] bytes) {
+            return "bytes(" + bytes.length + ")";
+        }
+        return valor.getClass().getSimpleName();
+    }
+
+    private static String tipo(String sql) {
+        String inicio = sql.stripLeading();
+        int fim = 0;
+        while (fim < inicio.length() && Character.isLetter(inicio.charAt(fim))) {
+            fim++;
+        }
+        String palavra = inicio.substring(0, fim).toLowerCase(Locale.ROOT);
+        return switch (palavra) {
+            case "select", "insert", "update", "delete", "with" -> palavra;
+            default -> "other";
+        };
+    }
+
+    private static String truncar(String sql) {
+        String linha = sql.replaceAll("\\s+", " ").trim();
+        return linha.length() <= MAX_SQL_LOG ? linha : linha.substring(0, MAX_SQL_LOG) + "...";
+    }
+}
@@ -0,0 +1,64 @@
+package com.microsservicos.back.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publica, por rota HTTP, quantos comandos SQL cada requisição executou ({@code sql.request.statements})
+ * e o tempo total de banco ({@code sql.request.time}), com as tags {@code method} e {@code uri} no
+ * mesmo formato de {@code http.server.requests}. Roda antes da segurança para incluir as consultas
+ * da autenticação.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+public class SqlRequestMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sql.observability.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlObservabilityListener.EstatisticasRequisicao estatisticas = SqlObservabilityListener.iniciarRequisicao(request);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlObservabilityListener.encerrarRequisicao();
+            String rota = estatisticas.getRota();
+            DistributionSummary.builder("sql.request.statements")
+                    .description("Comandos SQL executados por requisição")
+                    .tag("method", request.getMethod())
+                    .tag("uri", rota)
+                    .register(meterRegistry)
+                    .record(estatisticas.getComandos());
+            Timer.builder("sql.request.time")
+                    .description("Tempo total de banco por requisição")
+                    .tag("method", request.getMethod())
+                    .tag("uri", rota)
+                    .register(meterRegistry)
+                    .record(estatisticas.getTempoMs(), TimeUnit.MILLISECONDS);
+        }
+    }
+}
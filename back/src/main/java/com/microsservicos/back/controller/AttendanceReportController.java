@@ -0,0 +1,47 @@
+package com.microsservicos.back.controller;
+
+import com.microsservicos.back.dto.RelatorioPresencaDTO;
+import com.microsservicos.back.service.EventAttendanceStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+@RestController
+@RequestMapping("/api/admin/relatorios")
+@RequiredArgsConstructor
+@Tag(name = "Relatórios de Presença (Admin)", description = "Endpoints de estatísticas de inscrição e presença")
+@SecurityRequirement(name = "bearerAuth")
+public class AttendanceReportController {
+
+    private final EventAttendanceStatsService eventAttendanceStatsService;
+
+    @GetMapping("/presenca")
+    @Operation(
+        summary = "Relatório de presença",
+        description = "Retorna inscritos, presentes e ausentes por evento, agregados por categoria e no total. " +
+                     "Filtros opcionais por categoria e por período (data de início do evento)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Relatório gerado com sucesso",
+            content = @Content(schema = @Schema(implementation = RelatorioPresencaDTO.class))),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<RelatorioPresencaDTO> gerarRelatorioPresenca(
+            @RequestParam(required = false) String categoria,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fim) {
+        return ResponseEntity.ok(eventAttendanceStatsService.gerarRelatorio(categoria, inicio, fim));
+    }
+}
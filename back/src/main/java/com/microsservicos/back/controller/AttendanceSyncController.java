@@ -0,0 +1,87 @@
+package com.microsservicos.back.controller;
+
+import com.microsservicos.back.dto.RosterSnapshotDTO;
+import com.microsservicos.back.dto.SyncCheckInLoteDTO;
+import com.microsservicos.back.dto.SyncCheckInResultadoDTO;
+import com.microsservicos.back.service.AttendanceSyncService;
+import com.microsservicos.back.service.UserLogService;
+import com.microsservicos.back.util.SessionUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/sync")
+@RequiredArgsConstructor
+@Tag(name = "Sincronização Offline de Presença (Admin)", description = "Endpoints para dispositivos de check-in que operam sem conectividade")
+@SecurityRequirement(name = "bearerAuth")
+public class AttendanceSyncController {
+
+    private final AttendanceSyncService attendanceSyncService;
+    private final UserLogService userLogService;
+    private final SessionUtils sessionUtils;
+
+    @GetMapping("/eventos/{eventId}/roster")
+    @Operation(
+        summary = "Baixar roster do evento",
+        description = "Sem cursor retorna o snapshot completo dos inscritos com estado de presença. " +
+                     "Com o cursor retornado na sincronização anterior, retorna apenas o que mudou desde então."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Roster retornado com sucesso",
+            content = @Content(schema = @Schema(implementation = RosterSnapshotDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Evento não encontrado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<RosterSnapshotDTO> buscarRoster(@PathVariable UUID eventId,
+                                                          @RequestParam(required = false) Long cursor) {
+        return ResponseEntity.ok(attendanceSyncService.buscarRoster(eventId, cursor));
+    }
+
+    @PostMapping("/eventos/{eventId}/presencas")
+    @Operation(
+        summary = "Enviar lote de check-ins offline",
+        description = "Recebe check-ins registrados localmente pelo dispositivo. O merge é idempotente pelo operationId " +
+                     "e conflitos são resolvidos por last-writer-wins na data de confirmação."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado; resultado por operação",
+            content = @Content(schema = @Schema(implementation = SyncCheckInResultadoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Erro na requisição (evento não encontrado, lote inválido)"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<List<SyncCheckInResultadoDTO>> enviarCheckIns(@PathVariable UUID eventId,
+                                                                       @Valid @RequestBody SyncCheckInLoteDTO dto,
+                                                                       HttpServletRequest request) {
+        var admin = sessionUtils.getUsuarioLogado();
+        List<SyncCheckInResultadoDTO> resultados = attendanceSyncService.aplicarCheckIns(
+                eventId, dto.getDeviceId(), admin.getId(), dto.getOperacoes());
+
+        // Log de auditoria
+        Map<String, Object> details = new HashMap<>();
+        details.put("eventId", eventId.toString());
+        details.put("deviceId", dto.getDeviceId());
+        details.put("operacoes", dto.getOperacoes().size());
+        userLogService.logAction(admin, "ATTENDANCE_SYNC", "EVENT", eventId, details, request);
+
+        return ResponseEntity.ok(resultados);
+    }
+}
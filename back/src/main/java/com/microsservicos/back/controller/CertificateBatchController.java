@@ -0,0 +1,127 @@
+package com.microsservicos.back.controller;
+
+import com.microsservicos.back.dto.LoteCertificadosDTO;
+import com.microsservicos.back.service.CertificateBatchService;
+import com.microsservicos.back.service.UserLogService;
+import com.microsservicos.back.util.SessionUtils;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Tag(name = "Certificados em Lote (Admin)", description = "Emissão em lote dos certificados de um evento e download em ZIP")
+@SecurityRequirement(name = "bearerAuth")
+public class CertificateBatchController {
+
+    private final CertificateBatchService certificateBatchService;
+    private final UserLogService userLogService;
+    private final SessionUtils sessionUtils;
+
+    @PostMapping("/eventos/{eventId}/certificados/lote")
+    @Operation(
+        summary = "Emitir certificados de todos os presentes",
+        description = "Inicia em segundo plano a emissão dos certificados de todos os participantes com presença " +
+                     "confirmada no evento, com paralelismo limitado. Certificados já emitidos são reaproveitados. " +
+                     "Acompanhe o progresso pelo endpoint de status do lote."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Lote iniciado",
+            content = @Content(schema = @Schema(implementation = LoteCertificadosDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Evento não encontrado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<LoteCertificadosDTO> iniciarLote(@PathVariable UUID eventId, HttpServletRequest request) {
+        var admin = sessionUtils.getUsuarioLogado();
+        LoteCertificadosDTO lote = certificateBatchService.iniciar(eventId, admin);
+
+        // Log de auditoria
+        Map<String, Object> details = new HashMap<>();
+        details.put("loteId", lote.getLoteId().toString());
+        details.put("total", lote.getTotal());
+        userLogService.logAction(admin, "CERTIFICATE_BATCH_START", "EVENT", eventId, details, request);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(lote);
+    }
+
+    @GetMapping("/certificados/lotes/{loteId}")
+    @Operation(
+        summary = "Status do lote de certificados",
+        description = "Retorna o progresso da emissão em lote: emitidos, falhas e situação"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status retornado com sucesso",
+            content = @Content(schema = @Schema(implementation = LoteCertificadosDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Lote não encontrado ou expirado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN")
+    })
+    public ResponseEntity<LoteCertificadosDTO> buscarLote(@PathVariable UUID loteId) {
+        return certificateBatchService.buscar(loteId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/certificados/lotes/{loteId}/zip")
+    @Operation(
+        summary = "Download dos certificados do lote em ZIP",
+        description = "Transmite um arquivo ZIP com os PDFs de todos os certificados emitidos pelo lote. " +
+                     "O ZIP é gerado enquanto é enviado, sem ser montado em memória. Disponível após a conclusão do lote."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "ZIP com os certificados",
+            content = @Content(mediaType = "application/zip")),
+        @ApiResponse(responseCode = "404", description = "Lote não encontrado ou expirado"),
+        @ApiResponse(responseCode = "409", description = "Lote ainda em andamento"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN")
+    })
+    public ResponseEntity<?> baixarZip(@PathVariable UUID loteId, HttpServletRequest request,
+                                       HttpServletResponse response) throws IOException {
+        var lote = certificateBatchService.buscar(loteId);
+        if (lote.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (lote.get().getConcluidoEm() == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "Lote ainda em andamento"));
+        }
+
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("certificados-" + lote.get().getEventId() + ".zip")
+            .build()
+            .toString());
+        certificateBatchService.escreverZip(loteId, request.getHeader(HttpHeaders.AUTHORIZATION),
+            response.getOutputStream());
+
+        // Log de auditoria
+        Map<String, Object> details = new HashMap<>();
+        details.put("loteId", loteId.toString());
+        userLogService.logAction(sessionUtils.getUsuarioLogado(), "CERTIFICATE_BATCH_DOWNLOAD", "EVENT",
+            lote.get().getEventId(), details, request);
+
+        // Resposta já escrita diretamente no HttpServletResponse
+        return null;
+    }
+}
@@ -7,16 +7,35 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
+import com.microsservicos.back.dto.CertificateJobDTO;
+import com.microsservicos.back.exception.ServiceUnavailableException;
+import com.microsservicos.back.service.CertificateIssuanceService;
+import com.microsservicos.back.service.CertificateJobService;
+import com.microsservicos.back.service.CertificatePdfCache;
+import com.microsservicos.back.service.CertificateServiceClient;
+import com.microsservicos.back.service.CertificateSignatureService;
+import com.microsservicos.back.service.CertificateValidationCache;
 import com.microsservicos.back.service.UserLogService;
 import com.microsservicos.back.util.SessionUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -30,15 +49,26 @@ public class CertificateController {
     private final RestTemplate restTemplate;
     private final UserLogService userLogService;
     private final SessionUtils sessionUtils;
+    private final CertificatePdfCache certificatePdfCache;
+    private final CertificateValidationCache certificateValidationCache;
+    private final CertificateServiceClient certificateServiceClient;
+    private final CertificateJobService certificateJobService;
+    private final CertificateIssuanceService certificateIssuanceService;
+    private final CertificateSignatureService certificateSignatureService;
+    
+    private static final int STREAM_BUFFER_SIZE = 8192;
+    private static final CacheControl IMMUTABLE_CACHE_CONTROL =
+        CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable();
     
     @Value("${certificate.service.url:http://localhost:3001}")
     private String certificateServiceUrl;
 
     @PostMapping("/generate")
     @Operation(
-        summary = "Gera um novo certificado",
-        description = "Gera um certificado PDF para um usuário com presença confirmada em um evento. " +
-                     "Requer autenticação JWT e presença confirmada no evento."
+        summary = "Solicita a geração de um certificado",
+        description = "Registra a geração do certificado PDF para um usuário com presença confirmada em um evento " +
+                     "e retorna imediatamente com o ID do job. Acompanhe pelo endpoint de status do job ou pelo " +
+                     "stream SSE; o email de certificado emitido é enviado ao concluir. Requer autenticação JWT."
     )
     @io.swagger.v3.oas.annotations.parameters.RequestBody(
         description = "Dados para geração do certificado",
@@ -46,131 +76,323 @@ public class CertificateController {
         content = @Content(schema = @Schema(implementation = GenerateCertificateRequest.class))
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Certificado gerado com sucesso",
-            content = @Content(schema = @Schema(example = "{\"certificateCode\":\"CERT-2024-001234\",\"downloadUrl\":\"/api/certificates/download/CERT-2024-001234\"}"))),
-        @ApiResponse(responseCode = "400", description = "Erro na requisição (presença não confirmada, etc.)"),
+        @ApiResponse(responseCode = "202", description = "Geração agendada (ou job ativo existente para a mesma presença)",
+            content = @Content(schema = @Schema(implementation = CertificateJobDTO.class))),
         @ApiResponse(responseCode = "401", description = "Não autenticado"),
         @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<?> generateCertificate(@RequestBody @Valid GenerateCertificateRequest request) {
-        HttpHeaders headers = new HttpHeaders();
-        String authHeader = getCurrentRequest().getHeader("Authorization");
-        if (authHeader != null) {
-            headers.set("Authorization", authHeader);
-        }
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    public ResponseEntity<CertificateJobDTO> generateCertificate(@RequestBody @Valid GenerateCertificateRequest request) {
+        var usuario = sessionUtils.getUsuarioLogado();
+        CertificateJobDTO job = certificateJobService.solicitar(request.getEventId(), request.getUsuarioId(), usuario);
         
-        HttpEntity<GenerateCertificateRequest> entity = new HttpEntity<>(request, headers);
+        // Log de auditoria
+        Map<String, Object> details = new HashMap<>();
+        details.put("eventId", request.getEventId().toString());
+        details.put("usuarioId", request.getUsuarioId().toString());
+        details.put("jobId", job.getJobId().toString());
+        userLogService.logAction(usuario, "CERTIFICATE_GENERATE_REQUEST", "CERTIFICATE", null, details, getCurrentRequest());
         
-        try {
-            ResponseEntity<?> response = restTemplate.exchange(
-                certificateServiceUrl + "/api/certificates/generate",
-                HttpMethod.POST,
-                entity,
-                Object.class
-            );
-            
-            // Log de auditoria
-            if (response.getStatusCode().is2xxSuccessful()) {
-                var usuario = sessionUtils.getUsuarioLogado();
-                Map<String, Object> details = new HashMap<>();
-                details.put("eventId", request.getEventId().toString());
-                details.put("usuarioId", request.getUsuarioId().toString());
-                if (response.getBody() instanceof Map) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> body = (Map<String, Object>) response.getBody();
-                    if (body.containsKey("certificateCode")) {
-                        details.put("certificateCode", body.get("certificateCode"));
-                        userLogService.logAction(usuario, "CERTIFICATE_GENERATE", "CERTIFICATE", 
-                            null, details, getCurrentRequest());
-                    }
-                }
-            }
-            
-            return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body("{\"error\":\"Erro ao comunicar com serviço de certificados: " + e.getMessage() + "\"}");
-        }
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/certificates/jobs/" + job.getJobId()))
+            .body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @Operation(
+        summary = "Status de um job de geração de certificado",
+        description = "Retorna a situação do job (PENDENTE, PROCESSANDO, CONCLUIDO ou FALHOU) e, quando concluído, " +
+                     "o código e a URL de download do certificado. Visível para quem solicitou, para o dono do " +
+                     "certificado e para ADMIN. Requer autenticação JWT."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status do job",
+            content = @Content(schema = @Schema(implementation = CertificateJobDTO.class))),
+        @ApiResponse(responseCode = "404", description = "Job não encontrado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<CertificateJobDTO> buscarJob(@PathVariable UUID jobId) {
+        return certificateJobService.buscar(jobId, sessionUtils.getUsuarioLogado())
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Acompanhar um job de geração via SSE",
+        description = "Abre um stream Server-Sent Events que envia eventos 'status' a cada mudança do job " +
+                     "e é encerrado quando o job conclui ou falha. Visível para quem solicitou, para o dono do " +
+                     "certificado e para ADMIN. Requer autenticação JWT."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream aberto"),
+        @ApiResponse(responseCode = "400", description = "Job não encontrado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    public SseEmitter acompanharJob(@PathVariable UUID jobId) {
+        return certificateJobService.assinar(jobId, sessionUtils.getUsuarioLogado());
     }
 
     @GetMapping("/download/{code}")
     @Operation(
         summary = "Download do PDF do certificado",
-        description = "Retorna o PDF do certificado para download. Requer autenticação JWT."
+        description = "Retorna o PDF do certificado para download. Requer autenticação JWT. " +
+                     "O PDF é mantido em cache local e servido com ETag forte e Cache-Control imutável."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "PDF do certificado",
             content = @Content(mediaType = "application/pdf")),
+        @ApiResponse(responseCode = "304", description = "PDF não modificado (If-None-Match corresponde ao ETag)"),
         @ApiResponse(responseCode = "404", description = "Certificado não encontrado"),
         @ApiResponse(responseCode = "401", description = "Não autenticado"),
-        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor"),
+        @ApiResponse(responseCode = "503", description = "Serviço de certificados indisponível ou sobrecarregado")
     })
     @SecurityRequirement(name = "bearerAuth")
-    public ResponseEntity<?> downloadCertificate(@PathVariable String code) {
-        HttpHeaders headers = new HttpHeaders();
-        String authHeader = getCurrentRequest().getHeader("Authorization");
-        if (authHeader != null) {
-            headers.set("Authorization", authHeader);
-        }
-        
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
+    public ResponseEntity<?> downloadCertificate(@PathVariable String code, HttpServletResponse servletResponse) {
+        HttpServletRequest currentRequest = getCurrentRequest();
+        String authHeader = currentRequest.getHeader("Authorization");
+        String ifNoneMatch = currentRequest.getHeader(HttpHeaders.IF_NONE_MATCH);
         
         try {
-            ResponseEntity<byte[]> response = restTemplate.exchange(
+            if (certificatePdfCache.podeArmazenar(code)) {
+                // Certificados são imutáveis: o PDF é buscado no serviço remoto uma única vez
+                CertificatePdfCache.PdfCacheado pdf = certificatePdfCache.buscarOuCarregar(code,
+                    (codigo, out) -> certificateServiceClient.baixarPdf(codigo, authHeader, out));
+                if (escreverPdfCacheado(pdf, currentRequest, servletResponse)) {
+                    registrarDownload(code, currentRequest);
+                }
+                return null;
+            }
+            
+            // O corpo do PDF é copiado direto do upstream para o cliente, sem materializar o arquivo no heap
+            HttpStatusCode status = restTemplate.execute(
                 certificateServiceUrl + "/api/certificates/download/" + code,
                 HttpMethod.GET,
-                entity,
-                byte[].class
+                upstreamRequest -> {
+                    if (authHeader != null) {
+                        upstreamRequest.getHeaders().set("Authorization", authHeader);
+                    }
+                    if (ifNoneMatch != null) {
+                        upstreamRequest.getHeaders().set(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+                    }
+                },
+                upstreamResponse -> streamPdf(code, upstreamResponse, servletResponse)
             );
             
             // Log de auditoria
-            if (response.getStatusCode().is2xxSuccessful()) {
-                var usuario = sessionUtils.getUsuarioLogado();
-                Map<String, Object> details = new HashMap<>();
-                details.put("certificateCode", code);
-                userLogService.logAction(usuario, "CERTIFICATE_DOWNLOAD", "CERTIFICATE", null, details, getCurrentRequest());
+            if (status != null && status.is2xxSuccessful()) {
+                registrarDownload(code, currentRequest);
             }
             
-            HttpHeaders responseHeaders = new HttpHeaders();
-            responseHeaders.setContentType(MediaType.APPLICATION_PDF);
-            responseHeaders.setContentDispositionFormData("attachment", "certificado-" + code + ".pdf");
-            
-            return ResponseEntity.ok()
-                .headers(responseHeaders)
-                .body(response.getBody());
+            // Resposta já escrita diretamente no HttpServletResponse
+            return null;
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(e.getResponseBodyAsString());
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("{\"error\":\"" + e.getMessage() + "\"}");
         } catch (Exception e) {
+            if (servletResponse.isCommitted()) {
+                // Falha no meio da cópia: o status já foi enviado, resta apenas abortar a conexão
+                return null;
+            }
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("{\"error\":\"Erro ao comunicar com serviço de certificados: " + e.getMessage() + "\"}");
         }
     }
 
+    private void registrarDownload(String code, HttpServletRequest request) {
+        var usuario = sessionUtils.getUsuarioLogado();
+        Map<String, Object> details = new HashMap<>();
+        details.put("certificateCode", code);
+        userLogService.logAction(usuario, "CERTIFICATE_DOWNLOAD", "CERTIFICATE", null, details, request);
+    }
+
+    /**
+     * Responde com o PDF do cache usando ETag forte (SHA-256 do conteúdo) e cache HTTP imutável.
+     *
+     * @return true se o PDF foi enviado; false se o cliente já tinha a versão atual (304)
+     */
+    private boolean escreverPdfCacheado(CertificatePdfCache.PdfCacheado pdf, HttpServletRequest request,
+                                        HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL.getHeaderValue());
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + pdf.etag() + "\"")) {
+            return false;
+        }
+        
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setContentDispositionFormData("attachment", "certificado-" + pdf.codigo() + ".pdf");
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, responseHeaders.getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        response.setContentLengthLong(pdf.tamanho());
+        
+        OutputStream out = response.getOutputStream();
+        pdf.escreverEm(out);
+        out.flush();
+        return true;
+    }
+
+    /**
+     * Copia a resposta do serviço de certificados para o cliente com um buffer fixo.
+     * A escrita bloqueante no output stream do servlet propaga a contrapressão até o upstream.
+     */
+    private HttpStatusCode streamPdf(String code, ClientHttpResponse upstream, HttpServletResponse response)
+            throws IOException {
+        HttpStatusCode status = upstream.getStatusCode();
+        HttpHeaders upstreamHeaders = upstream.getHeaders();
+        
+        response.setStatus(status.value());
+        if (upstreamHeaders.getETag() != null) {
+            response.setHeader(HttpHeaders.ETAG, upstreamHeaders.getETag());
+        }
+        if (status.value() == HttpStatus.NOT_MODIFIED.value()) {
+            return status;
+        }
+        
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setContentDispositionFormData("attachment", "certificado-" + code + ".pdf");
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, responseHeaders.getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        if (upstreamHeaders.getContentLength() >= 0) {
+            response.setContentLengthLong(upstreamHeaders.getContentLength());
+        }
+        
+        try (InputStream in = upstream.getBody()) {
+            OutputStream out = response.getOutputStream();
+            copiar(in, out);
+            out.flush();
+        }
+        return status;
+    }
+
+    private static void copiar(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+    }
+
     @GetMapping("/validate/{code}")
     @Operation(
         summary = "Valida um certificado (público)",
-        description = "Endpoint público para validar a autenticidade de um certificado através do código. " +
-                     "Não requer autenticação."
+        description = "Endpoint público para validar a autenticidade de um certificado através do código " +
+                     "ou do token assinado (verificado em memória). Não requer autenticação. Códigos inexistentes são descartados localmente e " +
+                     "validações bem-sucedidas ficam em cache por alguns minutos."
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Resultado da validação",
             content = @Content(schema = @Schema(example = "{\"valid\":true,\"certificate\":{\"code\":\"CERT-2024-001234\",\"usuarioName\":\"João Silva\",\"eventName\":\"Workshop de Spring Boot\",\"eventDate\":\"2024-01-15T10:00:00\",\"issuedAt\":\"2024-01-16T10:30:00\"}}"))),
-        @ApiResponse(responseCode = "404", description = "Certificado não encontrado (inválido)")
+        @ApiResponse(responseCode = "404", description = "Certificado não encontrado (inválido)"),
+        @ApiResponse(responseCode = "503", description = "Serviço de certificados indisponível ou sobrecarregado")
     })
     public ResponseEntity<?> validateCertificate(@PathVariable String code) {
+        // Token assinado: verificado em memória com a chave pública, sem consultar o banco
+        if (code.indexOf('.') > 0) {
+            return certificateSignatureService.verificar(code)
+                .<ResponseEntity<?>>map(certificado -> ResponseEntity.ok(Map.of(
+                    "valid", true,
+                    "certificate", Map.of(
+                        "code", certificado.certificateCode(),
+                        "usuarioId", certificado.usuarioId(),
+                        "eventId", certificado.eventId(),
+                        "issuedAt", certificado.issuedAt()
+                    )
+                )))
+                .orElseGet(() -> certificadoInvalido());
+        }
+        
+        // Código revogado ou certamente não emitido: responde sem chamar o serviço de certificados
+        if (certificateSignatureService.isRevogado(code) || !certificateValidationCache.podeExistir(code)) {
+            return certificadoInvalido();
+        }
+        
+        var cacheado = certificateValidationCache.buscar(code);
+        if (cacheado.isPresent()) {
+            return ResponseEntity.ok(cacheado.get());
+        }
+        
         try {
             ResponseEntity<?> response = restTemplate.getForEntity(
                 certificateServiceUrl + "/api/certificates/validate/" + code,
                 Object.class
             );
+            if (response.getStatusCode().is2xxSuccessful()) {
+                certificateValidationCache.armazenar(code, response.getBody());
+            }
             return ResponseEntity.status(response.getStatusCode()).body(response.getBody());
+        } catch (HttpStatusCodeException e) {
+            return ResponseEntity.status(e.getStatusCode())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(e.getResponseBodyAsString());
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body("{\"error\":\"" + e.getMessage() + "\"}");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body("{\"error\":\"Erro ao comunicar com serviço de certificados: " + e.getMessage() + "\"}");
         }
     }
 
-    private jakarta.servlet.http.HttpServletRequest getCurrentRequest() {
+    @GetMapping("/public-key")
+    @Operation(
+        summary = "Chave pública de verificação de certificados (público)",
+        description = "Retorna a chave pública Ed25519 (X.509 DER em base64) que permite a terceiros verificar " +
+                     "certificados assinados sem chamar esta API. Token: base64url(payload) + '.' + base64url(assinatura); " +
+                     "payload: versão (1 byte) | usuarioId (16) | eventId (16) | emissão em epoch segundos UTC (8) | código (UTF-8)."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Chave pública",
+            content = @Content(schema = @Schema(example = "{\"algorithm\":\"Ed25519\",\"format\":\"X.509\",\"publicKey\":\"MCowBQYDK2VwAyEA...\"}")))
+    })
+    public ResponseEntity<Map<String, String>> getPublicKey() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(Duration.ofHours(1)).cachePublic())
+            .body(Map.of(
+                "algorithm", CertificateSignatureService.ALGORITHM,
+                "format", "X.509",
+                "publicKey", certificateSignatureService.getPublicKey()
+            ));
+    }
+
+    @PostMapping("/revoke/{code}")
+    @Operation(
+        summary = "Revoga um certificado",
+        description = "Marca o certificado como revogado. Validações por código e por token assinado passam a recusá-lo. " +
+                     "Requer autenticação JWT de um administrador."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Certificado revogado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Usuário não é administrador"),
+        @ApiResponse(responseCode = "500", description = "Certificado não encontrado ou erro interno")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    public ResponseEntity<Void> revokeCertificate(@PathVariable String code) {
+        certificateIssuanceService.revogar(code);
+        
+        // Log de auditoria
+        Map<String, Object> details = new HashMap<>();
+        details.put("certificateCode", code);
+        userLogService.logAction(sessionUtils.getUsuarioLogado(), "CERTIFICATE_REVOKE", "CERTIFICATE", null,
+            details, getCurrentRequest());
+        
+        return ResponseEntity.noContent().build();
+    }
+
+    private static ResponseEntity<?> certificadoInvalido() {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+            "valid", false,
+            "error", "Certificado não encontrado ou inválido"
+        ));
+    }
+
+    private HttpServletRequest getCurrentRequest() {
         org.springframework.web.context.request.RequestAttributes requestAttributes = 
             org.springframework.web.context.request.RequestContextHolder.getRequestAttributes();
         if (requestAttributes instanceof org.springframework.web.context.request.ServletRequestAttributes) {
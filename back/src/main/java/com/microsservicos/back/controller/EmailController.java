@@ -33,7 +33,7 @@ public class EmailController {
                      "Usado pelo serviço de certificados (Node.js)."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "200", description = "Email enviado com sucesso"),
+        @ApiResponse(responseCode = "200", description = "Email enfileirado para envio"),
         @ApiResponse(responseCode = "400", description = "Dados inválidos ou usuário/evento não encontrado"),
         @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
@@ -47,7 +47,7 @@ public class EmailController {
             
             emailService.enviarEmailCertificadoEmitido(usuario, event, dto.getCertificateCode());
             
-            return ResponseEntity.ok().body("{\"message\":\"Email enviado com sucesso\"}");
+            return ResponseEntity.ok().body("{\"message\":\"Email enfileirado para envio\"}");
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("{\"error\":\"" + e.getMessage() + "\"}");
@@ -1,12 +1,23 @@
 package com.microsservicos.back.controller;
 
+import com.microsservicos.back.domain.SyncOperationResult;
+import com.microsservicos.back.domain.Usuario;
 import com.microsservicos.back.dto.CadastroRapidoUsuarioDTO;
+import com.microsservicos.back.dto.CheckInTokenDTO;
+import com.microsservicos.back.dto.CheckInTokenResponseDTO;
 import com.microsservicos.back.dto.EventoInscritoDTO;
+import com.microsservicos.back.dto.ImportacaoLoteResultadoDTO;
+import com.microsservicos.back.dto.PresencaDashboardEventoDTO;
 import com.microsservicos.back.dto.RegistrarPresencaDTO;
 import com.microsservicos.back.dto.UsuarioResponseDTO;
 import com.microsservicos.back.dto.UsuarioInscritoDTO;
+import com.microsservicos.back.exception.ServiceUnavailableException;
+import com.microsservicos.back.service.AttendanceDashboardService;
+import com.microsservicos.back.service.CheckInTokenService;
+import com.microsservicos.back.service.CheckInWriteQueue;
 import com.microsservicos.back.service.EventAttendanceService;
 import com.microsservicos.back.service.UserLogService;
+import com.microsservicos.back.service.WalkInImportService;
 import com.microsservicos.back.util.SessionUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -18,9 +29,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -36,6 +56,11 @@ public class EventAttendanceController {
     private final EventAttendanceService eventAttendanceService;
     private final UserLogService userLogService;
     private final SessionUtils sessionUtils;
+    private final CheckInTokenService checkInTokenService;
+    private final CheckInWriteQueue checkInWriteQueue;
+    private final WalkInImportService walkInImportService;
+    private final ObjectMapper objectMapper;
+    private final AttendanceDashboardService attendanceDashboardService;
 
     @GetMapping("/usuarios")
     @Operation(
@@ -123,6 +148,25 @@ public class EventAttendanceController {
         return ResponseEntity.ok(usuarios);
     }
 
+    @GetMapping(value = "/eventos/{eventId}/presencas/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Acompanhar presença do evento em tempo real (SSE)",
+        description = "Abre um stream Server-Sent Events com o total de inscritos e presentes e cada nova inscrição, " +
+                     "cancelamento ou check-in. O primeiro evento é um SNAPSHOT; snapshots são reenviados periodicamente. " +
+                     "Assinantes que não consomem os eventos a tempo são desconectados."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream aberto",
+            content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                schema = @Schema(implementation = PresencaDashboardEventoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Evento não encontrado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN")
+    })
+    public SseEmitter acompanharPresencas(@PathVariable UUID eventId) {
+        return attendanceDashboardService.assinar(eventId);
+    }
+
     @PostMapping("/cadastro-rapido")
     @Operation(
         summary = "Cadastrar usuário, inscrever em evento e marcar presença",
@@ -153,5 +197,108 @@ public class EventAttendanceController {
         
         return ResponseEntity.ok(usuario);
     }
-}
 
+    @PostMapping("/eventos/{eventId}/checkin-token")
+    @Operation(
+        summary = "Registrar presença pelo token do QR code",
+        description = "Verifica em memória a assinatura do token de check-in emitido na inscrição e grava a presença " +
+                     "em lote com as outras leituras do momento, respondendo após o commit. Leituras repetidas do mesmo " +
+                     "token dentro de um minuto são idempotentes."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Check-in gravado; o resultado indica se foi aplicado",
+            content = @Content(schema = @Schema(implementation = CheckInTokenResponseDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Token inválido, revogado ou de outro evento"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN"),
+        @ApiResponse(responseCode = "503", description = "Fila de gravação cheia ou lote não gravado a tempo; tente novamente")
+    })
+    public ResponseEntity<CheckInTokenResponseDTO> registrarPresencaPorToken(@PathVariable UUID eventId,
+                                                                            @Valid @RequestBody CheckInTokenDTO dto) {
+        CheckInTokenService.CheckInClaims claims = checkInTokenService.verificar(dto.getToken());
+        if (!claims.eventId().equals(eventId)) {
+            throw new RuntimeException("Token de check-in pertence a outro evento");
+        }
+
+        var admin = sessionUtils.getUsuarioLogado();
+        LocalDateTime registradoEm = LocalDateTime.now();
+        SyncOperationResult resultado;
+        try {
+            resultado = checkInWriteQueue.registrar(claims, admin.getId(), registradoEm);
+        } catch (ServiceUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+
+        return ResponseEntity.ok(CheckInTokenResponseDTO.builder()
+                .inscriptionId(claims.inscriptionId())
+                .usuarioId(claims.usuarioId())
+                .eventId(claims.eventId())
+                .registradoEm(registradoEm)
+                .resultado(resultado)
+                .build());
+    }
+
+    @PostMapping(value = "/eventos/{eventId}/cadastro-rapido/lote", consumes = "text/csv")
+    @Operation(
+        summary = "Importar cadastros rápidos em lote (CSV)",
+        description = "Importa em streaming um CSV com as colunas nome e email (cabeçalho opcional). Cada linha válida " +
+                     "cria o usuário com senha temporária 'senhatemporaria', inscreve no evento e marca presença. " +
+                     "Retorna o resultado de cada linha."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado; resultado por linha",
+            content = @Content(schema = @Schema(implementation = ImportacaoLoteResultadoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Evento não encontrado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<ImportacaoLoteResultadoDTO> importarCadastrosRapidosCsv(@PathVariable UUID eventId,
+                                                                                 HttpServletRequest request) throws IOException {
+        var admin = sessionUtils.getUsuarioLogado();
+        ImportacaoLoteResultadoDTO resultado;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            resultado = walkInImportService.importar(eventId, admin.getId(), walkInImportService.lerCsv(reader));
+        }
+        registrarLogImportacao(admin, eventId, resultado, "text/csv", request);
+        return ResponseEntity.ok(resultado);
+    }
+
+    @PostMapping(value = "/eventos/{eventId}/cadastro-rapido/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Importar cadastros rápidos em lote (JSON)",
+        description = "Importa em streaming um array JSON de objetos {name, email}. Cada linha válida cria o usuário com " +
+                     "senha temporária 'senhatemporaria', inscreve no evento e marca presença. Retorna o resultado de cada linha."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lote processado; resultado por linha",
+            content = @Content(schema = @Schema(implementation = ImportacaoLoteResultadoDTO.class))),
+        @ApiResponse(responseCode = "400", description = "Evento não encontrado"),
+        @ApiResponse(responseCode = "401", description = "Não autenticado"),
+        @ApiResponse(responseCode = "403", description = "Acesso negado - apenas ADMIN"),
+        @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
+    })
+    public ResponseEntity<ImportacaoLoteResultadoDTO> importarCadastrosRapidosJson(@PathVariable UUID eventId,
+                                                                                  HttpServletRequest request) throws IOException {
+        var admin = sessionUtils.getUsuarioLogado();
+        ImportacaoLoteResultadoDTO resultado;
+        try (var registros = objectMapper.readerFor(CadastroRapidoUsuarioDTO.class)
+                .<CadastroRapidoUsuarioDTO>readValues(request.getInputStream())) {
+            resultado = walkInImportService.importar(eventId, admin.getId(), registros);
+        }
+        registrarLogImportacao(admin, eventId, resultado, MediaType.APPLICATION_JSON_VALUE, request);
+        return ResponseEntity.ok(resultado);
+    }
+
+    private void registrarLogImportacao(Usuario admin, UUID eventId,
+                                        ImportacaoLoteResultadoDTO resultado, String formato,
+                                        HttpServletRequest request) {
+        Map<String, Object> details = new HashMap<>();
+        details.put("eventId", eventId.toString());
+        details.put("formato", formato);
+        details.put("total", resultado.getTotal());
+        details.put("importados", resultado.getImportados());
+        userLogService.logAction(admin, "QUICK_REGISTER_BULK", "EVENT", eventId, details, request);
+    }
+}
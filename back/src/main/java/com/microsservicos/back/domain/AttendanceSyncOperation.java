@@ -0,0 +1,47 @@
+package com.microsservicos.back.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "attendance_sync_operation")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSyncOperation {
+
+    @Id
+    @Column(name = "operation_id")
+    private UUID operationId; // Gerado pelo dispositivo
+
+    @Column(name = "device_id", nullable = false, length = 100)
+    private String deviceId;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(name = "usuario_id", nullable = false)
+    private UUID usuarioId;
+
+    @Column(nullable = false)
+    private Boolean presente;
+
+    @Column(name = "device_timestamp", nullable = false)
+    private LocalDateTime deviceTimestamp;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private SyncOperationResult resultado;
+
+    @CreationTimestamp
+    @Column(name = "processed_at", nullable = false, updatable = false)
+    private LocalDateTime processedAt;
+}
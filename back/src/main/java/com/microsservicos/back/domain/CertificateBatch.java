@@ -0,0 +1,39 @@
+package com.microsservicos.back.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "certificate_batch")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateBatch {
+
+    @Id
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    private UUID id;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(name = "solicitado_por", nullable = false)
+    private UUID solicitadoPor;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer total = 0;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.microsservicos.back.domain;
+
+public enum CertificateBatchStatus {
+    EM_ANDAMENTO,
+    CONCLUIDO,
+    CONCLUIDO_COM_FALHAS
+}
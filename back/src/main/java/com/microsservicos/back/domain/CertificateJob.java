@@ -0,0 +1,68 @@
+package com.microsservicos.back.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "certificate_job")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CertificateJob {
+
+    @Id
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    private UUID id;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @Column(name = "usuario_id", nullable = false)
+    private UUID usuarioId;
+
+    @Column(name = "solicitado_por", nullable = false)
+    private UUID solicitadoPor;
+
+    /** Lote de certificados do job; nulo em pedidos individuais */
+    @Column(name = "batch_id")
+    private UUID batchId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CertificateJobStatus status;
+
+    @Column(name = "certificate_code", length = 20)
+    private String certificateCode;
+
+    @Column(name = "signed_token", length = 200)
+    private String signedToken;
+
+    @Column(length = 500)
+    private String erro;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer tentativas = 0;
+
+    @Column(name = "disponivel_em", nullable = false)
+    private LocalDateTime disponivelEm;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,8 @@
+package com.microsservicos.back.domain;
+
+public enum CertificateJobStatus {
+    PENDENTE,
+    PROCESSANDO,
+    CONCLUIDO,
+    FALHOU
+}
@@ -0,0 +1,37 @@
+package com.microsservicos.back.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "checkin_token_revocation")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckInTokenRevocation {
+
+    @Id
+    @Column(name = "inscription_id")
+    private UUID inscriptionId;
+
+    @Column(name = "usuario_id", nullable = false)
+    private UUID usuarioId;
+
+    @Column(name = "event_id", nullable = false)
+    private UUID eventId;
+
+    @CreationTimestamp
+    @Column(name = "revoked_at", nullable = false, updatable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,9 @@
+package com.microsservicos.back.domain;
+
+public enum DashboardChangeType {
+    SNAPSHOT,
+    INSCRICAO,
+    CANCELAMENTO,
+    PRESENCA,
+    LOTE
+}
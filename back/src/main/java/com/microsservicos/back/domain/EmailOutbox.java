@@ -0,0 +1,78 @@
+package com.microsservicos.back.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UuidGenerator;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "email_outbox")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutbox {
+
+    @Id
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 50)
+    private EmailType tipo;
+
+    @Column(nullable = false)
+    private String destinatario;
+
+    @Column(nullable = false)
+    private String assunto;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String corpo;
+
+    @Column(name = "corpo_html", columnDefinition = "TEXT")
+    private String corpoHtml;
+
+    @Column(name = "usuario_id")
+    private UUID usuarioId;
+
+    @Column(name = "event_id")
+    private UUID eventId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private EmailOutboxStatus status;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean urgente = false;
+
+    @Column(name = "agrupado_em")
+    private UUID agrupadoEm;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer tentativas = 0;
+
+    @Column(length = 500)
+    private String erro;
+
+    @Column(name = "disponivel_em", nullable = false)
+    private LocalDateTime disponivelEm;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,9 @@
+package com.microsservicos.back.domain;
+
+public enum EmailOutboxStatus {
+    PENDENTE,
+    ENVIANDO,
+    ENVIADO,
+    AGRUPADO,
+    FALHOU
+}
@@ -0,0 +1,23 @@
+package com.microsservicos.back.domain;
+
+public enum EmailType {
+    CONFIRMACAO_CADASTRO(false),
+    CONFIRMACAO_INSCRICAO(false),
+    CANCELAMENTO_INSCRICAO(false),
+    CONFIRMACAO_PRESENCA(false),
+    CADASTRO_RAPIDO_COM_PRESENCA(false),
+    CERTIFICADO_EMITIDO(true),
+    LEMBRETE_EVENTO(true),
+    RESUMO_NOTIFICACOES(false);
+
+    /** Emails urgentes não esperam a janela de agrupamento por destinatário */
+    private final boolean urgente;
+
+    EmailType(boolean urgente) {
+        this.urgente = urgente;
+    }
+
+    public boolean isUrgente() {
+        return urgente;
+    }
+}
@@ -0,0 +1,34 @@
+package com.microsservicos.back.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "event_attendance_stats")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventAttendanceStats {
+
+    @Id
+    @Column(name = "event_id")
+    private UUID eventId;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long inscritos = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long presentes = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,8 @@
+package com.microsservicos.back.domain;
+
+public enum ImportRowStatus {
+    IMPORTADO,
+    DUPLICADO,
+    INVALIDO,
+    ERRO
+}
@@ -0,0 +1,7 @@
+package com.microsservicos.back.domain;
+
+public enum RosterChangeType {
+    INSCRICAO,
+    CANCELAMENTO,
+    PRESENCA
+}
@@ -0,0 +1,52 @@
+package com.microsservicos.back.dto;
+
+import com.microsservicos.back.domain.CertificateJobStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Situação de um job de geração de certificado")
+public class CertificateJobDTO {
+
+    @Schema(description = "ID do job")
+    private UUID jobId;
+
+    @Schema(description = "ID do evento")
+    private UUID eventId;
+
+    @Schema(description = "ID do usuário")
+    private UUID usuarioId;
+
+    @Schema(description = "Situação do job", example = "PENDENTE")
+    private CertificateJobStatus status;
+
+    @Schema(description = "Código do certificado (quando concluído)", example = "CERT-2024-001234")
+    private String certificateCode;
+
+    @Schema(description = "Certificado assinado (Ed25519), verificável offline com a chave pública (quando concluído)")
+    private String signedToken;
+
+    @Schema(description = "URL de download do PDF (quando concluído)", example = "/api/certificates/download/CERT-2024-001234")
+    private String downloadUrl;
+
+    @Schema(description = "Motivo da falha (quando falhou)")
+    private String erro;
+
+    @Schema(description = "Tentativas realizadas", example = "1")
+    private Integer tentativas;
+
+    @Schema(description = "Data/hora do pedido")
+    private LocalDateTime createdAt;
+
+    @Schema(description = "Data/hora de conclusão")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,20 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO com o token de check-in lido do QR code")
+public class CheckInTokenDTO {
+
+    @NotBlank(message = "Token é obrigatório")
+    @Size(max = 256, message = "Token inválido")
+    @Schema(description = "Token de check-in assinado", example = "AbC...xYz.QrS...tUv")
+    private String token;
+}
@@ -0,0 +1,34 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import com.microsservicos.back.domain.SyncOperationResult;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "DTO de resposta do check-in por token (presença já gravada)")
+public class CheckInTokenResponseDTO {
+
+    @Schema(description = "ID da inscrição")
+    private UUID inscriptionId;
+
+    @Schema(description = "ID do usuário")
+    private UUID usuarioId;
+
+    @Schema(description = "ID do evento")
+    private UUID eventId;
+
+    @Schema(description = "Momento em que o check-in foi aceito")
+    private LocalDateTime registradoEm;
+
+    @Schema(description = "Resultado da gravação (APLICADA, DUPLICADA, OBSOLETA ou REJEITADA)")
+    private SyncOperationResult resultado;
+}
@@ -0,0 +1,36 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Estatísticas de presença agregadas por categoria")
+public class EstatisticaCategoriaDTO {
+
+    @Schema(description = "Categoria (\"Sem categoria\" quando não informada)", example = "Teatro")
+    private String categoria;
+
+    @Schema(description = "Quantidade de eventos", example = "3")
+    private Long eventos;
+
+    @Schema(description = "Total de inscritos", example = "1200")
+    private Long inscritos;
+
+    @Schema(description = "Total de presentes", example = "950")
+    private Long presentes;
+
+    @Schema(description = "Inscritos que não compareceram", example = "250")
+    private Long ausentes;
+
+    @Schema(description = "Presentes / inscritos", example = "0.79")
+    private Double taxaPresenca;
+
+    @Schema(description = "Ausentes / inscritos", example = "0.21")
+    private Double taxaAusencia;
+}
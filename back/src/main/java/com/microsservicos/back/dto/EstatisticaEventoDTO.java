@@ -0,0 +1,58 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Estatísticas de presença de um evento")
+public class EstatisticaEventoDTO {
+
+    @Schema(description = "ID do evento")
+    private UUID eventId;
+
+    @Schema(description = "Nome do evento")
+    private String nome;
+
+    @Schema(description = "Categoria do evento")
+    private String categoria;
+
+    @Schema(description = "Data e hora de início")
+    private LocalDateTime dataHoraInicio;
+
+    @Schema(description = "Total de inscritos", example = "400")
+    private Long inscritos;
+
+    @Schema(description = "Total de presentes", example = "320")
+    private Long presentes;
+
+    @Schema(description = "Inscritos que não compareceram", example = "80")
+    private Long ausentes;
+
+    @Schema(description = "Presentes / inscritos", example = "0.8")
+    private Double taxaPresenca;
+
+    @Schema(description = "Ausentes / inscritos", example = "0.2")
+    private Double taxaAusencia;
+
+    public EstatisticaEventoDTO(UUID eventId, String nome, String categoria, LocalDateTime dataHoraInicio,
+                                Long inscritos, Long presentes) {
+        this.eventId = eventId;
+        this.nome = nome;
+        this.categoria = categoria;
+        this.dataHoraInicio = dataHoraInicio;
+        this.inscritos = inscritos;
+        this.presentes = presentes;
+        this.ausentes = Math.max(inscritos - presentes, 0);
+        this.taxaPresenca = inscritos > 0 ? (double) presentes / inscritos : null;
+        this.taxaAusencia = inscritos > 0 ? (double) this.ausentes / inscritos : null;
+    }
+}
@@ -52,5 +52,8 @@ public class EventResponseDTO {
 
     @Schema(description = "Data da última atualização do evento")
     private LocalDateTime updatedAt;
+
+    @Schema(description = "Token de check-in assinado para o QR code (apenas em respostas de inscrição)")
+    private String checkInToken;
 }
 
@@ -0,0 +1,33 @@
+package com.microsservicos.back.dto;
+
+import com.microsservicos.back.domain.ImportRowStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado da importação de uma linha do lote de cadastro rápido")
+public class ImportacaoLinhaResultadoDTO {
+
+    @Schema(description = "Número da linha no arquivo (1 = primeiro registro)", example = "1")
+    private Integer linha;
+
+    @Schema(description = "Email informado na linha", example = "joao@example.com")
+    private String email;
+
+    @Schema(description = "Resultado da linha", example = "IMPORTADO")
+    private ImportRowStatus status;
+
+    @Schema(description = "ID do usuário criado (quando importado)")
+    private UUID usuarioId;
+
+    @Schema(description = "Motivo quando a linha não foi importada")
+    private String mensagem;
+}
@@ -0,0 +1,33 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Relatório da importação em lote de cadastros rápidos")
+public class ImportacaoLoteResultadoDTO {
+
+    @Schema(description = "ID do evento")
+    private UUID eventId;
+
+    @Schema(description = "Total de linhas lidas", example = "1200")
+    private Integer total;
+
+    @Schema(description = "Linhas importadas (usuário criado, inscrito e com presença confirmada)", example = "1180")
+    private Integer importados;
+
+    @Schema(description = "Linhas não importadas (duplicadas, inválidas ou com erro)", example = "20")
+    private Integer rejeitados;
+
+    @Schema(description = "Resultado por linha")
+    private List<ImportacaoLinhaResultadoDTO> linhas;
+}
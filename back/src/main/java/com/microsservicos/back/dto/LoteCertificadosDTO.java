@@ -0,0 +1,47 @@
+package com.microsservicos.back.dto;
+
+import com.microsservicos.back.domain.CertificateBatchStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Progresso da emissão em lote de certificados de um evento")
+public class LoteCertificadosDTO {
+
+    @Schema(description = "ID do lote")
+    private UUID loteId;
+
+    @Schema(description = "ID do evento")
+    private UUID eventId;
+
+    @Schema(description = "Situação do lote", example = "EM_ANDAMENTO")
+    private CertificateBatchStatus status;
+
+    @Schema(description = "Participantes com presença confirmada no início do lote", example = "2000")
+    private Integer total;
+
+    @Schema(description = "Certificados emitidos", example = "1450")
+    private Integer emitidos;
+
+    @Schema(description = "Emissões que falharam", example = "3")
+    private Integer falhas;
+
+    @Schema(description = "Data/hora de início")
+    private LocalDateTime iniciadoEm;
+
+    @Schema(description = "Data/hora de conclusão (nulo enquanto em andamento)")
+    private LocalDateTime concluidoEm;
+
+    @Schema(description = "Mensagens das falhas (limitadas às primeiras)")
+    private List<String> erros;
+}
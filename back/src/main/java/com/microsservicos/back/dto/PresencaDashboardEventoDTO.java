@@ -0,0 +1,40 @@
+package com.microsservicos.back.dto;
+
+import com.microsservicos.back.domain.DashboardChangeType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Evento incremental do painel de presença em tempo real")
+public class PresencaDashboardEventoDTO {
+
+    @Schema(description = "Tipo da alteração", example = "PRESENCA")
+    private DashboardChangeType tipo;
+
+    @Schema(description = "ID do evento")
+    private UUID eventId;
+
+    @Schema(description = "ID do usuário afetado (ausente em SNAPSHOT e LOTE)")
+    private UUID usuarioId;
+
+    @Schema(description = "Se o usuário está presente após a alteração")
+    private Boolean presente;
+
+    @Schema(description = "Total de inscritos após a alteração", example = "412")
+    private Long inscritos;
+
+    @Schema(description = "Total de presentes após a alteração", example = "187")
+    private Long presentes;
+
+    @Schema(description = "Momento da alteração")
+    private LocalDateTime ocorridoEm;
+}
@@ -0,0 +1,36 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Relatório de presença por evento e por categoria")
+public class RelatorioPresencaDTO {
+
+    @Schema(description = "Filtro de categoria aplicado")
+    private String categoria;
+
+    @Schema(description = "Início do período (data de início do evento)")
+    private LocalDateTime inicio;
+
+    @Schema(description = "Fim do período (data de início do evento)")
+    private LocalDateTime fim;
+
+    @Schema(description = "Totais do período")
+    private EstatisticaCategoriaDTO total;
+
+    @Schema(description = "Totais por categoria")
+    private List<EstatisticaCategoriaDTO> categorias;
+
+    @Schema(description = "Estatísticas por evento")
+    private List<EstatisticaEventoDTO> eventos;
+}
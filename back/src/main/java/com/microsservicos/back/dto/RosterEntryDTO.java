@@ -0,0 +1,33 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Entrada compacta do roster de um evento para dispositivos de check-in")
+public class RosterEntryDTO {
+
+    @Schema(description = "ID do usuário")
+    private UUID usuarioId;
+
+    @Schema(description = "Nome do usuário")
+    private String nome;
+
+    @Schema(description = "Email do usuário")
+    private String email;
+
+    @Schema(description = "Se o usuário está presente")
+    private Boolean presente;
+
+    @Schema(description = "Data de confirmação de presença")
+    private LocalDateTime confirmedAt;
+}
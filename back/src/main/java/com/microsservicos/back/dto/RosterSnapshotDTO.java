@@ -0,0 +1,33 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Snapshot (completo ou delta) do roster de um evento para sincronização offline")
+public class RosterSnapshotDTO {
+
+    @Schema(description = "ID do evento")
+    private UUID eventId;
+
+    @Schema(description = "Cursor a ser enviado na próxima sincronização", example = "1532")
+    private Long cursor;
+
+    @Schema(description = "true quando o snapshot é completo; false quando contém apenas as alterações desde o cursor informado")
+    private Boolean completo;
+
+    @Schema(description = "Usuários inscritos (todos ou apenas os alterados)")
+    private List<RosterEntryDTO> entradas;
+
+    @Schema(description = "Usuários cuja inscrição foi cancelada desde o cursor informado")
+    private List<UUID> removidos;
+}
@@ -0,0 +1,35 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Operação de check-in registrada localmente por um dispositivo")
+public class SyncCheckInDTO {
+
+    @NotNull(message = "ID da operação é obrigatório")
+    @Schema(description = "ID da operação gerado pelo dispositivo (idempotência)", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID operationId;
+
+    @NotNull(message = "ID do usuário é obrigatório")
+    @Schema(description = "ID do usuário", example = "123e4567-e89b-12d3-a456-426614174000")
+    private UUID usuarioId;
+
+    @Schema(description = "Se o usuário está presente (default: true)", example = "true")
+    @Builder.Default
+    private Boolean presente = true;
+
+    @NotNull(message = "Data do registro é obrigatória")
+    @Schema(description = "Momento do check-in segundo o relógio do dispositivo")
+    private LocalDateTime registradoEm;
+}
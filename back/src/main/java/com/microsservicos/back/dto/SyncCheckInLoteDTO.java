@@ -0,0 +1,30 @@
+package com.microsservicos.back.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Lote de check-ins registrados offline por um dispositivo")
+public class SyncCheckInLoteDTO {
+
+    @NotBlank(message = "ID do dispositivo é obrigatório")
+    @Size(max = 100, message = "ID do dispositivo deve ter no máximo 100 caracteres")
+    @Schema(description = "Identificador do dispositivo de check-in", example = "tablet-portao-1")
+    private String deviceId;
+
+    @NotEmpty(message = "O lote deve conter ao menos uma operação")
+    @Size(max = 1000, message = "O lote deve conter no máximo 1000 operações")
+    @Valid
+    @Schema(description = "Operações de check-in")
+    private List<SyncCheckInDTO> operacoes;
+}
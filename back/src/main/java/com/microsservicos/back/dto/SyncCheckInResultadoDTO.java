@@ -0,0 +1,27 @@
+package com.microsservicos.back.dto;
+
+import com.microsservicos.back.domain.SyncOperationResult;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Resultado do merge de uma operação de check-in")
+public class SyncCheckInResultadoDTO {
+
+    @Schema(description = "ID da operação")
+    private UUID operationId;
+
+    @Schema(description = "Resultado do merge", example = "APLICADA")
+    private SyncOperationResult resultado;
+
+    @Schema(description = "Mensagem explicativa (quando rejeitada ou obsoleta)")
+    private String mensagem;
+}
@@ -0,0 +1,11 @@
+package com.microsservicos.back.exception;
+
+/**
+ * Emissão recusada por regra de negócio (ex.: presença não confirmada). Não adianta tentar de novo.
+ */
+public class CertificateIssuanceException extends RuntimeException {
+
+    public CertificateIssuanceException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.microsservicos.back.exception;
+
+/**
+ * Lançada quando uma dependência remota é rejeitada localmente (circuito aberto ou
+ * limite de chamadas concorrentes atingido), sem que a chamada seja feita.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.microsservicos.back.repository;
+
+import com.microsservicos.back.domain.AttendanceSyncOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+@Repository
+public interface AttendanceSyncOperationRepository extends JpaRepository<AttendanceSyncOperation, UUID> {
+
+    @Query("SELECT o.operationId FROM AttendanceSyncOperation o WHERE o.operationId IN :operationIds")
+    Set<UUID> findOperationIdsExistentes(@Param("operationIds") Collection<UUID> operationIds);
+}
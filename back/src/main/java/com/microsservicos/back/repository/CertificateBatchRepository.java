@@ -0,0 +1,33 @@
+package com.microsservicos.back.repository;
+
+import com.microsservicos.back.domain.CertificateBatch;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface CertificateBatchRepository extends JpaRepository<CertificateBatch, UUID> {
+
+    /**
+     * Remove lotes sem jobs ativos cujo último job terminou antes do limite. Os jobs continuam na
+     * certificate_job, sem o lote (batch_id nulo).
+     */
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "certificate_batch"))
+    @Query(value = "DELETE FROM certificate_batch b " +
+                   "WHERE b.created_at < :limite " +
+                   "AND NOT EXISTS (SELECT 1 FROM certificate_job j WHERE j.batch_id = b.id " +
+                   "    AND (j.status IN ('PENDENTE', 'PROCESSANDO') OR j.finished_at >= :limite))",
+           nativeQuery = true)
+    int removerConcluidosAntesDe(@Param("limite") LocalDateTime limite);
+}
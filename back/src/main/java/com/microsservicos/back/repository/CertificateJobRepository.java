@@ -0,0 +1,117 @@
+package com.microsservicos.back.repository;
+
+import com.microsservicos.back.domain.CertificateJob;
+import com.microsservicos.back.domain.CertificateJobStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CertificateJobRepository extends JpaRepository<CertificateJob, UUID> {
+
+    Optional<CertificateJob> findFirstByEventIdAndUsuarioIdAndStatusIn(UUID eventId, UUID usuarioId,
+                                                                       Collection<CertificateJobStatus> status);
+
+    /** Quantidade de jobs do lote em cada status, e a conclusão mais recente */
+    interface ContagemPorStatus {
+        CertificateJobStatus getStatus();
+
+        long getQuantidade();
+
+        LocalDateTime getUltimaConclusao();
+    }
+
+    /**
+     * Jobs prontos para processar: pendentes cujo backoff já passou ou em processamento com lease
+     * expirado (worker que caiu). Linhas já bloqueadas por outra instância são puladas. Pedidos
+     * individuais vêm antes dos jobs de lotes, para não esperarem um lote inteiro.
+     */
+    @Query(value = "SELECT * FROM certificate_job " +
+                   "WHERE (status = 'PENDENTE' AND disponivel_em <= :agora) " +
+                   "   OR (status = 'PROCESSANDO' AND locked_until < :agora) " +
+                   "ORDER BY batch_id IS NOT NULL, disponivel_em " +
+                   "LIMIT :limite " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<CertificateJob> findDisponiveisParaProcessar(@Param("agora") LocalDateTime agora,
+                                                      @Param("limite") int limite);
+
+    /**
+     * Encerra o job apenas se a tentativa informada ainda for a vigente (fencing do lease).
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CertificateJob j SET j.status = :status, j.certificateCode = :codigo, " +
+           "j.signedToken = :signedToken, j.erro = :erro, " +
+           "j.finishedAt = :agora, j.lockedUntil = null " +
+           "WHERE j.id = :id AND j.tentativas = :tentativas AND j.status = com.microsservicos.back.domain.CertificateJobStatus.PROCESSANDO")
+    int finalizar(@Param("id") UUID id,
+                  @Param("tentativas") Integer tentativas,
+                  @Param("status") CertificateJobStatus status,
+                  @Param("codigo") String codigo,
+                  @Param("signedToken") String signedToken,
+                  @Param("erro") String erro,
+                  @Param("agora") LocalDateTime agora);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE CertificateJob j SET j.status = com.microsservicos.back.domain.CertificateJobStatus.PENDENTE, " +
+           "j.erro = :erro, j.disponivelEm = :disponivelEm, j.lockedUntil = null " +
+           "WHERE j.id = :id AND j.tentativas = :tentativas AND j.status = com.microsservicos.back.domain.CertificateJobStatus.PROCESSANDO")
+    int reagendar(@Param("id") UUID id,
+                  @Param("tentativas") Integer tentativas,
+                  @Param("erro") String erro,
+                  @Param("disponivelEm") LocalDateTime disponivelEm);
+
+    /**
+     * Liga ao lote os jobs já ativos dos presentes do evento (pedidos individuais em andamento), que
+     * impediriam a criação de outro job para o mesmo participante.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "certificate_job"))
+    @Query(value = "UPDATE certificate_job j SET batch_id = :batchId " +
+                   "WHERE j.event_id = :eventId AND j.batch_id IS NULL AND j.status IN ('PENDENTE', 'PROCESSANDO') " +
+                   "AND EXISTS (SELECT 1 FROM event_attendance a " +
+                   "    WHERE a.event_id = j.event_id AND a.usuario_id = j.usuario_id AND a.presente = true)",
+           nativeQuery = true)
+    int vincularAtivosAoLote(@Param("batchId") UUID batchId, @Param("eventId") UUID eventId);
+
+    /**
+     * Cria um job PENDENTE do lote para cada participante presente sem job ativo, num único comando.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "certificate_job"))
+    @Query(value = "INSERT INTO certificate_job (id, event_id, usuario_id, solicitado_por, batch_id, status, " +
+                   "tentativas, disponivel_em, created_at) " +
+                   "SELECT uuid_generate_v7(), a.event_id, a.usuario_id, :solicitadoPor, :batchId, 'PENDENTE', 0, now(), now() " +
+                   "FROM event_attendance a WHERE a.event_id = :eventId AND a.presente = true " +
+                   "ON CONFLICT (event_id, usuario_id) WHERE status IN ('PENDENTE', 'PROCESSANDO') DO NOTHING",
+           nativeQuery = true)
+    int criarParaLote(@Param("batchId") UUID batchId, @Param("eventId") UUID eventId,
+                      @Param("solicitadoPor") UUID solicitadoPor);
+
+    long countByBatchId(UUID batchId);
+
+    @Query("SELECT j.status AS status, COUNT(j) AS quantidade, MAX(j.finishedAt) AS ultimaConclusao " +
+           "FROM CertificateJob j WHERE j.batchId = :batchId GROUP BY j.status")
+    List<ContagemPorStatus> contarPorStatus(@Param("batchId") UUID batchId);
+
+    List<CertificateJob> findByBatchIdAndStatusOrderByFinishedAt(UUID batchId, CertificateJobStatus status, Limit limite);
+
+    @Query("SELECT j.certificateCode FROM CertificateJob j WHERE j.batchId = :batchId " +
+           "AND j.status = com.microsservicos.back.domain.CertificateJobStatus.CONCLUIDO")
+    List<String> findCodigosEmitidos(@Param("batchId") UUID batchId);
+}
@@ -0,0 +1,53 @@
+package com.microsservicos.back.repository;
+
+import com.microsservicos.back.domain.Certificate;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CertificateRepository extends JpaRepository<Certificate, UUID> {
+
+    Optional<Certificate> findFirstByEventAttendanceId(UUID eventAttendanceId);
+
+    Optional<Certificate> findByCertificateCode(String certificateCode);
+
+    /**
+     * Insere o certificado se a presença ainda não tiver um válido (índice uk_certificate_event_attendance,
+     * compartilhado com o serviço de certificados).
+     *
+     * @return 1 se inserido, 0 se já existia um certificado válido para a presença
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "certificate"))
+    @Query(value = "INSERT INTO certificate (id, certificate_code, usuario_id, event_id, event_attendance_id, " +
+                   "issued_at, signed_token, created_at) " +
+                   "VALUES (:id, :codigo, :usuarioId, :eventId, :eventAttendanceId, :issuedAt, :signedToken, now()) " +
+                   "ON CONFLICT (event_attendance_id) WHERE revoked_at IS NULL DO NOTHING",
+           nativeQuery = true)
+    int inserirSeAusente(@Param("id") UUID id,
+                         @Param("codigo") String codigo,
+                         @Param("usuarioId") UUID usuarioId,
+                         @Param("eventId") UUID eventId,
+                         @Param("eventAttendanceId") UUID eventAttendanceId,
+                         @Param("issuedAt") LocalDateTime issuedAt,
+                         @Param("signedToken") String signedToken);
+
+    @Query("SELECT c.certificateCode FROM Certificate c WHERE c.revokedAt IS NOT NULL AND c.revokedAt >= :desde")
+    List<String> findCodigosRevogadosDesde(@Param("desde") LocalDateTime desde);
+
+    /** Confirmação de um positivo do Bloom filter de revogados (índices em certificate_code e revoked_at) */
+    boolean existsByCertificateCodeAndRevokedAtIsNotNull(String certificateCode);
+
+    long countByRevokedAtIsNotNull();
+}
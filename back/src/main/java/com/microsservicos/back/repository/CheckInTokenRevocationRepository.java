@@ -0,0 +1,19 @@
+package com.microsservicos.back.repository;
+
+import com.microsservicos.back.domain.CheckInTokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface CheckInTokenRevocationRepository extends JpaRepository<CheckInTokenRevocation, UUID> {
+
+    @Query("SELECT r FROM CheckInTokenRevocation r WHERE r.revokedAt >= :desde AND r.expiresAt > :agora")
+    List<CheckInTokenRevocation> findRevogadasDesde(@Param("desde") LocalDateTime desde,
+                                                    @Param("agora") LocalDateTime agora);
+}
@@ -0,0 +1,87 @@
+package com.microsservicos.back.repository;
+
+import com.microsservicos.back.domain.EmailOutbox;
+import com.microsservicos.back.domain.EmailOutboxStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, UUID> {
+
+    /**
+     * Emails prontos para envio: pendentes cujo backoff já passou ou em envio com lease expirado
+     * (dispatcher que caiu). Linhas já bloqueadas por outra instância são puladas.
+     */
+    @Query(value = "SELECT * FROM email_outbox " +
+                   "WHERE (status = 'PENDENTE' AND disponivel_em <= :agora) " +
+                   "   OR (status = 'ENVIANDO' AND locked_until < :agora) " +
+                   "ORDER BY disponivel_em " +
+                   "LIMIT :limite " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EmailOutbox> findDisponiveisParaEnvio(@Param("agora") LocalDateTime agora,
+                                               @Param("limite") int limite);
+
+    /**
+     * Emails não urgentes ainda pendentes dos destinatários informados, inclusive os que ainda estão
+     * dentro da janela de agrupamento, para entrar no resumo.
+     */
+    @Query(value = "SELECT * FROM email_outbox " +
+                   "WHERE status = 'PENDENTE' AND urgente = false AND tentativas = 0 " +
+                   "AND destinatario IN (:destinatarios) " +
+                   "ORDER BY created_at " +
+                   "FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<EmailOutbox> findPendentesParaAgrupar(@Param("destinatarios") Collection<String> destinatarios);
+
+    /**
+     * Há um lote pronto para envio quando ele está cheio ou quando o email disponível mais antigo
+     * já esperou o linger; do contrário vale aguardar mais emails para a mesma sessão SMTP.
+     */
+    @Query(value = "SELECT COALESCE(COUNT(*) >= :limite OR MIN(disponivel_em) <= :esperaAte, false) FROM (" +
+                   "    SELECT disponivel_em FROM email_outbox " +
+                   "    WHERE (status = 'PENDENTE' AND disponivel_em <= :agora) " +
+                   "       OR (status = 'ENVIANDO' AND locked_until < :agora) " +
+                   "    LIMIT :limite" +
+                   ") disponiveis",
+           nativeQuery = true)
+    boolean existeLoteProntoParaEnvio(@Param("agora") LocalDateTime agora,
+                                      @Param("limite") int limite,
+                                      @Param("esperaAte") LocalDateTime esperaAte);
+
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE EmailOutbox e SET e.status = com.microsservicos.back.domain.EmailOutboxStatus.ENVIADO, " +
+           "e.sentAt = :agora, e.erro = null, e.lockedUntil = null " +
+           "WHERE e.id IN :ids AND e.status = com.microsservicos.back.domain.EmailOutboxStatus.ENVIANDO")
+    int marcarEnviados(@Param("ids") Collection<UUID> ids, @Param("agora") LocalDateTime agora);
+
+    /**
+     * Devolve o email à fila (ou o encerra como FALHOU) se a tentativa informada ainda for a vigente.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.erro = :erro, " +
+           "e.disponivelEm = :disponivelEm, e.lockedUntil = null " +
+           "WHERE e.id = :id AND e.tentativas = :tentativas AND e.status = com.microsservicos.back.domain.EmailOutboxStatus.ENVIANDO")
+    int registrarFalha(@Param("id") UUID id,
+                       @Param("tentativas") Integer tentativas,
+                       @Param("status") EmailOutboxStatus status,
+                       @Param("erro") String erro,
+                       @Param("disponivelEm") LocalDateTime disponivelEm);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE e.status IN (com.microsservicos.back.domain.EmailOutboxStatus.ENVIADO, " +
+           "com.microsservicos.back.domain.EmailOutboxStatus.AGRUPADO) AND e.sentAt < :limite")
+    int deleteEnviadosAntesDe(@Param("limite") LocalDateTime limite);
+}
@@ -3,9 +3,18 @@ package com.microsservicos.back.repository;
 import com.microsservicos.back.domain.EventAttendance;
 import com.microsservicos.back.domain.Event;
 import com.microsservicos.back.domain.Usuario;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,7 +31,37 @@ public interface EventAttendanceRepository extends JpaRepository<EventAttendance
     List<EventAttendance> findByUsuarioAndPresente(Usuario usuario, Boolean presente);
     
     boolean existsByUsuarioAndEvent(Usuario usuario, Event event);
-}
 
+    @Query("SELECT a FROM EventAttendance a WHERE a.event.id = :eventId AND a.usuario.id IN :usuarioIds")
+    List<EventAttendance> findByEventIdAndUsuarioIds(@Param("eventId") UUID eventId,
+                                                     @Param("usuarioIds") Collection<UUID> usuarioIds);
+
+    /**
+     * Garante a linha de presença de cada usuário (ausente, sem escrita) e trava todas com lock de
+     * escrita até o fim da transação, antes do merge last-writer-wins. Num único comando e na ordem
+     * de usuario_id: lotes concorrentes travam as mesmas linhas na mesma ordem (sem deadlock), e a
+     * primeira presença do mesmo usuário criada por dois lotes não viola a unique constraint.
+     *
+     * O ON CONFLICT DO UPDATE com WHERE false não altera a linha existente, mas a trava.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_attendance"))
+    @Query(value = "INSERT INTO event_attendance (id, usuario_id, event_id, presente, created_at) " +
+                   "SELECT uuid_generate_v7(), u.id, :eventId, false, now() FROM usuario u " +
+                   "WHERE u.id IN (:usuarioIds) ORDER BY u.id " +
+                   "ON CONFLICT (usuario_id, event_id) DO UPDATE SET presente = event_attendance.presente WHERE false",
+           nativeQuery = true)
+    void garantirETravar(@Param("eventId") UUID eventId, @Param("usuarioIds") Collection<UUID> usuarioIds);
 
+    @Query("SELECT a.usuario.id FROM EventAttendance a WHERE a.event.id = :eventId AND a.presente = true")
+    List<UUID> findUsuarioIdsPresentes(@Param("eventId") UUID eventId);
 
+    /**
+     * Presença confirmada com lock de escrita na linha: serializa emissões concorrentes
+     * de certificado para a mesma presença (e o cancelamento da inscrição, que a desmarca).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM EventAttendance a WHERE a.event.id = :eventId AND a.usuario.id = :usuarioId AND a.presente = true")
+    Optional<EventAttendance> findPresencaConfirmadaParaEmissao(@Param("eventId") UUID eventId,
+                                                                @Param("usuarioId") UUID usuarioId);
+}
@@ -0,0 +1,49 @@
+package com.microsservicos.back.repository;
+
+import com.microsservicos.back.domain.EventAttendanceStats;
+import com.microsservicos.back.dto.EstatisticaEventoDTO;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EventAttendanceStatsRepository extends JpaRepository<EventAttendanceStats, UUID> {
+
+    /**
+     * Aplica os deltas de forma atômica (upsert), sem leitura prévia da linha.
+     * A query space declarada limita a invalidação do cache de segundo nível a esta tabela; sem ela,
+     * o Hibernate trata o SQL nativo como capaz de alterar qualquer tabela e esvazia todas as regiões.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "event_attendance_stats"))
+    @Query(value = "INSERT INTO event_attendance_stats (event_id, inscritos, presentes, updated_at) " +
+                   "VALUES (:eventId, :deltaInscritos, :deltaPresentes, now()) " +
+                   "ON CONFLICT (event_id) DO UPDATE SET " +
+                   "inscritos = event_attendance_stats.inscritos + EXCLUDED.inscritos, " +
+                   "presentes = event_attendance_stats.presentes + EXCLUDED.presentes, " +
+                   "updated_at = now()",
+           nativeQuery = true)
+    void incrementar(@Param("eventId") UUID eventId,
+                     @Param("deltaInscritos") long deltaInscritos,
+                     @Param("deltaPresentes") long deltaPresentes);
+
+    @Query("SELECT new com.microsservicos.back.dto.EstatisticaEventoDTO(e.id, e.nome, e.categoria, e.dataHoraInicio, " +
+           "COALESCE(s.inscritos, 0L), COALESCE(s.presentes, 0L)) " +
+           "FROM Event e LEFT JOIN EventAttendanceStats s ON s.eventId = e.id " +
+           "WHERE (:categoria IS NULL OR e.categoria = :categoria) " +
+           "AND (:inicio IS NULL OR e.dataHoraInicio >= :inicio) " +
+           "AND (:fim IS NULL OR e.dataHoraInicio <= :fim) " +
+           "ORDER BY e.dataHoraInicio")
+    List<EstatisticaEventoDTO> findEstatisticas(@Param("categoria") String categoria,
+                                                @Param("inicio") LocalDateTime inicio,
+                                                @Param("fim") LocalDateTime fim);
+}
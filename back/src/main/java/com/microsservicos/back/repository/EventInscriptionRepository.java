@@ -3,11 +3,16 @@ package com.microsservicos.back.repository;
 import com.microsservicos.back.domain.EventInscription;
 import com.microsservicos.back.domain.Event;
 import com.microsservicos.back.domain.Usuario;
+import com.microsservicos.back.dto.RosterEntryDTO;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -22,6 +27,25 @@ public interface EventInscriptionRepository extends JpaRepository<EventInscripti
     boolean existsByUsuarioAndEvent(Usuario usuario, Event event);
     
     long countByEvent(Event event);
+
+    @Query("SELECT i.usuario.id FROM EventInscription i WHERE i.event.id = :eventId AND i.usuario.id IN :usuarioIds")
+    Set<UUID> findUsuarioIdsInscritos(@Param("eventId") UUID eventId, @Param("usuarioIds") Collection<UUID> usuarioIds);
+
+    /**
+     * Roster compacto do evento (inscritos + estado de presença) em uma única consulta.
+     */
+    @Query("SELECT new com.microsservicos.back.dto.RosterEntryDTO(u.id, u.name, u.email, COALESCE(a.presente, false), a.confirmedAt) " +
+           "FROM EventInscription i JOIN i.usuario u " +
+           "LEFT JOIN EventAttendance a ON a.usuario = u AND a.event = i.event " +
+           "WHERE i.event.id = :eventId")
+    List<RosterEntryDTO> findRosterByEventId(@Param("eventId") UUID eventId);
+
+    @Query("SELECT new com.microsservicos.back.dto.RosterEntryDTO(u.id, u.name, u.email, COALESCE(a.presente, false), a.confirmedAt) " +
+           "FROM EventInscription i JOIN i.usuario u " +
+           "LEFT JOIN EventAttendance a ON a.usuario = u AND a.event = i.event " +
+           "WHERE i.event.id = :eventId AND u.id IN :usuarioIds")
+    List<RosterEntryDTO> findRosterByEventIdAndUsuarioIds(@Param("eventId") UUID eventId,
+                                                         @Param("usuarioIds") Collection<UUID> usuarioIds);
 }
 
 
@@ -1,7 +1,12 @@
 package com.microsservicos.back.repository;
 
 import com.microsservicos.back.domain.Event;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -10,11 +15,26 @@ import java.util.UUID;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, UUID> {
-    
+
+    /**
+     * Resultado em cache (região event-ativos); invalidado pelo Hibernate a cada escrita na tabela event.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "event-ativos")
+    })
     List<Event> findByAtivoTrue();
     
     List<Event> findByAtivoTrueAndDataHoraInicioAfter(LocalDateTime dataHora);
     
     List<Event> findByCategoriaAndAtivoTrue(String categoria);
+
+    /**
+     * Eventos ativos com início no intervalo (de, ate], os mais próximos primeiro; usa o índice
+     * idx_event_ativo_data_inicio.
+     */
+    @Query("SELECT e FROM Event e WHERE e.ativo = true AND e.dataHoraInicio > :de AND e.dataHoraInicio <= :ate " +
+           "ORDER BY e.dataHoraInicio")
+    List<Event> findAtivosComInicioEntre(@Param("de") LocalDateTime de, @Param("ate") LocalDateTime ate);
 }
 
@@ -0,0 +1,24 @@
+package com.microsservicos.back.repository;
+
+import com.microsservicos.back.domain.EventRosterChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EventRosterChangeRepository extends JpaRepository<EventRosterChange, Long> {
+
+    /**
+     * xmin do snapshot atual: toda transação com id menor já terminou, então as alterações que ela
+     * registrou já estão visíveis. As de transações a partir dele voltam no próximo delta.
+     */
+    @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS TEXT) AS BIGINT)", nativeQuery = true)
+    long findCursorConsolidado();
+
+    @Query("SELECT DISTINCT c.usuarioId FROM EventRosterChange c WHERE c.eventId = :eventId AND c.xactId >= :cursor")
+    List<UUID> findUsuarioIdsAlteradosDesde(@Param("eventId") UUID eventId, @Param("cursor") Long cursor);
+}
@@ -0,0 +1,336 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.config.AsyncConfig;
+import com.microsservicos.back.domain.DashboardChangeType;
+import com.microsservicos.back.domain.EventAttendanceStats;
+import com.microsservicos.back.dto.PresencaDashboardEventoDTO;
+import com.microsservicos.back.repository.EventAttendanceStatsRepository;
+import com.microsservicos.back.repository.EventRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Painel de presença em tempo real via Server-Sent Events.
+ *
+ * Os contadores vêm da tabela compartilhada {@code event_attendance_stats}, recarregada a cada
+ * {@code dashboard.sse.refresh-ms} para todos os eventos com assinantes (uma consulta por ciclo),
+ * então todas as instâncias mostram os mesmos totais. As alterações feitas nesta instância são
+ * publicadas após o commit e entregues no ciclo seguinte, já com os totais atualizados; alterações
+ * de outras instâncias chegam como SNAPSHOT quando os totais mudam.
+ *
+ * Cada assinante tem um buffer limitado, esvaziado por uma tarefa no executor dedicado
+ * ({@code async.dashboard.*}, threads {@code dashboard-sse-*}) enquanto houver eventos pendentes;
+ * com no máximo uma tarefa por assinante, poucas threads atendem muitos painéis. Quem não consome
+ * rápido o suficiente (buffer cheio ou escrita acima de {@code dashboard.sse.write-timeout-ms}) é
+ * desconectado, liberando a thread para os demais.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttendanceDashboardService {
+
+    private final EventRepository eventRepository;
+    private final EventAttendanceStatsRepository eventAttendanceStatsRepository;
+    @Qualifier(AsyncConfig.DASHBOARD_EXECUTOR)
+    private final TaskExecutor sender;
+
+    @Value("${dashboard.sse.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${dashboard.sse.buffer-size:256}")
+    private int bufferSize;
+
+    /** Limite de assinantes da instância */
+    @Value("${dashboard.sse.max-subscribers:500}")
+    private int maxSubscribers;
+
+    @Value("${dashboard.sse.write-timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    private final Map<UUID, Canal> canais = new ConcurrentHashMap<>();
+    private final AtomicInteger totalAssinantes = new AtomicInteger();
+
+    private record Alteracao(DashboardChangeType tipo, UUID usuarioId, Boolean presente) {
+    }
+
+    /** Totais e assinantes de um evento; existe apenas enquanto houver assinantes */
+    private static final class Canal {
+        private volatile long inscritos = -1;
+        private volatile long presentes = -1;
+        private final Queue<Alteracao> pendentes = new ConcurrentLinkedQueue<>();
+        private final List<Assinante> assinantes = new CopyOnWriteArrayList<>();
+    }
+
+    private final class Assinante {
+        private final UUID eventId;
+        private final SseEmitter emitter;
+        private final Queue<PresencaDashboardEventoDTO> buffer = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean agendado = new AtomicBoolean();
+        private volatile boolean encerrado;
+        /** Início da escrita em andamento (System.nanoTime), 0 sem escrita */
+        private volatile long escrevendoDesde;
+
+        private Assinante(UUID eventId, SseEmitter emitter) {
+            this.eventId = eventId;
+            this.emitter = emitter;
+        }
+
+        private void entregar(PresencaDashboardEventoDTO evento) {
+            if (encerrado) {
+                return;
+            }
+            if (!buffer.offer(evento)) {
+                log.warn("Assinante lento do painel do evento {} desconectado (buffer cheio)", eventId);
+                encerrar();
+                return;
+            }
+            agendar();
+        }
+
+        private void agendar() {
+            if (agendado.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drenar);
+                } catch (RejectedExecutionException e) {
+                    agendado.set(false);
+                    encerrar();
+                }
+            }
+        }
+
+        private void drenar() {
+            try {
+                PresencaDashboardEventoDTO evento;
+                while (!encerrado && (evento = buffer.poll()) != null) {
+                    escrevendoDesde = System.nanoTime();
+                    emitter.send(SseEmitter.event().name(evento.getTipo().name()).data(evento));
+                    escrevendoDesde = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                encerrar();
+            } finally {
+                escrevendoDesde = 0;
+                agendado.set(false);
+                if (encerrado) {
+                    completar();
+                } else if (!buffer.isEmpty()) {
+                    // Eventos que chegaram entre o último poll e a liberação do flag
+                    agendar();
+                }
+            }
+        }
+
+        private boolean escritaExpirada(long agora) {
+            long inicio = escrevendoDesde;
+            return inicio != 0 && agora - inicio > TimeUnit.MILLISECONDS.toNanos(writeTimeoutMs);
+        }
+
+        /**
+         * Desliga o assinante. Com uma escrita em andamento o emitter é finalizado pela própria
+         * thread de escrita, para não bloquear quem encerrou.
+         */
+        private void encerrar() {
+            if (encerrado) {
+                return;
+            }
+            encerrado = true;
+            remover(this);
+            if (!agendado.get()) {
+                completar();
+            }
+        }
+
+        private void completar() {
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                // Conexão já encerrada
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        canais.values().forEach(canal -> canal.assinantes.forEach(Assinante::encerrar));
+    }
+
+    public SseEmitter assinar(UUID eventId) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new RuntimeException("Evento não encontrado");
+        }
+        if (totalAssinantes.incrementAndGet() > maxSubscribers) {
+            totalAssinantes.decrementAndGet();
+            throw new RuntimeException("Limite de assinantes do painel atingido");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Assinante assinante = new Assinante(eventId, emitter);
+        emitter.onCompletion(assinante::encerrar);
+        emitter.onTimeout(assinante::encerrar);
+        emitter.onError(erro -> assinante.encerrar());
+
+        // Na mesma operação do mapa: um remover concorrente não descarta o canal entre a criação e a inclusão
+        Canal canal = canais.compute(eventId, (id, atual) -> {
+            Canal destino = atual;
+            if (destino == null) {
+                destino = new Canal();
+                recarregar(destino, eventAttendanceStatsRepository.findById(id).orElse(null));
+            }
+            destino.assinantes.add(assinante);
+            return destino;
+        });
+
+        assinante.entregar(evento(eventId, canal, new Alteracao(DashboardChangeType.SNAPSHOT, null, null)));
+        return emitter;
+    }
+
+    /**
+     * Publica uma alteração do roster. Dentro de uma transação a publicação ocorre apenas
+     * após o commit; sem assinantes para o evento o custo é uma consulta ao mapa.
+     */
+    public void publicar(UUID eventId, DashboardChangeType tipo, UUID usuarioId, Boolean presente) {
+        if (!canais.containsKey(eventId)) {
+            return;
+        }
+        Runnable publicacao = () -> {
+            Canal canal = canais.get(eventId);
+            if (canal != null) {
+                canal.pendentes.add(new Alteracao(tipo, usuarioId, presente));
+            }
+        };
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publicacao.run();
+                }
+            });
+        } else {
+            publicacao.run();
+        }
+    }
+
+    /**
+     * Recarrega os totais de todos os eventos assinados e entrega as alterações pendentes; sem
+     * alterações locais, um SNAPSHOT é enviado quando os totais mudaram (escritas de outras instâncias).
+     */
+    @Scheduled(fixedDelayString = "${dashboard.sse.refresh-ms:500}")
+    public void atualizar() {
+        if (canais.isEmpty()) {
+            return;
+        }
+        Map<UUID, EventAttendanceStats> estatisticas;
+        try {
+            estatisticas = eventAttendanceStatsRepository.findAllById(new ArrayList<>(canais.keySet())).stream()
+                    .collect(Collectors.toMap(EventAttendanceStats::getEventId, Function.identity()));
+        } catch (Exception e) {
+            log.error("Erro ao recarregar contadores do painel de presença: {}", e.getMessage(), e);
+            return;
+        }
+
+        canais.forEach((eventId, canal) -> {
+            boolean mudou = recarregar(canal, estatisticas.get(eventId));
+            List<Alteracao> alteracoes = new ArrayList<>();
+            Alteracao alteracao;
+            while ((alteracao = canal.pendentes.poll()) != null) {
+                alteracoes.add(alteracao);
+            }
+            if (alteracoes.isEmpty() && mudou) {
+                alteracoes.add(new Alteracao(DashboardChangeType.SNAPSHOT, null, null));
+            }
+            for (Alteracao pendente : alteracoes) {
+                PresencaDashboardEventoDTO evento = evento(eventId, canal, pendente);
+                canal.assinantes.forEach(assinante -> assinante.entregar(evento));
+            }
+        });
+    }
+
+    /**
+     * Desconecta assinantes cuja escrita passou do limite: deixam de receber eventos na hora e a
+     * escrita bloqueada termina no timeout de escrita do container, ocupando só a própria thread.
+     */
+    @Scheduled(fixedDelayString = "${dashboard.sse.write-check-ms:1000}")
+    public void verificarEscritas() {
+        long agora = System.nanoTime();
+        canais.values().forEach(canal -> canal.assinantes.forEach(assinante -> {
+            if (assinante.escritaExpirada(agora)) {
+                log.warn("Assinante lento do painel do evento {} desconectado (escrita acima de {} ms)",
+                        assinante.eventId, writeTimeoutMs);
+                assinante.encerrar();
+            }
+        }));
+    }
+
+    /**
+     * Mantém a conexão viva atrás de proxies.
+     */
+    @Scheduled(fixedDelayString = "${dashboard.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        canais.forEach((eventId, canal) -> {
+            PresencaDashboardEventoDTO snapshot = evento(eventId, canal,
+                    new Alteracao(DashboardChangeType.SNAPSHOT, null, null));
+            canal.assinantes.forEach(assinante -> assinante.entregar(snapshot));
+        });
+    }
+
+    /**
+     * @return true se os totais mudaram
+     */
+    private static boolean recarregar(Canal canal, EventAttendanceStats stats) {
+        long inscritos = stats != null ? stats.getInscritos() : 0;
+        long presentes = stats != null ? stats.getPresentes() : 0;
+        boolean mudou = inscritos != canal.inscritos || presentes != canal.presentes;
+        canal.inscritos = inscritos;
+        canal.presentes = presentes;
+        return mudou;
+    }
+
+    private void remover(Assinante assinante) {
+        canais.computeIfPresent(assinante.eventId, (id, canal) -> {
+            if (canal.assinantes.remove(assinante)) {
+                totalAssinantes.decrementAndGet();
+            }
+            return canal.assinantes.isEmpty() ? null : canal;
+        });
+    }
+
+    private static PresencaDashboardEventoDTO evento(UUID eventId, Canal canal, Alteracao alteracao) {
+        return PresencaDashboardEventoDTO.builder()
+                .tipo(alteracao.tipo())
+                .eventId(eventId)
+                .usuarioId(alteracao.usuarioId())
+                .presente(alteracao.presente())
+                .inscritos(canal.inscritos)
+                .presentes(canal.presentes)
+                .ocorridoEm(LocalDateTime.now())
+                .build();
+    }
+}
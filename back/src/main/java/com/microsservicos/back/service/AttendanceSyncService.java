@@ -0,0 +1,231 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.AttendanceSyncOperation;
+import com.microsservicos.back.domain.DashboardChangeType;
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.domain.EventAttendance;
+import com.microsservicos.back.domain.RosterChangeType;
+import com.microsservicos.back.domain.SyncOperationResult;
+import com.microsservicos.back.dto.RosterEntryDTO;
+import com.microsservicos.back.dto.RosterSnapshotDTO;
+import com.microsservicos.back.dto.SyncCheckInDTO;
+import com.microsservicos.back.dto.SyncCheckInResultadoDTO;
+import com.microsservicos.back.repository.AttendanceSyncOperationRepository;
+import com.microsservicos.back.repository.EventAttendanceRepository;
+import com.microsservicos.back.repository.EventInscriptionRepository;
+import com.microsservicos.back.repository.EventRepository;
+import com.microsservicos.back.repository.EventRosterChangeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class AttendanceSyncService {
+
+    private final EventRepository eventRepository;
+    private final EventInscriptionRepository eventInscriptionRepository;
+    private final EventAttendanceRepository eventAttendanceRepository;
+    private final EventRosterChangeRepository eventRosterChangeRepository;
+    private final AttendanceSyncOperationRepository attendanceSyncOperationRepository;
+    private final RosterChangeService rosterChangeService;
+    private final BulkPersistenceService bulkPersistenceService;
+    private final AttendanceDashboardService attendanceDashboardService;
+    private final EventAttendanceStatsService eventAttendanceStatsService;
+    private final EmailService emailService;
+
+    /**
+     * Retorna o roster do evento. Sem cursor devolve o snapshot completo; com cursor devolve
+     * apenas os usuários alterados desde então.
+     *
+     * O cursor segue a ordem de commit, não a dos ids: é o xmin do snapshot, e o delta traz as
+     * alterações de transações a partir dele (as que ainda estavam em andamento podem voltar no
+     * delta seguinte, o que é inofensivo pois o delta é de estado). Um cursor maior que o atual
+     * não foi emitido por este banco (ex.: cursor antigo, baseado em id) e recebe o snapshot completo.
+     *
+     * Não é somente leitura de propósito: o xmin de uma réplica não cobre as transações do primário.
+     */
+    @Transactional
+    public RosterSnapshotDTO buscarRoster(UUID eventId, Long cursor) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new RuntimeException("Evento não encontrado");
+        }
+
+        // O cursor é calculado antes da leitura do estado para que nenhuma alteração seja perdida
+        long novoCursor = eventRosterChangeRepository.findCursorConsolidado();
+        if (cursor != null && cursor > novoCursor) {
+            cursor = null;
+        }
+
+        if (cursor == null) {
+            return RosterSnapshotDTO.builder()
+                    .eventId(eventId)
+                    .cursor(novoCursor)
+                    .completo(true)
+                    .entradas(eventInscriptionRepository.findRosterByEventId(eventId))
+                    .removidos(List.of())
+                    .build();
+        }
+
+        List<UUID> alterados = eventRosterChangeRepository.findUsuarioIdsAlteradosDesde(eventId, cursor);
+        List<RosterEntryDTO> entradas = alterados.isEmpty()
+                ? List.of()
+                : eventInscriptionRepository.findRosterByEventIdAndUsuarioIds(eventId, alterados);
+
+        Set<UUID> aindaInscritos = entradas.stream()
+                .map(RosterEntryDTO::getUsuarioId)
+                .collect(Collectors.toSet());
+        List<UUID> removidos = alterados.stream()
+                .filter(usuarioId -> !aindaInscritos.contains(usuarioId))
+                .toList();
+
+        return RosterSnapshotDTO.builder()
+                .eventId(eventId)
+                .cursor(novoCursor)
+                .completo(false)
+                .entradas(entradas)
+                .removidos(removidos)
+                .build();
+    }
+
+    /**
+     * Aplica um lote de check-ins registrados offline. Cada operação é idempotente pelo
+     * operationId e o conflito com o estado atual é resolvido por last-writer-wins em last_write_at,
+     * que também registra desmarcações (confirmed_at fica nulo nelas).
+     *
+     * As presenças dos inscritos do lote são travadas antes da leitura, então lotes concorrentes, a
+     * fila de check-ins por token e o registro manual se serializam por usuário e o delta de presentes
+     * é calculado sobre o estado realmente sobrescrito.
+     *
+     * Quem passa de ausente a presente recebe o email de confirmação de presença, como no registro
+     * manual; o email vai para a outbox na mesma transação, no máximo uma vez por usuário no lote.
+     */
+    @Transactional
+    public List<SyncCheckInResultadoDTO> aplicarCheckIns(UUID eventId, String deviceId, UUID confirmadoPor,
+                                                        List<SyncCheckInDTO> operacoes) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new RuntimeException("Evento não encontrado"));
+
+        Set<UUID> operationIds = operacoes.stream()
+                .map(SyncCheckInDTO::getOperationId)
+                .collect(Collectors.toSet());
+        Set<UUID> usuarioIds = operacoes.stream()
+                .map(SyncCheckInDTO::getUsuarioId)
+                .collect(Collectors.toSet());
+
+        // Quatro comandos por lote, independentemente do número de operações
+        Set<UUID> jaProcessadas = new HashSet<>(attendanceSyncOperationRepository.findOperationIdsExistentes(operationIds));
+        Set<UUID> inscritos = eventInscriptionRepository.findUsuarioIdsInscritos(eventId, usuarioIds);
+        Map<UUID, EventAttendance> presencas = new HashMap<>();
+        if (!inscritos.isEmpty()) {
+            eventAttendanceRepository.garantirETravar(eventId, inscritos);
+            eventAttendanceRepository.findByEventIdAndUsuarioIds(eventId, inscritos)
+                    .forEach(a -> presencas.put(a.getUsuario().getId(), a));
+        }
+
+        Map<UUID, SyncCheckInResultadoDTO> resultados = new HashMap<>();
+        List<AttendanceSyncOperation> registros = new ArrayList<>();
+        Set<EventAttendance> alteradas = Collections.newSetFromMap(new IdentityHashMap<>());
+        Map<UUID, EventAttendance> confirmadas = new LinkedHashMap<>();
+        long deltaPresentesLote = 0;
+
+        // Ordena pelo relógio do dispositivo para que o resultado do lote não dependa da ordem de envio
+        List<SyncCheckInDTO> ordenadas = operacoes.stream()
+                .sorted(Comparator.comparing(SyncCheckInDTO::getRegistradoEm))
+                .toList();
+
+        for (SyncCheckInDTO operacao : ordenadas) {
+            if (!jaProcessadas.add(operacao.getOperationId())) {
+                resultados.putIfAbsent(operacao.getOperationId(), resultado(operacao, SyncOperationResult.DUPLICADA, null));
+                continue;
+            }
+
+            boolean presente = operacao.getPresente() == null || operacao.getPresente();
+            SyncOperationResult resultado;
+            String mensagem = null;
+
+            if (!inscritos.contains(operacao.getUsuarioId())) {
+                resultado = SyncOperationResult.REJEITADA;
+                mensagem = "Usuário não está inscrito neste evento";
+            } else {
+                // Travada e criada (ausente) por garantirETravar se ainda não existia
+                EventAttendance attendance = presencas.get(operacao.getUsuarioId());
+                LocalDateTime ultimaEscrita = ultimaEscrita(attendance);
+                if (ultimaEscrita != null && !operacao.getRegistradoEm().isAfter(ultimaEscrita)) {
+                    resultado = SyncOperationResult.OBSOLETA;
+                    mensagem = "Existe um registro de presença mais recente";
+                } else {
+                    boolean estavaPresente = Boolean.TRUE.equals(attendance.getPresente());
+                    attendance.setPresente(presente);
+                    attendance.setConfirmadoPor(presente ? confirmadoPor : null);
+                    attendance.setConfirmedAt(presente ? operacao.getRegistradoEm() : null);
+                    attendance.setLastWriteAt(operacao.getRegistradoEm());
+                    alteradas.add(attendance);
+                    int deltaPresentes = (presente ? 1 : 0) - (estavaPresente ? 1 : 0);
+                    deltaPresentesLote += deltaPresentes;
+                    if (deltaPresentes > 0) {
+                        confirmadas.putIfAbsent(operacao.getUsuarioId(), attendance);
+                    }
+                    attendanceDashboardService.publicar(eventId, DashboardChangeType.PRESENCA, operacao.getUsuarioId(),
+                            presente);
+                    resultado = SyncOperationResult.APLICADA;
+                }
+            }
+
+            registros.add(AttendanceSyncOperation.builder()
+                    .operationId(operacao.getOperationId())
+                    .deviceId(deviceId)
+                    .eventId(eventId)
+                    .usuarioId(operacao.getUsuarioId())
+                    .presente(presente)
+                    .deviceTimestamp(operacao.getRegistradoEm())
+                    .resultado(resultado)
+                    .build());
+            resultados.put(operacao.getOperationId(), resultado(operacao, resultado, mensagem));
+        }
+
+        eventAttendanceRepository.saveAll(alteradas);
+        // Ids vêm do dispositivo: saveAll faria um SELECT por operação para decidir entre persist e merge
+        bulkPersistenceService.inserir("attendance-sync-operation", registros);
+        rosterChangeService.registrar(eventId,
+                alteradas.stream().map(a -> a.getUsuario().getId()).toList(),
+                RosterChangeType.PRESENCA);
+        eventAttendanceStatsService.atualizar(eventId, 0, deltaPresentesLote);
+        // Uma desmarcação posterior no mesmo lote cancela o email
+        confirmadas.values().stream()
+                .filter(attendance -> Boolean.TRUE.equals(attendance.getPresente()))
+                .forEach(attendance -> emailService.enviarEmailConfirmacaoPresenca(attendance.getUsuario(), event));
+
+        // Mantém a ordem em que o dispositivo enviou as operações
+        return operacoes.stream()
+                .map(operacao -> resultados.get(operacao.getOperationId()))
+                .toList();
+    }
+
+    private static LocalDateTime ultimaEscrita(EventAttendance attendance) {
+        // Registros anteriores à coluna last_write_at só têm confirmed_at
+        return attendance.getLastWriteAt() != null ? attendance.getLastWriteAt() : attendance.getConfirmedAt();
+    }
+
+    private SyncCheckInResultadoDTO resultado(SyncCheckInDTO operacao, SyncOperationResult resultado, String mensagem) {
+        return SyncCheckInResultadoDTO.builder()
+                .operationId(operacao.getOperationId())
+                .resultado(resultado)
+                .mensagem(mensagem)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.microsservicos.back.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Gravação em massa de entidades com batch JDBC do Hibernate.
+ *
+ * As entidades são gravadas em blocos: a cada bloco o Hibernate envia os comandos em batches de
+ * {@code bulk.write.chunk-size} (o driver reescreve os INSERTs em comandos multi-valores) e as
+ * entidades do bloco saem do contexto de persistência, de modo que a memória não cresce com o
+ * volume. Só as entidades gravadas aqui são desanexadas; as de quem chamou continuam gerenciadas.
+ *
+ * Use {@link #inserir} para entidades novas com id atribuído pela aplicação (evita o SELECT por
+ * entidade que o {@code save} do Spring Data faz para decidir entre persist e merge) e
+ * {@link #atualizar} para entidades desanexadas. Entidades com id IDENTITY não entram em batch.
+ *
+ * Métricas com a tag {@code operacao}: {@code bulk.write.rows}, {@code bulk.write.duration} e
+ * {@code bulk.write.throughput} (linhas por segundo de cada gravação).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkPersistenceService {
+
+    private final MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${bulk.write.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Insere entidades novas (persist), na transação atual ou numa própria.
+     *
+     * @param operacao nome da operação nas métricas (ex.: attendance-sync-operation)
+     * @return quantidade de entidades gravadas
+     */
+    @Transactional
+    public <T> long inserir(String operacao, Iterable<T> entidades) {
+        return gravar(operacao, entidades, entidade -> {
+            entityManager.persist(entidade);
+            return entidade;
+        });
+    }
+
+    /**
+     * Grava alterações de entidades desanexadas (merge), na transação atual ou numa própria.
+     *
+     * @return quantidade de entidades gravadas
+     */
+    @Transactional
+    public <T> long atualizar(String operacao, Iterable<T> entidades) {
+        return gravar(operacao, entidades, entityManager::merge);
+    }
+
+    private <T> long gravar(String operacao, Iterable<T> entidades, Function<T, Object> operacaoPorEntidade) {
+        Session session = entityManager.unwrap(Session.class);
+        Integer batchAnterior = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(chunkSize);
+
+        long inicio = System.nanoTime();
+        long total = 0;
+        List<Object> bloco = new ArrayList<>(chunkSize);
+        try {
+            for (T entidade : entidades) {
+                // Guarda a instância gerenciada (no merge, não é a recebida)
+                bloco.add(operacaoPorEntidade.apply(entidade));
+                if (bloco.size() >= chunkSize) {
+                    total += descarregar(bloco);
+                }
+            }
+            total += descarregar(bloco);
+        } finally {
+            session.setJdbcBatchSize(batchAnterior);
+        }
+
+        registrarMetricas(operacao, total, System.nanoTime() - inicio);
+        log.debug("Gravação em massa {}: {} entidade(s)", operacao, total);
+        return total;
+    }
+
+    private int descarregar(List<Object> bloco) {
+        if (bloco.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        bloco.forEach(entityManager::detach);
+        int gravadas = bloco.size();
+        bloco.clear();
+        return gravadas;
+    }
+
+    private void registrarMetricas(String operacao, long linhas, long nanos) {
+        Counter.builder("bulk.write.rows")
+                .description("Linhas gravadas pela gravação em massa")
+                .tag("operacao", operacao)
+                .register(meterRegistry)
+                .increment(linhas);
+        Timer.builder("bulk.write.duration")
+                .description("Duração das gravações em massa")
+                .tag("operacao", operacao)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (linhas > 0 && nanos > 0) {
+            DistributionSummary.builder("bulk.write.throughput")
+                    .description("Linhas por segundo de cada gravação em massa")
+                    .baseUnit("rows/s")
+                    .tag("operacao", operacao)
+                    .register(meterRegistry)
+                    .record(linhas * 1_000_000_000d / nanos);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.microsservicos.back.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.autoconfigure.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Invalidação dos caches locais entre instâncias, via LISTEN/NOTIFY do PostgreSQL.
+ *
+ * Quem altera um dado em cache publica a chave ({@code tipo:chave}) na transação da alteração. O NOTIFY
+ * só é entregue no commit, então as outras instâncias nunca invalidam por uma escrita desfeita; a
+ * instância que publicou aplica a invalidação no próprio commit. Cada instância mantém uma conexão
+ * dedicada ao primário escutando o canal e repassa as chaves aos {@link CacheInvalidationHandler}.
+ *
+ * Enquanto a conexão está fora, notificações são perdidas: a cada (re)conexão todos os caches locais
+ * são esvaziados antes de voltar a escutar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CacheInvalidationBus {
+
+    /** Chave que invalida todas as entradas do tipo */
+    public static final String TODAS = "*";
+
+    private static final String SEPARADOR = ";";
+    private static final String ORIGEM = UUID.randomUUID().toString();
+
+    private final List<CacheInvalidationHandler> handlers;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final MeterRegistry meterRegistry;
+
+    /** Desativado: invalida só os caches desta instância */
+    @Value("${cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.invalidation.channel:cache_invalidation}")
+    private String channel;
+
+    /** Espera máxima por notificações em cada leitura da conexão */
+    @Value("${cache.invalidation.poll-ms:500}")
+    private int pollMs;
+
+    /** Intervalo do comando de verificação da conexão de escuta */
+    @Value("${cache.invalidation.heartbeat-ms:10000}")
+    private long heartbeatMs;
+
+    @Value("${cache.invalidation.reconnect-min-ms:500}")
+    private long reconnectMinMs;
+
+    @Value("${cache.invalidation.reconnect-max-ms:30000}")
+    private long reconnectMaxMs;
+
+    private final Map<String, List<CacheInvalidationHandler>> porTipo = new HashMap<>();
+
+    private volatile boolean ativo;
+    private volatile boolean conectado;
+    private volatile Connection conexao;
+    private Thread listener;
+
+    private Counter publicadas;
+    private Counter recebidas;
+    private Counter esvaziamentos;
+
+    @PostConstruct
+    void init() {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalStateException("Canal de invalidação inválido: " + channel);
+        }
+        for (CacheInvalidationHandler handler : handlers) {
+            for (String tipo : handler.tiposInvalidacao()) {
+                porTipo.computeIfAbsent(tipo, t -> new ArrayList<>()).add(handler);
+            }
+        }
+
+        publicadas = Counter.builder("cache.invalidation.published")
+                .description("Invalidações de cache publicadas por esta instância")
+                .register(meterRegistry);
+        recebidas = Counter.builder("cache.invalidation.received")
+                .description("Invalidações de cache recebidas de outras instâncias")
+                .register(meterRegistry);
+        esvaziamentos = Counter.builder("cache.invalidation.flushes")
+                .description("Esvaziamentos completos dos caches locais após (re)conexão do listener")
+                .register(meterRegistry);
+        Gauge.builder("cache.invalidation.connected", this, bus -> bus.conectado ? 1 : 0)
+                .description("Listener de invalidações conectado (1) ou não (0)")
+                .register(meterRegistry);
+
+        if (enabled) {
+            ativo = true;
+            listener = new Thread(this::escutar, "cache-invalidation-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        ativo = false;
+        if (listener != null) {
+            listener.interrupt();
+            fechar(conexao);
+        }
+    }
+
+    /**
+     * Publica a invalidação na transação atual (ou numa própria, sem transação). As outras instâncias
+     * a recebem no commit; nesta ela é aplicada logo após o commit.
+     */
+    @Transactional
+    public void publicar(String tipo, Object chave) {
+        String valor = String.valueOf(chave);
+        if (enabled) {
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, ORIGEM + SEPARADOR + tipo + SEPARADOR + valor);
+            publicadas.increment();
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                aplicar(tipo, valor);
+            }
+        });
+    }
+
+    private void escutar() {
+        long espera = reconnectMinMs;
+        boolean reconexao = false;
+        while (ativo) {
+            try (Connection connection = conectar();
+                 Statement statement = connection.createStatement()) {
+                conexao = connection;
+                statement.execute("LISTEN " + channel);
+                conectado = true;
+
+                // Notificações enviadas antes do LISTEN (ou durante a queda) não chegam mais
+                invalidarTudo();
+                if (reconexao) {
+                    log.info("Listener de invalidação de cache reconectado; caches locais esvaziados");
+                }
+                reconexao = true;
+                espera = reconnectMinMs;
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                long ultimaVerificacao = System.currentTimeMillis();
+                while (ativo) {
+                    PGNotification[] notificacoes = pgConnection.getNotifications(pollMs);
+                    if (notificacoes != null) {
+                        for (PGNotification notificacao : notificacoes) {
+                            receber(notificacao.getParameter());
+                        }
+                    }
+                    if (System.currentTimeMillis() - ultimaVerificacao >= heartbeatMs) {
+                        statement.setQueryTimeout(5);
+                        statement.execute("SELECT 1");
+                        ultimaVerificacao = System.currentTimeMillis();
+                    }
+                }
+            } catch (SQLException e) {
+                if (ativo) {
+                    log.warn("Conexão do listener de invalidação de cache perdida, nova tentativa em {} ms: {}",
+                            espera, e.getMessage());
+                }
+            } finally {
+                conectado = false;
+                conexao = null;
+            }
+
+            if (!ativo) {
+                return;
+            }
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            espera = Math.min(espera * 2, reconnectMaxMs);
+        }
+    }
+
+    private Connection conectar() throws SQLException {
+        Properties propriedades = new Properties();
+        propriedades.setProperty("user", dataSourceProperties.determineUsername());
+        propriedades.setProperty("password", dataSourceProperties.determinePassword());
+        propriedades.setProperty("ApplicationName", "cache-invalidation-listener");
+        propriedades.setProperty("tcpKeepAlive", "true");
+        Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(), propriedades);
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    private void receber(String payload) {
+        String[] partes = payload.split(SEPARADOR, 3);
+        if (partes.length != 3) {
+            log.warn("Notificação de invalidação de cache ignorada: {}", payload);
+            return;
+        }
+        if (ORIGEM.equals(partes[0])) {
+            return;
+        }
+        recebidas.increment();
+        aplicar(partes[1], partes[2]);
+    }
+
+    private void aplicar(String tipo, String chave) {
+        for (CacheInvalidationHandler handler : porTipo.getOrDefault(tipo, List.of())) {
+            try {
+                handler.invalidar(tipo, chave);
+            } catch (Exception e) {
+                log.warn("Erro ao invalidar {}:{} no cache: {}", tipo, chave, e.getMessage());
+            }
+        }
+    }
+
+    private void invalidarTudo() {
+        for (CacheInvalidationHandler handler : handlers) {
+            try {
+                handler.invalidarTudo();
+            } catch (Exception e) {
+                log.warn("Erro ao esvaziar cache local: {}", e.getMessage());
+            }
+        }
+        esvaziamentos.increment();
+    }
+
+    private static void fechar(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // Conexão já perdida
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.microsservicos.back.service;
+
+import java.util.Set;
+
+/**
+ * Cache local que recebe as invalidações publicadas no {@link CacheInvalidationBus}.
+ */
+public interface CacheInvalidationHandler {
+
+    /** Tipos de chave tratados (ex.: {@code event}, {@code usuario}) */
+    Set<String> tiposInvalidacao();
+
+    /**
+     * Remove do cache a entrada da chave; {@link CacheInvalidationBus#TODAS} remove todas as do tipo.
+     */
+    void invalidar(String tipo, String chave);
+
+    /**
+     * Esvazia o cache inteiro; chamado quando notificações podem ter sido perdidas.
+     */
+    void invalidarTudo();
+}
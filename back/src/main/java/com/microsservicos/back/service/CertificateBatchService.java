@@ -0,0 +1,168 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.CertificateBatch;
+import com.microsservicos.back.domain.CertificateBatchStatus;
+import com.microsservicos.back.domain.CertificateJobStatus;
+import com.microsservicos.back.domain.Usuario;
+import com.microsservicos.back.dto.LoteCertificadosDTO;
+import com.microsservicos.back.repository.CertificateBatchRepository;
+import com.microsservicos.back.repository.CertificateJobRepository;
+import com.microsservicos.back.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Emissão em lote dos certificados de todos os presentes de um evento.
+ *
+ * O lote é uma linha em certificate_batch e cada participante um job em certificate_job ligado a
+ * ela, processado pelos workers do {@link CertificateJobService} (lease, retentativas com backoff,
+ * várias instâncias). O progresso é lido dos jobs, então qualquer instância responde pelo lote e um
+ * reinício não o perde. Ao concluir, o job de lote também coloca o PDF no {@link CertificatePdfCache},
+ * de modo que o ZIP do lote é montado a partir do cache local.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CertificateBatchService {
+
+    private static final int MAX_ERROS = 100;
+
+    private final EventRepository eventRepository;
+    private final CertificateBatchRepository certificateBatchRepository;
+    private final CertificateJobRepository certificateJobRepository;
+    private final CertificateServiceClient certificateServiceClient;
+    private final CertificatePdfCache certificatePdfCache;
+
+    @Value("${certificate.batch.retention-minutes:60}")
+    private long retentionMinutes;
+
+    /**
+     * Inicia a emissão para todos os participantes com presença confirmada no evento. Quem já tem um
+     * job ativo (pedido individual em andamento) entra no lote com esse job.
+     */
+    @Transactional
+    public LoteCertificadosDTO iniciar(UUID eventId, Usuario admin) {
+        if (!eventRepository.existsById(eventId)) {
+            throw new RuntimeException("Evento não encontrado");
+        }
+
+        CertificateBatch lote = certificateBatchRepository.saveAndFlush(CertificateBatch.builder()
+                .eventId(eventId)
+                .solicitadoPor(admin.getId())
+                .build());
+        certificateJobRepository.vincularAtivosAoLote(lote.getId(), eventId);
+        certificateJobRepository.criarParaLote(lote.getId(), eventId, admin.getId());
+        lote.setTotal((int) certificateJobRepository.countByBatchId(lote.getId()));
+
+        log.info("Lote de certificados {} iniciado para o evento {} ({} participante(s))",
+                lote.getId(), eventId, lote.getTotal());
+        return toDTO(lote);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<LoteCertificadosDTO> buscar(UUID loteId) {
+        return certificateBatchRepository.findById(loteId).map(this::toDTO);
+    }
+
+    /**
+     * Escreve um ZIP com os PDFs de todos os certificados emitidos pelo lote. Os PDFs são
+     * copiados um a um do cache (ou do serviço remoto) com buffer fixo, sem montar o ZIP em memória.
+     */
+    public void escreverZip(UUID loteId, String authorization, OutputStream out) throws IOException {
+        LoteCertificadosDTO lote = buscar(loteId)
+                .orElseThrow(() -> new RuntimeException("Lote não encontrado"));
+        if (lote.getConcluidoEm() == null) {
+            throw new IllegalStateException("Lote ainda em andamento");
+        }
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // PDFs já são comprimidos; recomprimir só gasta CPU
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        for (String codigo : certificateJobRepository.findCodigosEmitidos(loteId)) {
+            zip.putNextEntry(new ZipEntry("certificado-" + codigo + ".pdf"));
+            if (certificatePdfCache.podeArmazenar(codigo)) {
+                certificatePdfCache.buscarOuCarregar(codigo,
+                        (c, destino) -> certificateServiceClient.baixarPdf(c, authorization, destino))
+                        .escreverEm(zip);
+            } else {
+                certificateServiceClient.baixarPdf(codigo, authorization, zip);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Descarta lotes concluídos há mais tempo que a retenção configurada.
+     */
+    @Scheduled(fixedDelayString = "${certificate.batch.cleanup-ms:60000}")
+    public void removerLotesAntigos() {
+        int removidos = certificateBatchRepository.removerConcluidosAntesDe(
+                LocalDateTime.now().minusMinutes(retentionMinutes));
+        if (removidos > 0) {
+            log.info("{} lote(s) de certificados removido(s) após a retenção", removidos);
+        }
+    }
+
+    private LoteCertificadosDTO toDTO(CertificateBatch lote) {
+        long emitidos = 0;
+        long falhas = 0;
+        long ativos = 0;
+        LocalDateTime ultimaConclusao = null;
+        for (CertificateJobRepository.ContagemPorStatus contagem : certificateJobRepository.contarPorStatus(lote.getId())) {
+            switch (contagem.getStatus()) {
+                case CONCLUIDO -> emitidos = contagem.getQuantidade();
+                case FALHOU -> falhas = contagem.getQuantidade();
+                case PENDENTE, PROCESSANDO -> ativos += contagem.getQuantidade();
+            }
+            if (contagem.getUltimaConclusao() != null
+                    && (ultimaConclusao == null || contagem.getUltimaConclusao().isAfter(ultimaConclusao))) {
+                ultimaConclusao = contagem.getUltimaConclusao();
+            }
+        }
+
+        LocalDateTime concluidoEm = null;
+        CertificateBatchStatus status;
+        if (ativos > 0) {
+            status = CertificateBatchStatus.EM_ANDAMENTO;
+        } else {
+            // Lote sem participantes termina ao ser criado
+            concluidoEm = ultimaConclusao != null ? ultimaConclusao : lote.getCreatedAt();
+            status = falhas > 0 ? CertificateBatchStatus.CONCLUIDO_COM_FALHAS : CertificateBatchStatus.CONCLUIDO;
+        }
+
+        List<String> erros = falhas == 0 ? List.of() : certificateJobRepository
+                .findByBatchIdAndStatusOrderByFinishedAt(lote.getId(), CertificateJobStatus.FALHOU, Limit.of(MAX_ERROS))
+                .stream()
+                .map(job -> job.getUsuarioId() + ": " + job.getErro())
+                .toList();
+
+        return LoteCertificadosDTO.builder()
+                .loteId(lote.getId())
+                .eventId(lote.getEventId())
+                .status(status)
+                .total(lote.getTotal())
+                .emitidos((int) emitidos)
+                .falhas((int) falhas)
+                .iniciadoEm(lote.getCreatedAt())
+                .concluidoEm(concluidoEm)
+                .erros(erros)
+                .build();
+    }
+}
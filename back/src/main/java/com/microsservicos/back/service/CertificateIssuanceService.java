@@ -0,0 +1,191 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.Certificate;
+import com.microsservicos.back.domain.EventAttendance;
+import com.microsservicos.back.exception.CertificateIssuanceException;
+import com.microsservicos.back.repository.CertificateRepository;
+import com.microsservicos.back.repository.EventAttendanceRepository;
+import com.microsservicos.back.util.UuidV7;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Emissão de certificados dentro do backend Java, sem o salto HTTP para o serviço de certificados.
+ *
+ * Os números dos códigos vêm da sequence {@code certificate_code_seq}. Cada nextval reserva um bloco
+ * do tamanho do incremento da sequence (hi-lo), distribuído em memória; a ida ao banco acontece
+ * uma vez por bloco. Números de blocos não usados (reinício da aplicação) viram lacunas, o que é aceitável.
+ *
+ * Concorrência para a mesma presença é serializada pelo lock da linha de event_attendance; contra o
+ * serviço de certificados, que não usa esse lock, vale o índice único de certificados válidos por
+ * presença: o insert não faz nada se o outro lado já emitiu, e o existente é relido. Colisão de código
+ * com emissões legadas (código calculado como último + 1) é resolvida tentando de novo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CertificateIssuanceService {
+
+    private static final String SEQUENCE = "certificate_code_seq";
+
+    private final CertificateRepository certificateRepository;
+    private final CertificateSignatureService certificateSignatureService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final EventAttendanceRepository eventAttendanceRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /** local: emite neste módulo; remote: delega ao serviço de certificados (Node.js) */
+    @Value("${certificate.issuance.mode:local}")
+    private String mode;
+
+    @Value("${certificate.issuance.max-tentativas:3}")
+    private int maxTentativas;
+
+    private long proximoNumero;
+    private long limiteBloco;
+    private long tamanhoBloco;
+
+    /**
+     * Resultado da emissão, com usuário e evento já carregados para uso fora da transação.
+     */
+    public record CertificadoEmitido(Certificate certificate, boolean novo) {
+    }
+
+    public boolean isLocal() {
+        return "local".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * Emite o certificado da presença confirmada do usuário no evento ou retorna o já existente.
+     *
+     * @throws CertificateIssuanceException se a presença não estiver confirmada
+     */
+    public CertificadoEmitido emitir(UUID eventId, UUID usuarioId) {
+        DataIntegrityViolationException ultimaFalha = null;
+        for (int tentativa = 1; tentativa <= maxTentativas; tentativa++) {
+            try {
+                return transactionTemplate.execute(status -> emitirNaTransacao(eventId, usuarioId));
+            } catch (DataIntegrityViolationException e) {
+                // Código já usado por uma emissão legada; o próximo número do bloco resolve
+                log.warn("Colisão ao emitir certificado (evento {}, usuário {}), tentativa {}: {}",
+                        eventId, usuarioId, tentativa, e.getMostSpecificCause().getMessage());
+                ultimaFalha = e;
+            }
+        }
+        throw ultimaFalha;
+    }
+
+    private CertificadoEmitido emitirNaTransacao(UUID eventId, UUID usuarioId) {
+        EventAttendance attendance = eventAttendanceRepository
+                .findPresencaConfirmadaParaEmissao(eventId, usuarioId)
+                .orElseThrow(() -> new CertificateIssuanceException("Presença não confirmada para este evento"));
+
+        Optional<Certificate> existente = certificateRepository.findFirstByEventAttendanceId(attendance.getId());
+        if (existente.isPresent()) {
+            return existente(existente.get());
+        }
+
+        LocalDateTime agora = LocalDateTime.now();
+        Certificate certificate = Certificate.builder()
+                .id(UuidV7.randomUUID())
+                .certificateCode(formatarCodigo(agora.getYear(), proximoNumero()))
+                .usuario(attendance.getUsuario())
+                .event(attendance.getEvent())
+                .eventAttendance(attendance)
+                .issuedAt(agora)
+                .build();
+        certificate.setSignedToken(certificateSignatureService.assinar(certificate));
+        int inseridos = certificateRepository.inserirSeAusente(certificate.getId(), certificate.getCertificateCode(),
+                attendance.getUsuario().getId(), attendance.getEvent().getId(), attendance.getId(),
+                certificate.getIssuedAt(), certificate.getSignedToken());
+        if (inseridos == 0) {
+            // Emitido pelo serviço de certificados depois da consulta acima
+            return existente(certificateRepository.findFirstByEventAttendanceId(attendance.getId())
+                    .orElseThrow(() -> new IllegalStateException("Certificado da presença não encontrado após conflito")));
+        }
+        // Inclui o código no filtro da validação em todas as instâncias, no commit da emissão
+        cacheInvalidationBus.publicar(CertificateValidationCache.EMISSAO, certificate.getCertificateCode());
+        return new CertificadoEmitido(inicializar(certificateRepository.findById(certificate.getId()).orElseThrow()), true);
+    }
+
+    private CertificadoEmitido existente(Certificate certificate) {
+        inicializar(certificate);
+        if (certificate.getSignedToken() == null) {
+            certificate.setSignedToken(certificateSignatureService.assinar(certificate));
+        }
+        return new CertificadoEmitido(certificate, false);
+    }
+
+    /**
+     * Garante o token assinado de um certificado emitido por outro caminho (ex.: serviço de certificados).
+     */
+    public Optional<String> assinarPorCodigo(String codigo) {
+        return Optional.ofNullable(transactionTemplate.execute(status ->
+                certificateRepository.findByCertificateCode(codigo)
+                        .map(certificate -> {
+                            if (certificate.getSignedToken() == null) {
+                                certificate.setSignedToken(certificateSignatureService.assinar(certificate));
+                            }
+                            return certificate.getSignedToken();
+                        })
+                        .orElse(null)));
+    }
+
+    /**
+     * Revoga o certificado: validações passam a recusá-lo, inclusive as de tokens assinados.
+     */
+    public void revogar(String codigo) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Certificate certificate = certificateRepository.findByCertificateCode(codigo)
+                    .orElseThrow(() -> new RuntimeException("Certificado não encontrado"));
+            if (certificate.getRevokedAt() == null) {
+                certificateSignatureService.revogar(certificate);
+            }
+            cacheInvalidationBus.publicar(CertificateValidationCache.INVALIDACAO, codigo);
+        });
+    }
+
+    private Certificate inicializar(Certificate certificate) {
+        Hibernate.initialize(certificate.getUsuario());
+        Hibernate.initialize(certificate.getEvent());
+        return certificate;
+    }
+
+    private synchronized long proximoNumero() {
+        if (proximoNumero >= limiteBloco) {
+            if (tamanhoBloco == 0) {
+                tamanhoBloco = lerIncrementoSequence();
+            }
+            Long inicio = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE + "')", Long.class);
+            proximoNumero = inicio;
+            limiteBloco = inicio + tamanhoBloco;
+        }
+        return proximoNumero++;
+    }
+
+    /**
+     * O tamanho do bloco é o incremento da própria sequence, para que nunca haja sobreposição de blocos.
+     */
+    private long lerIncrementoSequence() {
+        Long incremento = jdbcTemplate.queryForObject(
+                "SELECT increment_by FROM pg_sequences WHERE schemaname = current_schema() AND sequencename = ?",
+                Long.class, SEQUENCE);
+        return incremento == null || incremento < 1 ? 1 : incremento;
+    }
+
+    static String formatarCodigo(int ano, long numero) {
+        return String.format("CERT-%s-%06d", Year.of(ano), numero);
+    }
+}
@@ -0,0 +1,412 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.config.AsyncConfig;
+import com.microsservicos.back.domain.Certificate;
+import com.microsservicos.back.domain.CertificateJob;
+import com.microsservicos.back.domain.CertificateJobStatus;
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.domain.Role;
+import com.microsservicos.back.domain.Usuario;
+import com.microsservicos.back.dto.CertificateJobDTO;
+import com.microsservicos.back.exception.CertificateIssuanceException;
+import com.microsservicos.back.repository.CertificateJobRepository;
+import com.microsservicos.back.repository.EventRepository;
+import com.microsservicos.back.repository.UsuarioRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Geração assíncrona de certificados.
+ *
+ * A emissão em si é feita pelo {@link CertificateIssuanceService} (modo local) ou pelo serviço
+ * de certificados (modo remote), conforme {@code certificate.issuance.mode}.
+ *
+ * O pedido só grava um job PENDENTE na tabela certificate_job e retorna. Um agendador reivindica
+ * jobs com FOR UPDATE SKIP LOCKED (várias instâncias podem dividir a fila) até a capacidade livre
+ * do pool de workers, marcando-os como PROCESSANDO com um lease. Se a instância cair, o lease
+ * expira e o job volta a ser reivindicado. Falhas transitórias são reagendadas com backoff
+ * exponencial; recusas de negócio (ex.: presença não confirmada) encerram o job.
+ *
+ * Jobs de um lote ({@link CertificateBatchService}) seguem o mesmo caminho; ao concluir, eles também
+ * colocam o PDF no cache para o ZIP do lote e, no modo local, só enviam o email se o certificado é novo.
+ *
+ * O número da tentativa funciona como fencing token: só quem reivindicou a tentativa atual
+ * consegue concluir o job, então um worker atrasado não envia email nem notifica em duplicidade.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CertificateJobService {
+
+    private static final List<CertificateJobStatus> ATIVOS =
+            List.of(CertificateJobStatus.PENDENTE, CertificateJobStatus.PROCESSANDO);
+
+    private final CertificateJobRepository certificateJobRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final EventRepository eventRepository;
+    private final CertificateServiceClient certificateServiceClient;
+    private final CertificateIssuanceService certificateIssuanceService;
+    private final CertificateValidationCache certificateValidationCache;
+    private final CertificatePdfCache certificatePdfCache;
+    private final EmailService emailService;
+    private final JwtService jwtService;
+    private final UserLogService userLogService;
+    private final TransactionTemplate transactionTemplate;
+    @Qualifier(AsyncConfig.CERTIFICATE_JOB_EXECUTOR)
+    private final TaskExecutor executor;
+
+    @Value("${certificate.job.workers:4}")
+    private int workers;
+
+    @Value("${certificate.job.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${certificate.job.max-tentativas:5}")
+    private int maxTentativas;
+
+    @Value("${certificate.job.backoff-base-ms:2000}")
+    private long backoffBaseMs;
+
+    @Value("${certificate.job.sse-timeout-ms:120000}")
+    private long sseTimeoutMs;
+
+    private final AtomicInteger emExecucao = new AtomicInteger();
+
+    /** Assinantes SSE por job; a notificação é local, com verificação periódica no banco */
+    private final Map<UUID, List<SseEmitter>> assinantes = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    void shutdown() {
+        // Jobs não concluídos no desligamento voltam para a fila quando o lease expirar
+        assinantes.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    /**
+     * Registra o pedido de emissão. Se já houver um job ativo para a mesma presença, ele é reaproveitado.
+     */
+    public CertificateJobDTO solicitar(UUID eventId, UUID usuarioId, Usuario solicitante) {
+        Optional<CertificateJob> ativo = certificateJobRepository
+                .findFirstByEventIdAndUsuarioIdAndStatusIn(eventId, usuarioId, ATIVOS);
+        if (ativo.isPresent()) {
+            return toDTO(ativo.get());
+        }
+
+        CertificateJob job = CertificateJob.builder()
+                .eventId(eventId)
+                .usuarioId(usuarioId)
+                .solicitadoPor(solicitante.getId())
+                .status(CertificateJobStatus.PENDENTE)
+                .disponivelEm(LocalDateTime.now())
+                .build();
+        try {
+            return toDTO(certificateJobRepository.saveAndFlush(job));
+        } catch (DataIntegrityViolationException e) {
+            // Pedido simultâneo criou o job ativo primeiro (índice único parcial)
+            return certificateJobRepository
+                    .findFirstByEventIdAndUsuarioIdAndStatusIn(eventId, usuarioId, ATIVOS)
+                    .map(this::toDTO)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Busca o job visível para o usuário: quem solicitou, o dono do certificado ou um ADMIN.
+     * Jobs de outros usuários são tratados como inexistentes.
+     */
+    public Optional<CertificateJobDTO> buscar(UUID jobId, Usuario usuario) {
+        return certificateJobRepository.findById(jobId)
+                .filter(job -> podeAcessar(job, usuario))
+                .map(this::toDTO);
+    }
+
+    public SseEmitter assinar(UUID jobId, Usuario usuario) {
+        CertificateJob job = certificateJobRepository.findById(jobId)
+                .filter(j -> podeAcessar(j, usuario))
+                .orElseThrow(() -> new RuntimeException("Job não encontrado"));
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        try {
+            emitter.send(SseEmitter.event().name("status").data(toDTO(job)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        if (isFinal(job.getStatus())) {
+            emitter.complete();
+            return emitter;
+        }
+
+        List<SseEmitter> emitters = assinantes.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        Runnable remover = () -> removerAssinante(jobId, emitter);
+        emitter.onCompletion(remover);
+        emitter.onTimeout(remover);
+        emitter.onError(erro -> remover.run());
+        return emitter;
+    }
+
+    /**
+     * Reivindica jobs prontos até preencher os workers livres desta instância.
+     */
+    @Scheduled(fixedDelayString = "${certificate.job.poll-ms:500}")
+    public void reivindicarJobs() {
+        int livres = workers - emExecucao.get();
+        if (livres <= 0) {
+            return;
+        }
+
+        List<CertificateJob> reivindicados;
+        try {
+            reivindicados = transactionTemplate.execute(status -> {
+                LocalDateTime agora = LocalDateTime.now();
+                List<CertificateJob> jobs = certificateJobRepository.findDisponiveisParaProcessar(agora, livres);
+                for (CertificateJob job : jobs) {
+                    job.setStatus(CertificateJobStatus.PROCESSANDO);
+                    job.setTentativas(job.getTentativas() + 1);
+                    job.setLockedUntil(agora.plusSeconds(leaseSeconds));
+                }
+                return certificateJobRepository.saveAll(jobs);
+            });
+        } catch (Exception e) {
+            log.warn("Falha ao reivindicar jobs de certificado: {}", e.getMessage());
+            return;
+        }
+
+        for (CertificateJob job : reivindicados) {
+            emExecucao.incrementAndGet();
+            notificar(job);
+            try {
+                executor.execute(() -> {
+                    try {
+                        processar(job);
+                    } finally {
+                        emExecucao.decrementAndGet();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                // Executor cheio ou desligando: o job volta para a fila quando o lease expirar
+                emExecucao.decrementAndGet();
+                log.warn("Job de certificado {} rejeitado pelo executor: {}", job.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Entrega o estado final a assinantes cujos jobs foram processados por outra instância.
+     */
+    @Scheduled(fixedDelayString = "${certificate.job.sse-poll-ms:2000}")
+    public void verificarAssinantes() {
+        if (assinantes.isEmpty()) {
+            return;
+        }
+        certificateJobRepository.findAllById(assinantes.keySet()).stream()
+                .filter(job -> isFinal(job.getStatus()))
+                .forEach(this::notificar);
+    }
+
+    private void processar(CertificateJob job) {
+        Usuario solicitante = usuarioRepository.findById(job.getSolicitadoPor()).orElse(null);
+        if (solicitante == null) {
+            finalizar(job, CertificateJobStatus.FALHOU, null, "Solicitante não encontrado");
+            return;
+        }
+
+        try {
+            String authorization = "Bearer " + jwtService.generateToken(solicitante.getEmail());
+            String codigo;
+            String signedToken;
+            boolean enviarEmail = true;
+            if (certificateIssuanceService.isLocal()) {
+                var emitido = certificateIssuanceService.emitir(job.getEventId(), job.getUsuarioId());
+                Certificate certificate = emitido.certificate();
+                codigo = certificate.getCertificateCode();
+                signedToken = certificate.getSignedToken();
+                // Um lote reemitido não repete o email de quem já tinha o certificado
+                enviarEmail = job.getBatchId() == null || emitido.novo();
+            } else {
+                // O email é enviado por este módulo ao concluir o job, não pelo serviço de certificados
+                codigo = certificateServiceClient.gerar(job.getEventId(), job.getUsuarioId(), authorization, false);
+                signedToken = certificateIssuanceService.assinarPorCodigo(codigo).orElse(null);
+            }
+            job.setSignedToken(signedToken);
+            if (finalizar(job, CertificateJobStatus.CONCLUIDO, codigo, null)) {
+                aoConcluir(job, solicitante, codigo, enviarEmail);
+                if (job.getBatchId() != null) {
+                    carregarPdf(codigo, authorization);
+                }
+            }
+        } catch (CertificateIssuanceException e) {
+            finalizar(job, CertificateJobStatus.FALHOU, null, e.getMessage());
+        } catch (HttpClientErrorException e) {
+            finalizar(job, CertificateJobStatus.FALHOU, null, mensagemErro(e));
+        } catch (Exception e) {
+            if (job.getTentativas() >= maxTentativas) {
+                finalizar(job, CertificateJobStatus.FALHOU, null, e.getMessage());
+            } else {
+                reagendar(job, e.getMessage());
+            }
+        }
+    }
+
+    private void aoConcluir(CertificateJob job, Usuario solicitante, String codigo, boolean enviarEmail) {
+        certificateValidationCache.registrarEmissao(codigo);
+
+        Optional<Usuario> usuario = usuarioRepository.findById(job.getUsuarioId());
+        Optional<Event> event = eventRepository.findById(job.getEventId());
+        if (enviarEmail && usuario.isPresent() && event.isPresent()) {
+            emailService.enviarEmailCertificadoEmitido(usuario.get(), event.get(), codigo);
+        }
+
+        // Log de auditoria
+        Map<String, Object> details = new HashMap<>();
+        details.put("eventId", job.getEventId().toString());
+        details.put("usuarioId", job.getUsuarioId().toString());
+        details.put("certificateCode", codigo);
+        details.put("jobId", job.getId().toString());
+        userLogService.logAction(solicitante, "CERTIFICATE_GENERATE", "CERTIFICATE", null, details);
+    }
+
+    /**
+     * Coloca o PDF no cache local para o ZIP do lote; uma falha aqui só faz o ZIP baixá-lo depois.
+     */
+    private void carregarPdf(String codigo, String authorization) {
+        if (!certificatePdfCache.podeArmazenar(codigo)) {
+            return;
+        }
+        try {
+            certificatePdfCache.buscarOuCarregar(codigo,
+                    (c, destino) -> certificateServiceClient.baixarPdf(c, authorization, destino));
+        } catch (Exception e) {
+            log.warn("Falha ao carregar no cache o PDF do certificado {}: {}", codigo, e.getMessage());
+        }
+    }
+
+    /**
+     * Grava o estado final se esta ainda for a tentativa vigente do job.
+     *
+     * @return false se outro worker reivindicou o job depois (lease expirado)
+     */
+    private boolean finalizar(CertificateJob job, CertificateJobStatus status, String codigo, String erro) {
+        int atualizados = certificateJobRepository.finalizar(job.getId(), job.getTentativas(), status,
+                codigo, job.getSignedToken(), truncar(erro), LocalDateTime.now());
+        if (atualizados == 0) {
+            log.warn("Job de certificado {} foi reivindicado por outro worker; resultado descartado", job.getId());
+            return false;
+        }
+        job.setStatus(status);
+        job.setCertificateCode(codigo);
+        job.setErro(truncar(erro));
+        job.setFinishedAt(LocalDateTime.now());
+        if (status == CertificateJobStatus.FALHOU) {
+            log.warn("Job de certificado {} falhou: {}", job.getId(), erro);
+        }
+        notificar(job);
+        return true;
+    }
+
+    private void reagendar(CertificateJob job, String erro) {
+        long atrasoMs = backoffBaseMs * (1L << Math.min(job.getTentativas() - 1, 10));
+        int atualizados = certificateJobRepository.reagendar(job.getId(), job.getTentativas(), truncar(erro),
+                LocalDateTime.now().plusNanos(atrasoMs * 1_000_000));
+        if (atualizados > 0) {
+            job.setStatus(CertificateJobStatus.PENDENTE);
+            job.setErro(truncar(erro));
+            notificar(job);
+        }
+    }
+
+    private void notificar(CertificateJob job) {
+        List<SseEmitter> emitters = assinantes.get(job.getId());
+        if (emitters == null) {
+            return;
+        }
+        CertificateJobDTO dto = toDTO(job);
+        boolean fim = isFinal(job.getStatus());
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(dto));
+                if (fim) {
+                    emitter.complete();
+                }
+            } catch (Exception e) {
+                emitter.completeWithError(e);
+            }
+        }
+        if (fim) {
+            assinantes.remove(job.getId());
+        }
+    }
+
+    private void removerAssinante(UUID jobId, SseEmitter emitter) {
+        assinantes.computeIfPresent(jobId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private static boolean isFinal(CertificateJobStatus status) {
+        return status == CertificateJobStatus.CONCLUIDO || status == CertificateJobStatus.FALHOU;
+    }
+
+    private static String mensagemErro(HttpClientErrorException e) {
+        try {
+            Map<?, ?> body = e.getResponseBodyAs(Map.class);
+            if (body != null && body.get("error") != null) {
+                return body.get("error").toString();
+            }
+        } catch (Exception ignored) {
+            // corpo não é JSON
+        }
+        return e.getStatusCode() + " " + e.getStatusText();
+    }
+
+    private static String truncar(String erro) {
+        return erro == null || erro.length() <= 500 ? erro : erro.substring(0, 500);
+    }
+
+    private static boolean podeAcessar(CertificateJob job, Usuario usuario) {
+        return usuario.getRole() == Role.ADMIN
+                || usuario.getId().equals(job.getSolicitadoPor())
+                || usuario.getId().equals(job.getUsuarioId());
+    }
+
+    private CertificateJobDTO toDTO(CertificateJob job) {
+        return CertificateJobDTO.builder()
+                .jobId(job.getId())
+                .eventId(job.getEventId())
+                .usuarioId(job.getUsuarioId())
+                .status(job.getStatus())
+                .certificateCode(job.getCertificateCode())
+                .signedToken(job.getSignedToken())
+                .downloadUrl(job.getCertificateCode() != null
+                        ? "/api/certificates/download/" + job.getCertificateCode()
+                        : null)
+                .erro(job.getErro())
+                .tentativas(job.getTentativas())
+                .createdAt(job.getCreatedAt())
+                .finishedAt(job.getFinishedAt())
+                .build();
+    }
+}
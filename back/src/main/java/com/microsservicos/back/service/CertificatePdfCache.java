@@ -0,0 +1,341 @@
+package com.microsservicos.back.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Cache local dos PDFs de certificados, indexado pelo código do certificado.
+ *
+ * Certificados são imutáveis depois de emitidos, então o PDF só precisa ser buscado no
+ * serviço de certificados uma vez. Há dois níveis:
+ * - memória: LRU limitado pelo total de bytes (apenas arquivos pequenos);
+ * - disco: arquivos {@code <código>.<sha256>.pdf}, com remoção LRU ao exceder o limite em bytes.
+ *
+ * O SHA-256 do conteúdo é usado como ETag forte.
+ */
+@Slf4j
+@Service
+public class CertificatePdfCache {
+
+    private static final Pattern CODIGO_VALIDO = Pattern.compile("[A-Za-z0-9-]{1,64}");
+    private static final String EXTENSAO = ".pdf";
+    private static final int BUFFER_SIZE = 8192;
+
+    @Value("${certificate.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${certificate.cache.dir:${java.io.tmpdir}/certificate-cache}")
+    private String dir;
+
+    @Value("${certificate.cache.disk-max-bytes:1073741824}")
+    private long diskMaxBytes;
+
+    @Value("${certificate.cache.memory-max-bytes:67108864}")
+    private long memoryMaxBytes;
+
+    @Value("${certificate.cache.memory-max-entry-bytes:1048576}")
+    private long memoryMaxEntryBytes;
+
+    private Path diretorio;
+    private Cache<String, PdfCacheado> memoria;
+
+    /** Índice do nível em disco em ordem de acesso (LRU); protegido por synchronized(disco) */
+    private final LinkedHashMap<String, PdfCacheado> disco = new LinkedHashMap<>(256, 0.75f, true);
+    private long discoBytes;
+
+    /** Buscas em andamento no serviço de certificados, para não baixar o mesmo PDF em paralelo */
+    private final Map<String, CompletableFuture<PdfCacheado>> emAndamento = new ConcurrentHashMap<>();
+
+    /**
+     * PDF em cache: conteúdo em memória ou caminho do arquivo no disco.
+     */
+    public record PdfCacheado(String codigo, String etag, long tamanho, byte[] conteudo, Path arquivo) {
+
+        public void escreverEm(OutputStream out) throws IOException {
+            if (conteudo != null) {
+                out.write(conteudo);
+                return;
+            }
+            try (InputStream in = Files.newInputStream(arquivo)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+            }
+        }
+    }
+
+    /**
+     * Escreve o PDF de um certificado no stream recebido (ex.: resposta do serviço remoto).
+     */
+    @FunctionalInterface
+    public interface PdfFetcher {
+        void buscar(String codigo, OutputStream out) throws IOException;
+    }
+
+    @PostConstruct
+    void inicializar() {
+        memoria = Caffeine.newBuilder()
+                .maximumWeight(memoryMaxBytes)
+                .weigher((String codigo, PdfCacheado pdf) -> (int) Math.min(Integer.MAX_VALUE, pdf.tamanho()))
+                .build();
+
+        if (!enabled) {
+            return;
+        }
+        try {
+            diretorio = Files.createDirectories(Paths.get(dir));
+            carregarIndiceDisco();
+        } catch (IOException e) {
+            log.warn("Cache em disco de certificados desabilitado: não foi possível usar '{}': {}", dir, e.getMessage());
+            diretorio = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && diretorio != null;
+    }
+
+    /**
+     * Códigos fora do formato esperado não são armazenados (o código compõe o nome do arquivo).
+     */
+    public boolean podeArmazenar(String codigo) {
+        return isEnabled() && CODIGO_VALIDO.matcher(codigo).matches();
+    }
+
+    /**
+     * Busca o PDF no cache (memória e depois disco), sem chamar o serviço remoto.
+     */
+    public Optional<PdfCacheado> buscar(String codigo) {
+        if (!podeArmazenar(codigo)) {
+            return Optional.empty();
+        }
+
+        PdfCacheado emMemoria = memoria.getIfPresent(codigo);
+        if (emMemoria != null) {
+            return Optional.of(emMemoria);
+        }
+
+        PdfCacheado emDisco;
+        synchronized (disco) {
+            emDisco = disco.get(codigo);
+        }
+        if (emDisco == null) {
+            return Optional.empty();
+        }
+        if (!Files.exists(emDisco.arquivo())) {
+            removerDoDisco(codigo);
+            return Optional.empty();
+        }
+        return Optional.of(promoverParaMemoria(emDisco));
+    }
+
+    /**
+     * Retorna o PDF do cache ou o busca uma única vez com o fetcher, gravando-o no disco.
+     * Requisições simultâneas para o mesmo código aguardam a mesma busca.
+     */
+    public PdfCacheado buscarOuCarregar(String codigo, PdfFetcher fetcher) throws IOException {
+        Optional<PdfCacheado> cacheado = buscar(codigo);
+        if (cacheado.isPresent()) {
+            return cacheado.get();
+        }
+        if (!podeArmazenar(codigo)) {
+            throw new IllegalStateException("Cache de certificados indisponível para o código: " + codigo);
+        }
+
+        CompletableFuture<PdfCacheado> nova = new CompletableFuture<>();
+        CompletableFuture<PdfCacheado> existente = emAndamento.putIfAbsent(codigo, nova);
+        if (existente != null) {
+            return aguardar(existente);
+        }
+
+        try {
+            PdfCacheado pdf = baixarParaDisco(codigo, fetcher);
+            nova.complete(pdf);
+            return pdf;
+        } catch (IOException | RuntimeException e) {
+            nova.completeExceptionally(e);
+            throw e;
+        } finally {
+            emAndamento.remove(codigo, nova);
+        }
+    }
+
+    public void invalidar(String codigo) {
+        memoria.invalidate(codigo);
+        removerDoDisco(codigo);
+    }
+
+    private PdfCacheado baixarParaDisco(String codigo, PdfFetcher fetcher) throws IOException {
+        Path temporario = Files.createTempFile(diretorio, codigo + ".", ".tmp");
+        try {
+            MessageDigest sha256 = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temporario), sha256)) {
+                fetcher.buscar(codigo, out);
+            }
+            String etag = HexFormat.of().formatHex(sha256.digest());
+            Path destino = diretorio.resolve(codigo + "." + etag + EXTENSAO);
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            PdfCacheado pdf = new PdfCacheado(codigo, etag, Files.size(destino), null, destino);
+            adicionarAoDisco(pdf);
+            return promoverParaMemoria(pdf);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private PdfCacheado promoverParaMemoria(PdfCacheado emDisco) {
+        if (emDisco.tamanho() > memoryMaxEntryBytes) {
+            return emDisco;
+        }
+        try {
+            byte[] conteudo = Files.readAllBytes(emDisco.arquivo());
+            PdfCacheado emMemoria = new PdfCacheado(emDisco.codigo(), emDisco.etag(), conteudo.length, conteudo, emDisco.arquivo());
+            memoria.put(emDisco.codigo(), emMemoria);
+            return emMemoria;
+        } catch (IOException e) {
+            log.debug("Falha ao carregar certificado {} em memória: {}", emDisco.codigo(), e.getMessage());
+            return emDisco;
+        }
+    }
+
+    private void adicionarAoDisco(PdfCacheado pdf) {
+        List<PdfCacheado> removidos = new ArrayList<>();
+        synchronized (disco) {
+            PdfCacheado anterior = disco.put(pdf.codigo(), pdf);
+            if (anterior != null) {
+                discoBytes -= anterior.tamanho();
+                if (!anterior.arquivo().equals(pdf.arquivo())) {
+                    removidos.add(anterior);
+                }
+            }
+            discoBytes += pdf.tamanho();
+
+            Iterator<PdfCacheado> it = disco.values().iterator();
+            while (discoBytes > diskMaxBytes && it.hasNext()) {
+                PdfCacheado maisAntigo = it.next();
+                if (maisAntigo.codigo().equals(pdf.codigo())) {
+                    continue;
+                }
+                it.remove();
+                discoBytes -= maisAntigo.tamanho();
+                removidos.add(maisAntigo);
+            }
+        }
+        removidos.forEach(this::apagarArquivo);
+    }
+
+    private void removerDoDisco(String codigo) {
+        PdfCacheado removido;
+        synchronized (disco) {
+            removido = disco.remove(codigo);
+            if (removido != null) {
+                discoBytes -= removido.tamanho();
+            }
+        }
+        if (removido != null) {
+            apagarArquivo(removido);
+        }
+    }
+
+    private void apagarArquivo(PdfCacheado pdf) {
+        memoria.invalidate(pdf.codigo());
+        try {
+            Files.deleteIfExists(pdf.arquivo());
+        } catch (IOException e) {
+            log.debug("Falha ao remover certificado {} do disco: {}", pdf.codigo(), e.getMessage());
+        }
+    }
+
+    /**
+     * Reconstrói o índice a partir dos arquivos existentes, do mais antigo para o mais recente,
+     * e descarta temporários de downloads interrompidos.
+     */
+    private void carregarIndiceDisco() throws IOException {
+        List<Path> arquivos = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(diretorio)) {
+            for (Path arquivo : stream) {
+                String nome = arquivo.getFileName().toString();
+                if (nome.endsWith(".tmp")) {
+                    Files.deleteIfExists(arquivo);
+                } else if (nome.endsWith(EXTENSAO)) {
+                    arquivos.add(arquivo);
+                }
+            }
+        }
+        arquivos.sort(Comparator.comparingLong(this::ultimaModificacao));
+
+        for (Path arquivo : arquivos) {
+            String nome = arquivo.getFileName().toString();
+            String semExtensao = nome.substring(0, nome.length() - EXTENSAO.length());
+            int separador = semExtensao.lastIndexOf('.');
+            if (separador <= 0) {
+                continue;
+            }
+            String codigo = semExtensao.substring(0, separador);
+            String etag = semExtensao.substring(separador + 1);
+            adicionarAoDisco(new PdfCacheado(codigo, etag, Files.size(arquivo), null, arquivo));
+        }
+        log.info("Cache de certificados em disco: {} arquivo(s), {} bytes", disco.size(), discoBytes);
+    }
+
+    private long ultimaModificacao(Path arquivo) {
+        try {
+            return Files.getLastModifiedTime(arquivo).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static PdfCacheado aguardar(CompletableFuture<PdfCacheado> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
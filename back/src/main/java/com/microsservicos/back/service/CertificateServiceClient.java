@@ -0,0 +1,89 @@
+package com.microsservicos.back.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Chamadas ao serviço de certificados (Node.js) usadas fora do proxy HTTP do CertificateController.
+ */
+@Service
+@RequiredArgsConstructor
+public class CertificateServiceClient {
+
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private final RestTemplate restTemplate;
+
+    @Value("${certificate.service.url:http://localhost:3001}")
+    private String certificateServiceUrl;
+
+    /**
+     * Emite o certificado (ou retorna o já existente) para a presença do usuário no evento.
+     *
+     * @param enviarEmail se o serviço de certificados deve enviar o email de emissão
+     * @return código do certificado
+     */
+    public String gerar(UUID eventId, UUID usuarioId, String authorization, boolean enviarEmail) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        Map<String, Object> body = Map.of(
+                "eventId", eventId.toString(),
+                "usuarioId", usuarioId.toString(),
+                "sendEmail", enviarEmail
+        );
+
+        @SuppressWarnings("rawtypes")
+        ResponseEntity<Map> response = restTemplate.exchange(
+                certificateServiceUrl + "/api/certificates/generate",
+                HttpMethod.POST,
+                new HttpEntity<>(body, headers),
+                Map.class
+        );
+
+        Object codigo = response.getBody() == null ? null : response.getBody().get("certificateCode");
+        if (codigo == null) {
+            throw new RuntimeException("Serviço de certificados não retornou o código do certificado");
+        }
+        return codigo.toString();
+    }
+
+    /**
+     * Copia o PDF do certificado para o stream informado, sem materializá-lo em memória.
+     * O stream não é fechado.
+     */
+    public void baixarPdf(String codigo, String authorization, OutputStream out) {
+        restTemplate.execute(
+                certificateServiceUrl + "/api/certificates/download/" + codigo,
+                HttpMethod.GET,
+                request -> {
+                    if (authorization != null) {
+                        request.getHeaders().set(HttpHeaders.AUTHORIZATION, authorization);
+                    }
+                },
+                response -> {
+                    try (InputStream in = response.getBody()) {
+                        byte[] buffer = new byte[STREAM_BUFFER_SIZE];
+                        int read;
+                        while ((read = in.read(buffer)) != -1) {
+                            out.write(buffer, 0, read);
+                        }
+                    }
+                    return null;
+                }
+        );
+    }
+}
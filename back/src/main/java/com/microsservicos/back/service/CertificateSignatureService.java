@@ -0,0 +1,272 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.Certificate;
+import com.microsservicos.back.repository.CertificateRepository;
+import com.microsservicos.back.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Assinatura Ed25519 dos certificados emitidos.
+ *
+ * Formato do token: {@code base64url(payload) + "." + base64url(assinatura)}, com o payload
+ * {@code versão (1 byte) | usuarioId (16) | eventId (16) | emissão em epoch segundos UTC (8) | código (UTF-8)}.
+ * Qualquer um com a chave pública (GET /api/certificates/public-key) verifica o certificado offline.
+ * Aqui a verificação é feita em memória. Os códigos revogados ficam num Bloom filter sincronizado
+ * periodicamente com o banco, de tamanho fixo pela capacidade configurada (refeito com o dobro dos
+ * revogados quando satura): só um positivo, ou seja, um código revogado ou um falso positivo, é
+ * confirmado no banco pela coluna revoked_at.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CertificateSignatureService {
+
+    public static final String ALGORITHM = "Ed25519";
+
+    private static final byte VERSAO = 1;
+    private static final int CABECALHO = 1 + 16 + 16 + Long.BYTES;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final CertificateRepository certificateRepository;
+    private final Environment environment;
+
+    /** Chave privada PKCS#8 (DER em base64); vazia só é aceita no perfil dev, que gera um par efêmero */
+    @Value("${certificate.signature.private-key:}")
+    private String privateKeyBase64;
+
+    /** Chave pública X.509 (DER em base64) */
+    @Value("${certificate.signature.public-key:}")
+    private String publicKeyBase64;
+
+    private PrivateKey privateKey;
+    private PublicKey publicKey;
+
+    @Value("${certificate.signature.revocation-bloom-expected-insertions:10000}")
+    private long bloomExpectedInsertions;
+
+    @Value("${certificate.signature.revocation-bloom-false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    /** Códigos revogados; nulo até a primeira sincronização, quando a revogação é consultada no banco */
+    private volatile BloomFilter revogados;
+    /** Filtro sendo refeito, que também recebe as revogações locais até substituir o atual */
+    private volatile BloomFilter emConstrucao;
+    private volatile LocalDateTime ultimaSincronizacao;
+
+    public record CertificadoAssinado(String certificateCode, UUID usuarioId, UUID eventId, LocalDateTime issuedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        boolean semChaves = privateKeyBase64.isBlank() || publicKeyBase64.isBlank();
+        if (semChaves && !environment.acceptsProfiles(Profiles.of("dev"))) {
+            throw new IllegalStateException("certificate.signature.private-key e certificate.signature.public-key " +
+                    "são obrigatórias (CERTIFICATE_SIGNING_PRIVATE_KEY e CERTIFICATE_SIGNING_PUBLIC_KEY)");
+        }
+        try {
+            if (semChaves) {
+                log.warn("Chaves de assinatura de certificados não configuradas (perfil dev): usando um par efêmero. " +
+                        "Assinaturas emitidas não serão aceitas após reiniciar a aplicação.");
+                KeyPair par = KeyPairGenerator.getInstance(ALGORITHM).generateKeyPair();
+                privateKey = par.getPrivate();
+                publicKey = par.getPublic();
+            } else {
+                KeyFactory keyFactory = KeyFactory.getInstance(ALGORITHM);
+                privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(privateKeyBase64)));
+                publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(publicKeyBase64)));
+                verificarPar();
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Chaves de assinatura de certificados inválidas", e);
+        }
+    }
+
+    /**
+     * Garante que a chave pública publicada verifica o que a chave privada assina.
+     */
+    private void verificarPar() throws GeneralSecurityException {
+        byte[] teste = "certificate-signature-check".getBytes(StandardCharsets.UTF_8);
+        Signature signature = Signature.getInstance(ALGORITHM);
+        signature.initSign(privateKey);
+        signature.update(teste);
+        byte[] assinatura = signature.sign();
+        signature.initVerify(publicKey);
+        signature.update(teste);
+        if (!signature.verify(assinatura)) {
+            throw new IllegalStateException("A chave pública de assinatura não corresponde à chave privada");
+        }
+    }
+
+    /**
+     * Chave pública X.509 (DER em base64) para verificação por terceiros.
+     */
+    public String getPublicKey() {
+        return Base64.getEncoder().encodeToString(publicKey.getEncoded());
+    }
+
+    public String assinar(Certificate certificate) {
+        byte[] codigo = certificate.getCertificateCode().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer payload = ByteBuffer.allocate(CABECALHO + codigo.length);
+        payload.put(VERSAO);
+        putUuid(payload, certificate.getUsuario().getId());
+        putUuid(payload, certificate.getEvent().getId());
+        payload.putLong(certificate.getIssuedAt().toEpochSecond(ZoneOffset.UTC));
+        payload.put(codigo);
+
+        byte[] bytes = payload.array();
+        try {
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initSign(privateKey);
+            signature.update(bytes);
+            return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(signature.sign());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Falha ao assinar certificado", e);
+        }
+    }
+
+    /**
+     * Verifica assinatura e revogação sem nenhum acesso ao banco.
+     *
+     * @return vazio se o token for malformado, a assinatura não conferir ou o certificado estiver revogado
+     */
+    public Optional<CertificadoAssinado> verificar(String token) {
+        int separador = token.indexOf('.');
+        if (separador <= 0) {
+            return Optional.empty();
+        }
+
+        byte[] payload;
+        byte[] assinatura;
+        try {
+            payload = DECODER.decode(token.substring(0, separador));
+            assinatura = DECODER.decode(token.substring(separador + 1));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        if (payload.length <= CABECALHO || payload[0] != VERSAO) {
+            return Optional.empty();
+        }
+
+        try {
+            Signature signature = Signature.getInstance(ALGORITHM);
+            signature.initVerify(publicKey);
+            signature.update(payload);
+            if (!signature.verify(assinatura)) {
+                return Optional.empty();
+            }
+        } catch (GeneralSecurityException e) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload, 1, payload.length - 1);
+        UUID usuarioId = getUuid(buffer);
+        UUID eventId = getUuid(buffer);
+        LocalDateTime issuedAt = LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC);
+        String codigo = new String(payload, CABECALHO, payload.length - CABECALHO, StandardCharsets.UTF_8);
+
+        if (isRevogado(codigo)) {
+            return Optional.empty();
+        }
+        return Optional.of(new CertificadoAssinado(codigo, usuarioId, eventId, issuedAt));
+    }
+
+    public boolean isRevogado(String codigo) {
+        BloomFilter filtro = revogados;
+        if (filtro != null && !filtro.mightContain(codigo)) {
+            return false;
+        }
+        return certificateRepository.existsByCertificateCodeAndRevokedAtIsNotNull(codigo);
+    }
+
+    /**
+     * Revoga o certificado. A revogação é persistida na transação corrente e só passa a valer
+     * em memória após o commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revogar(Certificate certificate) {
+        certificate.setRevokedAt(LocalDateTime.now());
+        certificateRepository.save(certificate);
+
+        String codigo = certificate.getCertificateCode();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                BloomFilter filtro = revogados;
+                if (filtro != null) {
+                    filtro.put(codigo);
+                }
+                BloomFilter novo = emConstrucao;
+                if (novo != null) {
+                    novo.put(codigo);
+                }
+            }
+        });
+    }
+
+    /**
+     * Carrega revogações feitas por outras instâncias. A janela de sobreposição cobre
+     * diferenças de relógio e transações que comitaram com atraso. Na primeira vez, ou com o
+     * filtro saturado, o filtro é refeito com todos os revogados.
+     */
+    @Scheduled(fixedDelayString = "${certificate.signature.revocation-refresh-ms:30000}")
+    public void sincronizarRevogacoes() {
+        LocalDateTime inicio = LocalDateTime.now();
+        try {
+            BloomFilter filtro = revogados;
+            if (filtro == null || filtro.isSaturated()) {
+                long capacidade = Math.max(bloomExpectedInsertions, certificateRepository.countByRevokedAtIsNotNull() * 2);
+                BloomFilter novo = BloomFilter.create(capacidade, bloomFalsePositiveRate);
+                emConstrucao = novo;
+                certificateRepository.findCodigosRevogadosDesde(LocalDateTime.of(1970, 1, 1, 0, 0)).forEach(novo::put);
+                revogados = novo;
+                emConstrucao = null;
+                log.info("Filtro de certificados revogados carregado: {} código(s), capacidade {}",
+                        novo.getInsertions(), capacidade);
+            } else {
+                certificateRepository.findCodigosRevogadosDesde(ultimaSincronizacao.minusMinutes(1))
+                        .forEach(filtro::put);
+            }
+            ultimaSincronizacao = inicio;
+        } catch (Exception e) {
+            log.error("Erro ao sincronizar revogações de certificados: {}", e.getMessage(), e);
+        }
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
@@ -0,0 +1,209 @@
+package com.microsservicos.back.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microsservicos.back.util.BloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache da validação pública de certificados.
+ *
+ * Um Bloom filter com todos os {@code certificate_code} emitidos descarta códigos inexistentes
+ * sem chamar o serviço de certificados nem o banco. Códigos válidos têm a resposta da validação
+ * guardada por um TTL. O filtro é montado na primeira execução do refresh e recebe cada emissão
+ * pelo {@link CacheInvalidationBus} (tipo {@link #EMISSAO}, publicado pela emissão local e pelo
+ * serviço de certificados), em todas as instâncias. O refresh periódico com os certificados
+ * criados desde a última leitura cobre notificações perdidas; a cada reconexão do listener a
+ * releitura é feita na hora. Revogações chegam pelo mesmo barramento.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CertificateValidationCache implements CacheInvalidationHandler {
+
+    /** Tipo das invalidações publicadas com o código do certificado */
+    public static final String INVALIDACAO = "certificado";
+
+    /** Tipo das notificações de certificado emitido, com o código; inclui o código no filtro */
+    public static final String EMISSAO = "certificado-emitido";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${certificate.validation.cache-ttl-seconds:600}")
+    private long cacheTtlSeconds;
+
+    @Value("${certificate.validation.cache-max-entries:10000}")
+    private long cacheMaxEntries;
+
+    @Value("${certificate.validation.bloom-expected-insertions:100000}")
+    private long bloomExpectedInsertions;
+
+    @Value("${certificate.validation.bloom-false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    /** Margem na releitura incremental para cobrir transações que commitaram fora de ordem */
+    @Value("${certificate.validation.refresh-overlap-seconds:60}")
+    private long refreshOverlapSeconds;
+
+    private Cache<String, Object> validos;
+
+    /** Nulo até a primeira carga: nesse intervalo nenhum código é rejeitado pelo filtro */
+    private volatile BloomFilter filtro;
+    /** Filtro sendo reconstruído; recebe também as emissões feitas durante a carga */
+    private volatile BloomFilter emConstrucao;
+    private volatile LocalDateTime ultimaCriacao;
+
+    private final AtomicLong rejeitadosPeloFiltro = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        validos = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+
+        FunctionCounter.builder("certificate.validation.bloom.rejected", rejeitadosPeloFiltro, AtomicLong::get)
+                .description("Validações de códigos inexistentes descartadas pelo Bloom filter")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false apenas quando o código certamente não foi emitido
+     */
+    public boolean podeExistir(String codigo) {
+        BloomFilter atual = filtro;
+        if (atual == null || atual.mightContain(codigo)) {
+            return true;
+        }
+        rejeitadosPeloFiltro.incrementAndGet();
+        return false;
+    }
+
+    public Optional<Object> buscar(String codigo) {
+        return Optional.ofNullable(validos.getIfPresent(codigo));
+    }
+
+    public void armazenar(String codigo, Object resposta) {
+        if (resposta != null) {
+            validos.put(codigo, resposta);
+        }
+    }
+
+    @Override
+    public Set<String> tiposInvalidacao() {
+        return Set.of(INVALIDACAO, EMISSAO);
+    }
+
+    @Override
+    public void invalidar(String tipo, String codigo) {
+        if (EMISSAO.equals(tipo)) {
+            registrarEmissao(codigo);
+        } else if (CacheInvalidationBus.TODAS.equals(codigo)) {
+            validos.invalidateAll();
+        } else {
+            validos.invalidate(codigo);
+        }
+    }
+
+    @Override
+    public void invalidarTudo() {
+        validos.invalidateAll();
+        // Emissões notificadas enquanto o listener estava fora
+        BloomFilter atual = filtro;
+        if (atual != null) {
+            try {
+                carregarNovos(atual);
+            } catch (Exception e) {
+                log.warn("Falha ao reler certificados emitidos após reconexão: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Inclui no filtro desta instância um certificado recém-emitido, para que a validação seja aceita
+     * imediatamente e não apenas após o próximo refresh. As demais instâncias recebem a emissão pelo
+     * barramento ({@link #EMISSAO}).
+     */
+    public void registrarEmissao(String codigo) {
+        BloomFilter atual = filtro;
+        if (atual != null) {
+            atual.put(codigo);
+        }
+        BloomFilter novo = emConstrucao;
+        if (novo != null) {
+            novo.put(codigo);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${certificate.validation.bloom-refresh-ms:60000}")
+    public void atualizarFiltro() {
+        try {
+            BloomFilter atual = filtro;
+            if (atual == null || atual.isSaturated()) {
+                reconstruirFiltro();
+            } else {
+                carregarNovos(atual);
+            }
+        } catch (Exception e) {
+            log.warn("Falha ao atualizar o filtro de certificados emitidos: {}", e.getMessage());
+        }
+    }
+
+    private void reconstruirFiltro() {
+        Long total = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM certificate", Long.class);
+        long capacidade = Math.max(bloomExpectedInsertions, (total == null ? 0 : total) * 2);
+        BloomFilter novo = BloomFilter.create(capacidade, bloomFalsePositiveRate);
+        emConstrucao = novo;
+
+        LocalDateTime[] maisRecente = {null};
+        jdbcTemplate.query("SELECT certificate_code, created_at FROM certificate", rs -> {
+            novo.put(rs.getString(1));
+            maisRecente[0] = maisRecente(maisRecente[0], rs.getTimestamp(2));
+        });
+
+        ultimaCriacao = maisRecente[0];
+        filtro = novo;
+        emConstrucao = null;
+        log.info("Filtro de certificados emitidos carregado: {} código(s), capacidade {}", novo.getInsertions(), capacidade);
+    }
+
+    private synchronized void carregarNovos(BloomFilter atual) {
+        LocalDateTime desde = ultimaCriacao == null
+                ? LocalDateTime.of(1970, 1, 1, 0, 0)
+                : ultimaCriacao.minusSeconds(refreshOverlapSeconds);
+
+        LocalDateTime[] maisRecente = {ultimaCriacao};
+        jdbcTemplate.query(
+                "SELECT certificate_code, created_at FROM certificate WHERE created_at >= ?",
+                rs -> {
+                    atual.put(rs.getString(1));
+                    maisRecente[0] = maisRecente(maisRecente[0], rs.getTimestamp(2));
+                },
+                Timestamp.valueOf(desde));
+        ultimaCriacao = maisRecente[0];
+    }
+
+    private static LocalDateTime maisRecente(LocalDateTime atual, Timestamp candidato) {
+        if (candidato == null) {
+            return atual;
+        }
+        LocalDateTime valor = candidato.toLocalDateTime();
+        return atual == null || valor.isAfter(atual) ? valor : atual;
+    }
+}
@@ -0,0 +1,191 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.CheckInTokenRevocation;
+import com.microsservicos.back.domain.EventInscription;
+import com.microsservicos.back.repository.CheckInTokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Emite e verifica tokens de check-in assinados com HMAC-SHA256.
+ *
+ * O token carrega inscrição, usuário, evento e data de emissão, de modo que a portaria
+ * valida o QR code apenas em memória. O token é determinístico (a data de emissão é a data
+ * da inscrição), então pode ser reemitido a qualquer momento sem ser armazenado.
+ *
+ * Revogações ficam em memória só até o fim do evento mais {@code checkin.token.revocation-grace-hours};
+ * depois disso um token revogado ainda é rejeitado pelo merge da presença (a inscrição não existe mais).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckInTokenService {
+
+    private static final int PAYLOAD_SIZE = 16 * 3 + Long.BYTES;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final CheckInTokenRevocationRepository checkInTokenRevocationRepository;
+
+    /** Sem valor padrão: vem de CHECKIN_TOKEN_SECRET */
+    @Value("${checkin.token.secret}")
+    private String secret;
+
+    @Value("${checkin.token.revocation-grace-hours:24}")
+    private long revocationGraceHours;
+
+    private SecretKeySpec signingKey;
+    private ThreadLocal<Mac> macs;
+
+    /** Inscrições revogadas (com a expiração), mantidas em memória para que a verificação não consulte o banco */
+    private final Map<UUID, LocalDateTime> revogadas = new ConcurrentHashMap<>();
+    private volatile LocalDateTime ultimaSincronizacao;
+
+    public record CheckInClaims(UUID inscriptionId, UUID usuarioId, UUID eventId, LocalDateTime issuedAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (secret.isBlank() || secret.getBytes(StandardCharsets.UTF_8).length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("checkin.token.secret (CHECKIN_TOKEN_SECRET) deve ter ao menos "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(signingKey);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 indisponível", e);
+            }
+        });
+        sincronizarRevogacoes();
+    }
+
+    public String emitir(EventInscription inscription) {
+        ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_SIZE);
+        putUuid(payload, inscription.getId());
+        putUuid(payload, inscription.getUsuario().getId());
+        putUuid(payload, inscription.getEvent().getId());
+        payload.putLong(inscription.getCreatedAt().toEpochSecond(ZoneOffset.UTC));
+
+        byte[] bytes = payload.array();
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(assinar(bytes));
+    }
+
+    /**
+     * Verifica assinatura e revogação do token sem nenhum acesso ao banco.
+     *
+     * @throws RuntimeException se o token for inválido ou estiver revogado
+     */
+    public CheckInClaims verificar(String token) {
+        int separador = token.indexOf('.');
+        if (separador <= 0) {
+            throw new RuntimeException("Token de check-in inválido");
+        }
+
+        byte[] payload;
+        byte[] assinatura;
+        try {
+            payload = DECODER.decode(token.substring(0, separador));
+            assinatura = DECODER.decode(token.substring(separador + 1));
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Token de check-in inválido");
+        }
+
+        if (payload.length != PAYLOAD_SIZE || !MessageDigest.isEqual(assinar(payload), assinatura)) {
+            throw new RuntimeException("Token de check-in inválido");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        CheckInClaims claims = new CheckInClaims(
+                getUuid(buffer),
+                getUuid(buffer),
+                getUuid(buffer),
+                LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC));
+
+        if (revogadas.containsKey(claims.inscriptionId())) {
+            throw new RuntimeException("Token de check-in revogado");
+        }
+        return claims;
+    }
+
+    /**
+     * Revoga o token da inscrição cancelada. A revogação é persistida na transação do cancelamento
+     * e só passa a valer em memória após o commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void revogar(EventInscription inscription) {
+        UUID inscriptionId = inscription.getId();
+        LocalDateTime expiraEm = inscription.getEvent().getDataHoraFim().plusHours(revocationGraceHours);
+        checkInTokenRevocationRepository.save(CheckInTokenRevocation.builder()
+                .inscriptionId(inscriptionId)
+                .usuarioId(inscription.getUsuario().getId())
+                .eventId(inscription.getEvent().getId())
+                .expiresAt(expiraEm)
+                .build());
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                revogadas.put(inscriptionId, expiraEm);
+            }
+        });
+    }
+
+    /**
+     * Carrega revogações feitas por outras instâncias e descarta as expiradas. A janela de
+     * sobreposição cobre diferenças de relógio e transações que comitaram com atraso.
+     */
+    @Scheduled(fixedDelayString = "${checkin.token.revocation-refresh-ms:30000}")
+    public void sincronizarRevogacoes() {
+        LocalDateTime inicio = LocalDateTime.now();
+        LocalDateTime desde = ultimaSincronizacao == null
+                ? LocalDateTime.of(1970, 1, 1, 0, 0)
+                : ultimaSincronizacao.minusMinutes(1);
+        try {
+            checkInTokenRevocationRepository.findRevogadasDesde(desde, inicio)
+                    .forEach(revogacao -> revogadas.put(revogacao.getInscriptionId(), revogacao.getExpiresAt()));
+            ultimaSincronizacao = inicio;
+            revogadas.values().removeIf(expiraEm -> !expiraEm.isAfter(inicio));
+        } catch (Exception e) {
+            log.error("Erro ao sincronizar revogações de tokens de check-in: {}", e.getMessage(), e);
+        }
+    }
+
+    private byte[] assinar(byte[] payload) {
+        return macs.get().doFinal(payload);
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
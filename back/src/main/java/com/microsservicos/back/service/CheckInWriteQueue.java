@@ -0,0 +1,198 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.SyncOperationResult;
+import com.microsservicos.back.dto.SyncCheckInDTO;
+import com.microsservicos.back.dto.SyncCheckInResultadoDTO;
+import com.microsservicos.back.exception.ServiceUnavailableException;
+import com.microsservicos.back.repository.UsuarioRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Gravação agrupada (group commit) dos check-ins aceitos por token. As leituras são agrupadas
+ * por evento e aplicadas em lote pelo mesmo merge idempotente da sincronização offline; cada
+ * requisição espera o commit do seu lote, então nenhum check-in respondido fica só em memória.
+ *
+ * Os lotes são gravados por uma thread própria, e não pelo agendador compartilhado com os outros
+ * jobs: um job lento no agendador faria as requisições esgotarem max-wait-ms. Enquanto um lote é
+ * gravado, as leituras que chegam se acumulam na fila e formam o próximo lote.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CheckInWriteQueue {
+
+    private static final String DEVICE_ID = "checkin-token";
+
+    private final AttendanceSyncService attendanceSyncService;
+    private final UserLogService userLogService;
+    private final UsuarioRepository usuarioRepository;
+
+    @Value("${checkin.queue.capacity:10000}")
+    private int capacity;
+
+    @Value("${checkin.queue.batch-size:500}")
+    private int batchSize;
+
+    /** Espera máxima da thread de gravação por uma leitura antes de verificar o desligamento */
+    @Value("${checkin.queue.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    /** Espera máxima da requisição pelo commit do lote */
+    @Value("${checkin.queue.max-wait-ms:2000}")
+    private long maxWaitMs;
+
+    /** Leituras do mesmo token dentro da janela são a mesma operação (DUPLICADA) */
+    @Value("${checkin.token.dedupe-window-seconds:60}")
+    private long dedupeWindowSeconds;
+
+    private BlockingQueue<PendingCheckIn> fila;
+    private Thread gravador;
+    private volatile boolean ativo;
+
+    private record PendingCheckIn(UUID eventId, UUID usuarioId, UUID operationId, UUID confirmadoPor,
+                                  LocalDateTime registradoEm, CompletableFuture<SyncOperationResult> resultado) {
+    }
+
+    private record Grupo(UUID eventId, UUID confirmadoPor) {
+    }
+
+    @PostConstruct
+    void init() {
+        fila = new LinkedBlockingQueue<>(capacity);
+        ativo = true;
+        gravador = new Thread(this::gravar, "checkin-write-queue");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        ativo = false;
+        gravador.join(maxWaitMs);
+        // Leituras enfileiradas após a saída da thread
+        gravarPendentes();
+    }
+
+    /**
+     * Enfileira o check-in e espera a gravação do lote.
+     *
+     * @return resultado do merge (APLICADA, DUPLICADA, OBSOLETA ou REJEITADA)
+     * @throws ServiceUnavailableException se a fila estiver cheia ou o lote não for gravado a tempo
+     */
+    public SyncOperationResult registrar(CheckInTokenService.CheckInClaims claims, UUID confirmadoPor,
+                                         LocalDateTime registradoEm) {
+        PendingCheckIn pendente = new PendingCheckIn(claims.eventId(), claims.usuarioId(),
+                operationId(claims.inscriptionId(), registradoEm), confirmadoPor, registradoEm,
+                new CompletableFuture<>());
+        if (!fila.offer(pendente)) {
+            throw new ServiceUnavailableException("Fila de check-in cheia; tente novamente");
+        }
+        try {
+            return pendente.resultado().get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Check-in não confirmado; tente novamente");
+        } catch (ExecutionException | TimeoutException e) {
+            // Repetir é seguro: dentro da janela a nova leitura tem o mesmo operationId
+            throw new ServiceUnavailableException("Check-in não confirmado; tente novamente");
+        }
+    }
+
+    /**
+     * Um id por leitura: a mesma inscrição lida de novo fora da janela (ex.: após uma desmarcação
+     * pelo administrador) é uma nova operação.
+     */
+    private UUID operationId(UUID inscriptionId, LocalDateTime registradoEm) {
+        long janela = registradoEm.toEpochSecond(ZoneOffset.UTC) / Math.max(dedupeWindowSeconds, 1);
+        return UUID.nameUUIDFromBytes(("checkin-token:" + inscriptionId + ":" + janela)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void gravar() {
+        List<PendingCheckIn> lote = new ArrayList<>(batchSize);
+        while (ativo) {
+            try {
+                PendingCheckIn primeiro = fila.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                lote.add(primeiro);
+                fila.drainTo(lote, batchSize - 1);
+                gravarLote(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Erro inesperado na gravação de check-ins por token: {}", e.getMessage(), e);
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void gravarPendentes() {
+        List<PendingCheckIn> lote = new ArrayList<>(batchSize);
+        while (fila.drainTo(lote, batchSize) > 0) {
+            gravarLote(lote);
+            lote.clear();
+        }
+    }
+
+    private void gravarLote(List<PendingCheckIn> lote) {
+        Map<Grupo, List<PendingCheckIn>> grupos = lote.stream()
+                .collect(Collectors.groupingBy(p -> new Grupo(p.eventId(), p.confirmadoPor()),
+                        LinkedHashMap::new, Collectors.toList()));
+        grupos.forEach(this::gravarGrupo);
+    }
+
+    private void gravarGrupo(Grupo grupo, List<PendingCheckIn> pendentes) {
+        List<SyncCheckInDTO> operacoes = pendentes.stream()
+                .map(p -> SyncCheckInDTO.builder()
+                        .operationId(p.operationId())
+                        .usuarioId(p.usuarioId())
+                        .presente(true)
+                        .registradoEm(p.registradoEm())
+                        .build())
+                .toList();
+        try {
+            List<SyncCheckInResultadoDTO> resultados =
+                    attendanceSyncService.aplicarCheckIns(grupo.eventId(), DEVICE_ID, grupo.confirmadoPor(), operacoes);
+            // aplicarCheckIns devolve os resultados na ordem das operações
+            for (int i = 0; i < pendentes.size(); i++) {
+                pendentes.get(i).resultado().complete(resultados.get(i).getResultado());
+            }
+
+            Map<String, Object> details = new HashMap<>();
+            details.put("eventId", grupo.eventId().toString());
+            details.put("checkIns", operacoes.size());
+            userLogService.logAction(usuarioRepository.getReferenceById(grupo.confirmadoPor()),
+                    "ATTENDANCE_TOKEN_CHECKIN", "EVENT", grupo.eventId(), details);
+        } catch (Exception e) {
+            log.error("Erro ao gravar {} check-ins por token do evento {}: {}",
+                    operacoes.size(), grupo.eventId(), e.getMessage(), e);
+            pendentes.forEach(p -> p.resultado().completeExceptionally(e));
+        }
+    }
+}
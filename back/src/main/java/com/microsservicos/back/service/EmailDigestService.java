@@ -0,0 +1,173 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.EmailOutbox;
+import com.microsservicos.back.domain.EmailOutboxStatus;
+import com.microsservicos.back.domain.EmailType;
+import com.microsservicos.back.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Agrupamento de notificações não urgentes por destinatário.
+ *
+ * Emails não urgentes entram na outbox com {@code disponivel_em} adiado pela janela configurada.
+ * Quando o primeiro deles é reivindicado, todos os outros pendentes do mesmo destinatário (mesmo os
+ * que ainda estão na janela) são incorporados a ele, que vira um único email de resumo; os demais
+ * ficam com status AGRUPADO. Emails urgentes (ex.: certificados) não esperam nem são agrupados.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailDigestService {
+
+    private static final String SEPARADOR = "==============================";
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailTemplateService emailTemplateService;
+    private final MeterRegistry meterRegistry;
+
+    /** Tempo que notificações não urgentes esperam por outras do mesmo destinatário; 0 desativa */
+    @Value("${email.coalescing.window-seconds:120}")
+    private long windowSeconds;
+
+    private Counter resumos;
+    private Counter poupados;
+
+    @PostConstruct
+    void init() {
+        resumos = Counter.builder("email.coalescing.digests")
+                .description("Emails de resumo gerados pelo agrupamento de notificações")
+                .register(meterRegistry);
+        poupados = Counter.builder("email.coalescing.saved")
+                .description("Emails que deixaram de ser enviados por terem sido agrupados em um resumo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Momento a partir do qual um email recém-enfileirado pode ser enviado.
+     */
+    public LocalDateTime disponivelEm(EmailType tipo, LocalDateTime agora) {
+        return tipo.isUrgente() || windowSeconds <= 0 ? agora : agora.plusSeconds(windowSeconds);
+    }
+
+    /**
+     * Aplica o agrupamento a um lote recém-reivindicado, na transação da reivindicação.
+     *
+     * @return os emails a enviar (resumos no lugar dos emails agrupados)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<EmailOutbox> agrupar(List<EmailOutbox> lote, LocalDateTime agora) {
+        if (windowSeconds <= 0) {
+            return lote;
+        }
+
+        // Só na primeira tentativa: um resumo que falhou é reenviado como está
+        Map<String, List<EmailOutbox>> porDestinatario = lote.stream()
+                .filter(email -> !email.getUrgente() && email.getTentativas() == 1)
+                .collect(Collectors.groupingBy(EmailOutbox::getDestinatario, LinkedHashMap::new, Collectors.toList()));
+        if (porDestinatario.isEmpty()) {
+            return lote;
+        }
+
+        Set<UUID> doLote = lote.stream().map(EmailOutbox::getId).collect(Collectors.toSet());
+        for (EmailOutbox pendente : emailOutboxRepository.findPendentesParaAgrupar(porDestinatario.keySet())) {
+            if (!doLote.contains(pendente.getId())) {
+                porDestinatario.get(pendente.getDestinatario()).add(pendente);
+            }
+        }
+
+        Set<UUID> incorporados = new HashSet<>();
+        List<EmailOutbox> agrupados = new ArrayList<>();
+        for (List<EmailOutbox> emails : porDestinatario.values()) {
+            if (emails.size() < 2) {
+                continue;
+            }
+            emails.sort(Comparator.comparing(EmailOutbox::getCreatedAt));
+            EmailOutbox principal = emails.get(0);
+            List<EmailOutbox> itens = List.copyOf(emails);
+
+            for (EmailOutbox email : itens.subList(1, itens.size())) {
+                email.setStatus(EmailOutboxStatus.AGRUPADO);
+                email.setAgrupadoEm(principal.getId());
+                email.setSentAt(agora);
+                email.setLockedUntil(null);
+                incorporados.add(email.getId());
+                agrupados.add(email);
+            }
+            comporResumo(principal, itens);
+
+            resumos.increment();
+            poupados.increment(itens.size() - 1);
+            log.info("{} notificações para {} agrupadas em um resumo", itens.size(), principal.getDestinatario());
+        }
+
+        if (agrupados.isEmpty()) {
+            return lote;
+        }
+        emailOutboxRepository.saveAll(agrupados);
+        return lote.stream().filter(email -> !incorporados.contains(email.getId())).toList();
+    }
+
+    private void comporResumo(EmailOutbox principal, List<EmailOutbox> itens) {
+        StringBuilder texto = new StringBuilder();
+        StringBuilder html = new StringBuilder();
+        for (EmailOutbox item : itens) {
+            texto.append(SEPARADOR).append('\n')
+                    .append(item.getAssunto()).append('\n')
+                    .append(SEPARADOR).append("\n\n")
+                    .append(item.getCorpo()).append("\n\n");
+
+            html.append("<hr>\n<h3>").append(HtmlUtils.htmlEscape(item.getAssunto(), "UTF-8")).append("</h3>\n")
+                    .append(conteudoHtml(item)).append('\n');
+        }
+
+        Map<String, String> variaveis = Map.of(
+                "resumo.quantidade", String.valueOf(itens.size()),
+                "resumo.itens", texto.toString(),
+                "resumo.itens.html", html.toString());
+        EmailTemplateService.EmailRenderizado resumo =
+                emailTemplateService.renderizar("resumo-notificacoes", null, variaveis);
+
+        principal.setTipo(EmailType.RESUMO_NOTIFICACOES);
+        principal.setAssunto(resumo.assunto());
+        principal.setCorpo(resumo.texto());
+        principal.setCorpoHtml(resumo.html());
+        principal.setEventId(null);
+    }
+
+    /**
+     * Conteúdo do {@code <body>} do HTML do item ou, sem HTML, o texto em {@code <pre>}.
+     */
+    private static String conteudoHtml(EmailOutbox item) {
+        String html = item.getCorpoHtml();
+        if (html != null) {
+            int abertura = html.indexOf("<body");
+            int inicio = abertura < 0 ? -1 : html.indexOf('>', abertura);
+            int fim = html.lastIndexOf("</body>");
+            if (inicio >= 0 && fim > inicio) {
+                return html.substring(inicio + 1, fim).strip();
+            }
+        }
+        return "<pre style=\"font-family: inherit; white-space: pre-wrap;\">"
+                + HtmlUtils.htmlEscape(item.getCorpo(), "UTF-8") + "</pre>";
+    }
+}
@@ -0,0 +1,284 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.config.AsyncConfig;
+import com.microsservicos.back.domain.EmailOutbox;
+import com.microsservicos.back.domain.EmailOutboxStatus;
+import com.microsservicos.back.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Envio dos emails gravados na {@code email_outbox}.
+ *
+ * Cada execução reivindica um lote com {@code FOR UPDATE SKIP LOCKED}, marca as linhas como
+ * ENVIANDO com um lease e só então fala com o SMTP, fora da transação. Várias instâncias drenam a
+ * fila em paralelo sem disputar as mesmas linhas; se uma cair no meio do envio, o lease expira e o
+ * lote volta a ser reivindicado (entrega ao menos uma vez). Falhas são reagendadas com backoff
+ * exponencial até o limite de tentativas.
+ *
+ * O lote inteiro vai em uma única chamada a {@link JavaMailSender#send(MimeMessage...)}, que abre
+ * uma conexão SMTP (STARTTLS e autenticação uma vez só) e envia todas as mensagens por ela. Lotes
+ * incompletos aguardam até o linger para aproveitar melhor a sessão. Notificações não urgentes de
+ * um mesmo destinatário são reunidas em um resumo pelo {@link EmailDigestService}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmailOutboxDispatcher {
+
+    private static final int MAX_ERRO = 500;
+
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailDigestService emailDigestService;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    @Qualifier(AsyncConfig.EMAIL_EXECUTOR)
+    private final ThreadPoolTaskExecutor emailExecutor;
+
+    @Value("${spring.mail.from}")
+    private String fromEmail;
+
+    @Value("${email.outbox.batch-size:50}")
+    private int batchSize;
+
+    /** Tempo máximo que um lote incompleto espera por mais emails antes de ser enviado */
+    @Value("${email.outbox.linger-ms:2000}")
+    private long lingerMs;
+
+    @Value("${email.outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${email.outbox.max-tentativas:6}")
+    private int maxTentativas;
+
+    @Value("${email.outbox.backoff-base-ms:30000}")
+    private long backoffBaseMs;
+
+    @Value("${email.outbox.retention-days:7}")
+    private long retentionDays;
+
+    /** Lotes reivindicados por esta instância e ainda em envio */
+    private final AtomicInteger emExecucao = new AtomicInteger();
+
+    private Timer duracaoLote;
+    private DistributionSummary tamanhoLote;
+    private Counter enviados;
+    private Counter falhas;
+
+    @PostConstruct
+    void init() {
+        duracaoLote = Timer.builder("email.outbox.batch.duration")
+                .description("Duração do envio de um lote de emails por uma sessão SMTP")
+                .register(meterRegistry);
+        tamanhoLote = DistributionSummary.builder("email.outbox.batch.size")
+                .description("Emails por lote enviado")
+                .register(meterRegistry);
+        enviados = Counter.builder("email.outbox.sent")
+                .description("Emails entregues ao servidor SMTP")
+                .register(meterRegistry);
+        falhas = Counter.builder("email.outbox.failed")
+                .description("Tentativas de envio de email que falharam")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reivindica lotes enquanto houver threads livres no executor de emails e lotes cheios na fila,
+     * para que um pico não espere um poll por lote. Cada thread envia um lote por sua sessão SMTP.
+     */
+    @Scheduled(fixedDelayString = "${email.outbox.poll-ms:1000}")
+    public void despachar() {
+        while (emExecucao.get() < emailExecutor.getMaxPoolSize() && loteProntoParaEnvio()) {
+            List<EmailOutbox> lote = reivindicar();
+            if (lote.isEmpty()) {
+                return;
+            }
+
+            emExecucao.incrementAndGet();
+            try {
+                emailExecutor.execute(() -> {
+                    try {
+                        enviar(lote);
+                    } finally {
+                        emExecucao.decrementAndGet();
+                    }
+                });
+            } catch (TaskRejectedException e) {
+                // Executor desligando: o lote volta para a fila quando o lease expirar
+                emExecucao.decrementAndGet();
+                log.warn("Lote de emails rejeitado pelo executor: {}", e.getMessage());
+                return;
+            }
+
+            if (lote.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private boolean loteProntoParaEnvio() {
+        try {
+            LocalDateTime agora = LocalDateTime.now();
+            return emailOutboxRepository.existeLoteProntoParaEnvio(agora, batchSize,
+                    agora.minusNanos(lingerMs * 1_000_000));
+        } catch (Exception e) {
+            log.warn("Falha ao consultar a outbox de emails: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private List<EmailOutbox> reivindicar() {
+        try {
+            return transactionTemplate.execute(status -> {
+                LocalDateTime agora = LocalDateTime.now();
+                List<EmailOutbox> emails = emailOutboxRepository.findDisponiveisParaEnvio(agora, batchSize);
+                for (EmailOutbox email : emails) {
+                    email.setStatus(EmailOutboxStatus.ENVIANDO);
+                    email.setTentativas(email.getTentativas() + 1);
+                    email.setLockedUntil(agora.plusSeconds(leaseSeconds));
+                }
+                return emailDigestService.agrupar(emailOutboxRepository.saveAll(emails), agora);
+            });
+        } catch (Exception e) {
+            log.warn("Falha ao reivindicar emails da outbox: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void enviar(List<EmailOutbox> lote) {
+        // Chave por identidade: é assim que o MailSendException devolve as mensagens que falharam
+        Map<MimeMessage, EmailOutbox> mensagens = new IdentityHashMap<>(lote.size());
+        for (EmailOutbox email : lote) {
+            try {
+                mensagens.put(criarMensagem(email), email);
+            } catch (MessagingException e) {
+                registrarFalha(email, e.getMessage());
+            }
+        }
+        if (mensagens.isEmpty()) {
+            return;
+        }
+
+        Map<Object, Exception> falhasDoLote = Map.of();
+        long inicio = System.nanoTime();
+        try {
+            mailSender.send(mensagens.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            falhasDoLote = e.getFailedMessages();
+            if (falhasDoLote.isEmpty()) {
+                // Falha sem detalhe por mensagem (ex.: conexão recusada): o lote inteiro falhou
+                falharLote(mensagens.values(), e);
+                return;
+            }
+        } catch (MailException e) {
+            falharLote(mensagens.values(), e);
+            return;
+        } finally {
+            duracaoLote.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            tamanhoLote.record(mensagens.size());
+        }
+
+        List<UUID> entregues = new ArrayList<>(mensagens.size());
+        for (Map.Entry<MimeMessage, EmailOutbox> entrada : mensagens.entrySet()) {
+            Exception falha = falhasDoLote.get(entrada.getKey());
+            if (falha == null) {
+                entregues.add(entrada.getValue().getId());
+            } else {
+                registrarFalha(entrada.getValue(), falha.getMessage());
+            }
+        }
+
+        if (!entregues.isEmpty()) {
+            emailOutboxRepository.marcarEnviados(entregues, LocalDateTime.now());
+            enviados.increment(entregues.size());
+            log.info("{} email(s) enviado(s) da outbox", entregues.size());
+        }
+    }
+
+    private MimeMessage criarMensagem(EmailOutbox email) throws MessagingException {
+        MimeMessage mensagem = mailSender.createMimeMessage();
+        boolean html = email.getCorpoHtml() != null;
+        MimeMessageHelper helper = new MimeMessageHelper(mensagem, html, StandardCharsets.UTF_8.name());
+        helper.setFrom(fromEmail);
+        helper.setTo(email.getDestinatario());
+        helper.setSubject(email.getAssunto());
+        if (html) {
+            // multipart/alternative: o cliente de email escolhe entre texto e HTML
+            helper.setText(email.getCorpo(), email.getCorpoHtml());
+        } else {
+            helper.setText(email.getCorpo());
+        }
+        return mensagem;
+    }
+
+    private void falharLote(Iterable<EmailOutbox> emails, Exception e) {
+        log.warn("Falha na sessão SMTP; lote de emails será reagendado: {}", e.getMessage());
+        for (EmailOutbox email : emails) {
+            registrarFalha(email, e.getMessage());
+        }
+    }
+
+    private void registrarFalha(EmailOutbox email, String erro) {
+        falhas.increment();
+        boolean esgotado = email.getTentativas() >= maxTentativas;
+        long atrasoMs = backoffBaseMs * (1L << Math.min(email.getTentativas() - 1, 10));
+        emailOutboxRepository.registrarFalha(email.getId(), email.getTentativas(),
+                esgotado ? EmailOutboxStatus.FALHOU : EmailOutboxStatus.PENDENTE,
+                truncar(erro),
+                LocalDateTime.now().plusNanos(atrasoMs * 1_000_000));
+
+        if (esgotado) {
+            log.error("Email {} ({}) para {} descartado após {} tentativa(s): {}",
+                    email.getId(), email.getTipo(), email.getDestinatario(), email.getTentativas(), erro);
+        } else {
+            log.warn("Erro ao enviar email {} ({}) para {}, nova tentativa em {} ms: {}",
+                    email.getId(), email.getTipo(), email.getDestinatario(), atrasoMs, erro);
+        }
+    }
+
+    /**
+     * Remove emails já enviados há mais tempo que a retenção configurada.
+     */
+    @Scheduled(cron = "${email.outbox.cleanup-cron:0 30 3 * * *}")
+    public void removerEnviadosAntigos() {
+        int removidos = emailOutboxRepository.deleteEnviadosAntesDe(LocalDateTime.now().minusDays(retentionDays));
+        if (removidos > 0) {
+            log.info("{} email(s) enviado(s) removido(s) da outbox", removidos);
+        }
+    }
+
+    private static String truncar(String erro) {
+        if (erro == null || erro.length() <= MAX_ERRO) {
+            return erro;
+        }
+        return erro.substring(0, MAX_ERRO);
+    }
+}
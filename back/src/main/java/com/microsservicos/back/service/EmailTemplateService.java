@@ -0,0 +1,173 @@
+package com.microsservicos.back.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.util.EmailTemplate;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Templates dos emails, em {@code classpath:templates/email}.
+ *
+ * Cada email tem uma variante texto ({@code <nome>.txt}, obrigatória) e uma HTML ({@code <nome>.html},
+ * opcional). A primeira linha do texto é o assunto ({@code Assunto: ...}), separada do corpo por uma
+ * linha em branco. Traduções seguem a convenção de ResourceBundle: {@code <nome>_en.txt},
+ * {@code <nome>_en_US.txt}; sem tradução, vale o template sem sufixo.
+ *
+ * Os templates são compilados uma vez na inicialização. As variáveis do evento ({@code evento.*}) são
+ * aplicadas uma vez por evento e o resultado fica em cache; em envios para muitos participantes do
+ * mesmo evento, cada email só preenche os campos do destinatário.
+ */
+@Slf4j
+@Service
+public class EmailTemplateService {
+
+    private static final String LOCAL_TEMPLATES = "classpath:templates/email/";
+    private static final String PREFIXO_ASSUNTO = "Assunto:";
+    private static final DateTimeFormatter DATE_TIME_FORMATTER_PT = DateTimeFormatter.ofPattern("dd/MM/yyyy 'às' HH:mm");
+
+    @Value("${email.template.default-locale:pt-BR}")
+    private String defaultLocaleTag;
+
+    @Value("${email.template.event-cache-max-entries:500}")
+    private long eventCacheMaxEntries;
+
+    private Locale defaultLocale;
+
+    /** Nome do arquivo sem extensão (ex.: confirmacao-inscricao_en) -> template compilado */
+    private final Map<String, Modelo> modelos = new HashMap<>();
+    private final Map<Locale, DateTimeFormatter> formatadores = new ConcurrentHashMap<>();
+    private Cache<ChaveEvento, Modelo> porEvento;
+
+    public record EmailRenderizado(String assunto, String texto, String html) {
+    }
+
+    private record Modelo(EmailTemplate assunto, EmailTemplate texto, EmailTemplate html) {
+
+        private Modelo bind(Map<String, String> valores) {
+            return new Modelo(assunto.bind(valores), texto.bind(valores), html == null ? null : html.bind(valores));
+        }
+    }
+
+    /**
+     * A versão (updated_at) do evento faz parte da chave: editar o evento gera novas entradas
+     * e as antigas saem por LRU.
+     */
+    private record ChaveEvento(String modelo, Locale locale, UUID eventId, LocalDateTime versao) {
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        defaultLocale = Locale.forLanguageTag(defaultLocaleTag);
+        porEvento = Caffeine.newBuilder()
+                .maximumSize(eventCacheMaxEntries)
+                .build();
+
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (Resource texto : resolver.getResources(LOCAL_TEMPLATES + "*.txt")) {
+            String arquivo = texto.getFilename();
+            String nome = arquivo.substring(0, arquivo.length() - ".txt".length());
+            Resource html = resolver.getResource(LOCAL_TEMPLATES + nome + ".html");
+            modelos.put(nome, compilar(nome, ler(texto), html.exists() ? ler(html) : null));
+        }
+        log.info("{} template(s) de email carregado(s)", modelos.size());
+    }
+
+    public Locale getDefaultLocale() {
+        return defaultLocale;
+    }
+
+    public EmailRenderizado renderizar(String nome, Event event, Map<String, String> variaveis) {
+        return renderizar(nome, defaultLocale, event, variaveis);
+    }
+
+    /**
+     * @param event     evento do email (ou null); suas variáveis vêm do cache por evento
+     * @param variaveis variáveis do destinatário
+     */
+    public EmailRenderizado renderizar(String nome, Locale locale, Event event, Map<String, String> variaveis) {
+        String chave = resolver(nome, locale);
+        Modelo modelo = modelos.get(chave);
+        if (event != null) {
+            modelo = porEvento.get(new ChaveEvento(chave, locale, event.getId(), event.getUpdatedAt()),
+                    k -> modelos.get(k.modelo()).bind(variaveisDoEvento(event, k.locale())));
+        }
+        return new EmailRenderizado(
+                modelo.assunto().render(variaveis),
+                modelo.texto().render(variaveis),
+                modelo.html() == null ? null : modelo.html().render(variaveis));
+    }
+
+    private String resolver(String nome, Locale locale) {
+        for (String candidato : List.of(
+                nome + "_" + locale.getLanguage() + "_" + locale.getCountry(),
+                nome + "_" + locale.getLanguage(),
+                nome)) {
+            if (modelos.containsKey(candidato)) {
+                return candidato;
+            }
+        }
+        throw new IllegalArgumentException("Template de email não encontrado: " + nome);
+    }
+
+    private Map<String, String> variaveisDoEvento(Event event, Locale locale) {
+        DateTimeFormatter formatter = formatadores.computeIfAbsent(locale, EmailTemplateService::formatador);
+        Map<String, String> valores = new HashMap<>();
+        valores.put("evento.nome", event.getNome());
+        valores.put("evento.inicio", event.getDataHoraInicio().format(formatter));
+        valores.put("evento.fim", event.getDataHoraFim().format(formatter));
+        valores.put("evento.local", event.getLocalEvento());
+        valores.put("evento.categoria", event.getCategoria());
+        valores.put("evento.detalhes", event.getDetalhes());
+        return valores;
+    }
+
+    private static DateTimeFormatter formatador(Locale locale) {
+        if ("pt".equals(locale.getLanguage())) {
+            return DATE_TIME_FORMATTER_PT;
+        }
+        return DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM, FormatStyle.SHORT).withLocale(locale);
+    }
+
+    private static Modelo compilar(String nome, String texto, String html) {
+        if (!texto.startsWith(PREFIXO_ASSUNTO)) {
+            throw new IllegalStateException("Template de email " + nome + ".txt deve começar com '" + PREFIXO_ASSUNTO + "'");
+        }
+        int fimAssunto = texto.indexOf('\n');
+        String assunto = texto.substring(PREFIXO_ASSUNTO.length(), fimAssunto < 0 ? texto.length() : fimAssunto).trim();
+        String corpo = fimAssunto < 0 ? "" : texto.substring(fimAssunto + 1).stripLeading();
+        try {
+            return new Modelo(
+                    EmailTemplate.compile(assunto, false),
+                    EmailTemplate.compile(corpo, false),
+                    html == null ? null : EmailTemplate.compile(html, true));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Template de email inválido: " + nome + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    private static String ler(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            String conteudo = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            return conteudo.endsWith("\n") ? conteudo.substring(0, conteudo.length() - 1) : conteudo;
+        }
+    }
+}
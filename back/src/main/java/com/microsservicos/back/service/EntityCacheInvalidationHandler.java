@@ -0,0 +1,114 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.config.ReadReplicaProperties;
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.domain.Usuario;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Aplica ao cache de segundo nível do Hibernate as invalidações de entidades alteradas em outras
+ * instâncias. Alterar um evento também descarta a consulta de eventos ativos em cache, já que a
+ * região de timestamps que a invalidaria é local.
+ *
+ * Com réplicas de leitura, uma leitura logo após a invalidação pode vir de uma réplica que ainda não
+ * aplicou a alteração e devolver a versão antiga ao cache. Por isso a invalidação é repetida depois
+ * da janela de atraso aceita nas réplicas (max-lag-seconds mais o intervalo da verificação de atraso).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EntityCacheInvalidationHandler implements CacheInvalidationHandler {
+
+    public static final String EVENT = "event";
+    public static final String USUARIO = "usuario";
+
+    private static final String REGIAO_EVENTOS_ATIVOS = "event-ativos";
+    private static final Map<String, Class<?>> ENTIDADES = Map.of(EVENT, Event.class, USUARIO, Usuario.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ReadReplicaProperties readReplicaProperties;
+
+    /** Repetição das invalidações após a janela de atraso das réplicas; null sem réplicas */
+    private ScheduledExecutorService reinvalidacoes;
+    private long atrasoReinvalidacaoMs;
+
+    @PostConstruct
+    void init() {
+        if (readReplicaProperties.isEnabled()) {
+            atrasoReinvalidacaoMs = readReplicaProperties.getMaxLagSeconds() * 1000 + readReplicaProperties.getLagCheckMs();
+            reinvalidacoes = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+                Thread thread = new Thread(tarefa, "entity-cache-reinvalidation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (reinvalidacoes != null) {
+            reinvalidacoes.shutdownNow();
+        }
+    }
+
+    @Override
+    public Set<String> tiposInvalidacao() {
+        return ENTIDADES.keySet();
+    }
+
+    @Override
+    public void invalidar(String tipo, String chave) {
+        evictar(tipo, chave);
+        reagendar(() -> evictar(tipo, chave));
+    }
+
+    @Override
+    public void invalidarTudo() {
+        cache().evictAllRegions();
+        reagendar(() -> cache().evictAllRegions());
+    }
+
+    private void evictar(String tipo, String chave) {
+        Cache cache = cache();
+        Class<?> entidade = ENTIDADES.get(tipo);
+        if (CacheInvalidationBus.TODAS.equals(chave)) {
+            cache.evictEntityData(entidade);
+        } else {
+            cache.evictEntityData(entidade, UUID.fromString(chave));
+        }
+        if (EVENT.equals(tipo)) {
+            cache.evictQueryRegion(REGIAO_EVENTOS_ATIVOS);
+        }
+    }
+
+    private void reagendar(Runnable invalidacao) {
+        if (reinvalidacoes == null) {
+            return;
+        }
+        reinvalidacoes.schedule(() -> {
+            try {
+                invalidacao.run();
+            } catch (Exception e) {
+                log.warn("Erro ao repetir invalidação do cache de segundo nível: {}", e.getMessage());
+            }
+        }, atrasoReinvalidacaoMs, TimeUnit.MILLISECONDS);
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    }
+}
@@ -1,8 +1,10 @@
 package com.microsservicos.back.service;
 
+import com.microsservicos.back.domain.DashboardChangeType;
 import com.microsservicos.back.domain.Event;
 import com.microsservicos.back.domain.EventAttendance;
 import com.microsservicos.back.domain.EventInscription;
+import com.microsservicos.back.domain.RosterChangeType;
 import com.microsservicos.back.domain.Usuario;
 import com.microsservicos.back.dto.CadastroRapidoUsuarioDTO;
 import com.microsservicos.back.dto.EventoInscritoDTO;
@@ -35,6 +37,10 @@ public class EventAttendanceService {
     private final PasswordEncoder passwordEncoder;
     private final UsuarioService usuarioService;
     private final SessionUtils sessionUtils;
+    private final RosterChangeService rosterChangeService;
+    private final AttendanceDashboardService attendanceDashboardService;
+    private final EmailService emailService;
+    private final EventAttendanceStatsService eventAttendanceStatsService;
 
     @Transactional(readOnly = true)
     public List<UsuarioResponseDTO> listarUsuarios() {
@@ -118,19 +124,18 @@ public class EventAttendanceService {
                 .findByUsuarioAndEvent(usuario, event)
                 .orElseThrow(() -> new RuntimeException("Usuário não está inscrito neste evento"));
         
-        // Buscar ou criar registro de presença
+        // Buscar ou criar registro de presença, travado contra a sincronização e a fila de check-ins
+        eventAttendanceRepository.garantirETravar(event.getId(), List.of(usuario.getId()));
         EventAttendance attendance = eventAttendanceRepository
                 .findByUsuarioAndEvent(usuario, event)
-                .orElse(EventAttendance.builder()
-                        .usuario(usuario)
-                        .event(event)
-                        .presente(false)
-                        .build());
+                .orElseThrow(() -> new RuntimeException("Registro de presença não encontrado"));
         
         // Atualizar presença
+        boolean estavaPresente = Boolean.TRUE.equals(attendance.getPresente());
         attendance.setPresente(dto.getPresente() != null ? dto.getPresente() : true);
         
         // Se está marcando como presente, registrar quem confirmou e quando
+        attendance.setLastWriteAt(LocalDateTime.now());
         if (attendance.getPresente()) {
             Usuario admin = sessionUtils.getUsuarioLogado();
             attendance.setConfirmadoPor(admin.getId());
@@ -142,6 +147,16 @@ public class EventAttendanceService {
         }
         
         attendance = eventAttendanceRepository.save(attendance);
+        rosterChangeService.registrar(event.getId(), usuario.getId(), RosterChangeType.PRESENCA);
+        int deltaPresentes = (attendance.getPresente() ? 1 : 0) - (estavaPresente ? 1 : 0);
+        eventAttendanceStatsService.atualizar(event.getId(), 0, deltaPresentes);
+        attendanceDashboardService.publicar(event.getId(), DashboardChangeType.PRESENCA, usuario.getId(),
+                attendance.getPresente());
+
+        // Enviar email de confirmação de presença apenas quando a presença passa a ser confirmada
+        if (deltaPresentes > 0) {
+            emailService.enviarEmailConfirmacaoPresenca(usuario, event);
+        }
         
         // Retornar DTO com informações atualizadas
         return EventoInscritoDTO.builder()
@@ -192,8 +207,15 @@ public class EventAttendanceService {
                 .presente(true)
                 .confirmadoPor(admin.getId())
                 .confirmedAt(LocalDateTime.now())
+                .lastWriteAt(LocalDateTime.now())
                 .build();
         eventAttendanceRepository.save(attendance);
+        rosterChangeService.registrar(event.getId(), usuario.getId(), RosterChangeType.PRESENCA);
+        eventAttendanceStatsService.atualizar(event.getId(), 1, 1);
+        attendanceDashboardService.publicar(event.getId(), DashboardChangeType.PRESENCA, usuario.getId(), true);
+
+        // Enviar email de boas-vindas com a presença confirmada
+        emailService.enviarEmailCadastroRapidoComPresenca(usuario, event);
         
         return usuarioService.toResponseDTO(usuario);
     }
@@ -0,0 +1,85 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.dto.EstatisticaCategoriaDTO;
+import com.microsservicos.back.dto.EstatisticaEventoDTO;
+import com.microsservicos.back.dto.RelatorioPresencaDTO;
+import com.microsservicos.back.repository.EventAttendanceStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class EventAttendanceStatsService {
+
+    private static final String SEM_CATEGORIA = "Sem categoria";
+
+    private final EventAttendanceStatsRepository eventAttendanceStatsRepository;
+
+    /**
+     * Atualiza os contadores do evento na mesma transação da escrita de inscrição/presença.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void atualizar(UUID eventId, long deltaInscritos, long deltaPresentes) {
+        if (deltaInscritos == 0 && deltaPresentes == 0) {
+            return;
+        }
+        eventAttendanceStatsRepository.incrementar(eventId, deltaInscritos, deltaPresentes);
+    }
+
+    @Transactional(readOnly = true)
+    public RelatorioPresencaDTO gerarRelatorio(String categoria, LocalDateTime inicio, LocalDateTime fim) {
+        List<EstatisticaEventoDTO> eventos = eventAttendanceStatsRepository.findEstatisticas(categoria, inicio, fim);
+
+        Map<String, EstatisticaCategoriaDTO> porCategoria = new TreeMap<>();
+        EstatisticaCategoriaDTO total = vazia("Total");
+        for (EstatisticaEventoDTO evento : eventos) {
+            String nomeCategoria = evento.getCategoria() != null ? evento.getCategoria() : SEM_CATEGORIA;
+            acumular(porCategoria.computeIfAbsent(nomeCategoria, this::vazia), evento);
+            acumular(total, evento);
+        }
+
+        porCategoria.values().forEach(this::calcularTaxas);
+        calcularTaxas(total);
+
+        return RelatorioPresencaDTO.builder()
+                .categoria(categoria)
+                .inicio(inicio)
+                .fim(fim)
+                .total(total)
+                .categorias(List.copyOf(porCategoria.values()))
+                .eventos(eventos)
+                .build();
+    }
+
+    private EstatisticaCategoriaDTO vazia(String categoria) {
+        return EstatisticaCategoriaDTO.builder()
+                .categoria(categoria)
+                .eventos(0L)
+                .inscritos(0L)
+                .presentes(0L)
+                .ausentes(0L)
+                .build();
+    }
+
+    private void acumular(EstatisticaCategoriaDTO agregado, EstatisticaEventoDTO evento) {
+        agregado.setEventos(agregado.getEventos() + 1);
+        agregado.setInscritos(agregado.getInscritos() + evento.getInscritos());
+        agregado.setPresentes(agregado.getPresentes() + evento.getPresentes());
+        agregado.setAusentes(agregado.getAusentes() + evento.getAusentes());
+    }
+
+    private void calcularTaxas(EstatisticaCategoriaDTO agregado) {
+        if (agregado.getInscritos() > 0) {
+            agregado.setTaxaPresenca((double) agregado.getPresentes() / agregado.getInscritos());
+            agregado.setTaxaAusencia((double) agregado.getAusentes() / agregado.getInscritos());
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.microsservicos.back.service;
 
+import com.microsservicos.back.domain.DashboardChangeType;
 import com.microsservicos.back.domain.Event;
 import com.microsservicos.back.domain.EventAttendance;
 import com.microsservicos.back.domain.EventInscription;
+import com.microsservicos.back.domain.RosterChangeType;
 import com.microsservicos.back.domain.Usuario;
 import com.microsservicos.back.dto.EventResponseDTO;
 import com.microsservicos.back.repository.EventAttendanceRepository;
@@ -13,6 +15,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -27,6 +30,10 @@ public class EventInscriptionService {
     private final SessionUtils sessionUtils;
     private final EventService eventService;
     private final EmailService emailService;
+    private final RosterChangeService rosterChangeService;
+    private final CheckInTokenService checkInTokenService;
+    private final AttendanceDashboardService attendanceDashboardService;
+    private final EventAttendanceStatsService eventAttendanceStatsService;
 
     @Transactional
     public EventResponseDTO inscreverEmEvento(UUID eventId) {
@@ -57,12 +64,17 @@ public class EventInscriptionService {
                 .event(event)
                 .build();
         
-        eventInscriptionRepository.save(inscription);
+        inscription = eventInscriptionRepository.save(inscription);
+        rosterChangeService.registrar(event.getId(), usuario.getId(), RosterChangeType.INSCRICAO);
+        eventAttendanceStatsService.atualizar(event.getId(), 1, 0);
+        attendanceDashboardService.publicar(event.getId(), DashboardChangeType.INSCRICAO, usuario.getId(), false);
         
         // Enviar email de confirmação de inscrição
         emailService.enviarEmailConfirmacaoInscricao(usuario, event);
         
-        return eventService.toResponseDTO(event);
+        EventResponseDTO response = eventService.toResponseDTO(event);
+        response.setCheckInToken(checkInTokenService.emitir(inscription));
+        return response;
     }
 
     @Transactional(readOnly = true)
@@ -72,9 +84,12 @@ public class EventInscriptionService {
         List<EventInscription> inscriptions = eventInscriptionRepository.findByUsuario(usuario);
         
         return inscriptions.stream()
-                .map(EventInscription::getEvent)
-                .filter(Event::getAtivo) // Apenas eventos ativos
-                .map(eventService::toResponseDTO)
+                .filter(inscription -> inscription.getEvent().getAtivo()) // Apenas eventos ativos
+                .map(inscription -> {
+                    EventResponseDTO response = eventService.toResponseDTO(inscription.getEvent());
+                    response.setCheckInToken(checkInTokenService.emitir(inscription));
+                    return response;
+                })
                 .collect(Collectors.toList());
     }
 
@@ -88,8 +103,27 @@ public class EventInscriptionService {
         EventInscription inscription = eventInscriptionRepository
                 .findByUsuarioAndEvent(usuario, event)
                 .orElseThrow(() -> new RuntimeException("Inscrição não encontrada"));
+
+        // Uma presença confirmada deixa de contar junto com a inscrição; a linha é mantida como
+        // ausente, pois certificados já emitidos a referenciam
+        boolean presente = eventAttendanceRepository.findPresencaConfirmadaParaEmissao(event.getId(), usuario.getId())
+                .map(attendance -> {
+                    attendance.setPresente(false);
+                    attendance.setConfirmadoPor(null);
+                    attendance.setConfirmedAt(null);
+                    attendance.setLastWriteAt(LocalDateTime.now());
+                    return true;
+                })
+                .orElse(false);
         
         eventInscriptionRepository.delete(inscription);
+        checkInTokenService.revogar(inscription);
+        rosterChangeService.registrar(event.getId(), usuario.getId(), RosterChangeType.CANCELAMENTO);
+        eventAttendanceStatsService.atualizar(event.getId(), -1, presente ? -1 : 0);
+        if (presente) {
+            attendanceDashboardService.publicar(event.getId(), DashboardChangeType.PRESENCA, usuario.getId(), false);
+        }
+        attendanceDashboardService.publicar(event.getId(), DashboardChangeType.CANCELAMENTO, usuario.getId(), null);
         
         // Enviar email de cancelamento de inscrição
         emailService.enviarEmailCancelamentoInscricao(usuario, event);
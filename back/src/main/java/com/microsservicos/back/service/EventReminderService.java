@@ -0,0 +1,271 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.repository.EventRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Campanhas de lembrete por email antes do início dos eventos.
+ *
+ * Para cada janela de antecedência (ex.: 24 h e 1 h) são selecionados os eventos ativos que começam
+ * entre a janela menor seguinte e ela, de modo que cada inscrito receba só o lembrete mais próximo
+ * do momento em que se inscreveu. As inscrições são lidas em páginas por keyset em (created_at, id),
+ * nunca o roster inteiro; o cursor de cada campanha fica em memória e continua avançando para pegar
+ * inscrições novas. A tabela event_reminder_sent garante um lembrete por (evento, janela, usuário),
+ * mesmo com várias instâncias ou após reinício (quando a leitura recomeça do início).
+ *
+ * Um limite de taxa global (token bucket no banco, somando todas as instâncias) evita que uma campanha
+ * grande encha a outbox de uma vez e atrase os emails transacionais. Sem permissões, a execução espera
+ * o balde reabastecer e continua, então o envio segue na taxa configurada; ela termina quando não há
+ * mais pendentes ou quando chega a hora da próxima execução (poll-ms), que retoma de onde parou.
+ *
+ * As janelas são processadas da menor para a maior e, em cada uma, os eventos mais próximos primeiro:
+ * uma campanha grande de 24 h não atrasa os lembretes de 1 h de eventos que estão para começar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventReminderService {
+
+    private static final String BALDE = "event-reminder";
+
+    /** Menor UUID na ordenação do PostgreSQL (comparação byte a byte) */
+    private static final UUID UUID_MINIMO = new UUID(0L, 0L);
+
+    private static final String SQL_PAGINA =
+            "SELECT ei.id, ei.created_at, u.id, u.name, u.email " +
+            "FROM event_inscription ei " +
+            "JOIN usuario u ON u.id = ei.usuario_id " +
+            "WHERE ei.event_id = ? AND (ei.created_at, ei.id) > (?, ?) " +
+            "AND u.ativo = true " +
+            "AND NOT EXISTS (SELECT 1 FROM event_reminder_sent r " +
+            "                WHERE r.event_id = ei.event_id AND r.janela_minutos = ? AND r.usuario_id = ei.usuario_id) " +
+            "ORDER BY ei.created_at, ei.id " +
+            "LIMIT ?";
+
+    private static final String SQL_REGISTRAR =
+            "INSERT INTO event_reminder_sent (event_id, janela_minutos, usuario_id) " +
+            "SELECT ?, ?, unnest(?::uuid[]) " +
+            "ON CONFLICT DO NOTHING " +
+            "RETURNING usuario_id";
+
+    private final EventRepository eventRepository;
+    private final EmailService emailService;
+    private final RateLimitBucketService rateLimitBucketService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    /** Antecedências dos lembretes, em minutos */
+    @Value("${event.reminder.windows-minutes:1440,60}")
+    private int[] janelasMinutos;
+
+    @Value("${event.reminder.poll-ms:60000}")
+    private long pollMs;
+
+    @Value("${event.reminder.page-size:500}")
+    private int pageSize;
+
+    /** Lembretes por segundo somando todas as instâncias */
+    @Value("${event.reminder.max-per-second:20}")
+    private double maxPerSecond;
+
+    @Value("${event.reminder.burst:500}")
+    private long burst;
+
+    /** Margem na releitura das inscrições para cobrir transações que commitaram fora de ordem */
+    @Value("${event.reminder.overlap-seconds:60}")
+    private long overlapSeconds;
+
+    private volatile boolean ativo = true;
+
+    /** (evento, janela) -> posição da última inscrição lida */
+    private final Map<Campanha, Cursor> cursores = new ConcurrentHashMap<>();
+
+    private record Campanha(UUID eventId, int janelaMinutos) {
+    }
+
+    private record Cursor(LocalDateTime createdAt, UUID id) {
+    }
+
+    private record Inscrito(UUID inscricaoId, LocalDateTime createdAt, UUID usuarioId, String nome, String email) {
+    }
+
+    @PostConstruct
+    void init() {
+        janelasMinutos = Arrays.stream(janelasMinutos).sorted().toArray();
+    }
+
+    /** Interrompe a espera por permissões no início do desligamento, antes de o agendador aguardar os jobs */
+    @EventListener(ContextClosedEvent.class)
+    void shutdown() {
+        ativo = false;
+    }
+
+    @Scheduled(fixedDelayString = "${event.reminder.poll-ms:60000}")
+    public void enviarLembretes() {
+        LocalDateTime agora = LocalDateTime.now();
+        long prazo = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pollMs);
+        Set<Campanha> ativas = new HashSet<>();
+        try {
+            for (int i = 0; i < janelasMinutos.length; i++) {
+                int janela = janelasMinutos[i];
+                int janelaAnterior = i > 0 ? janelasMinutos[i - 1] : 0;
+                List<Event> eventos = eventRepository.findAtivosComInicioEntre(
+                        agora.plusMinutes(janelaAnterior), agora.plusMinutes(janela));
+
+                for (Event event : eventos) {
+                    Campanha campanha = new Campanha(event.getId(), janela);
+                    ativas.add(campanha);
+                    if (!processar(campanha, event, prazo)) {
+                        // Prazo da execução esgotado: o restante fica para a próxima
+                        return;
+                    }
+                }
+            }
+            // Descarta cursores de eventos que já saíram de todas as janelas
+            cursores.keySet().retainAll(ativas);
+        } catch (Exception e) {
+            log.error("Erro ao enviar lembretes de eventos: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return false se o prazo da execução acabou antes do fim da campanha
+     */
+    private boolean processar(Campanha campanha, Event event, long prazo) {
+        Cursor cursor = cursores.get(campanha);
+        Cursor inicio = cursor == null
+                ? new Cursor(LocalDateTime.of(1970, 1, 1, 0, 0), UUID_MINIMO)
+                : new Cursor(cursor.createdAt().minusSeconds(overlapSeconds), UUID_MINIMO);
+        Cursor maisRecente = cursor;
+        int enfileirados = 0;
+
+        try {
+            while (true) {
+                List<Inscrito> pagina = buscarPagina(campanha, inicio, pageSize);
+                if (pagina.isEmpty()) {
+                    return true;
+                }
+
+                int permitidos = aguardarPermissoes(pagina.size(), prazo);
+                if (permitidos == 0) {
+                    return false;
+                }
+                List<Inscrito> lote = pagina.subList(0, permitidos);
+                enfileirados += enfileirar(campanha, event, lote);
+                Inscrito ultimo = lote.get(lote.size() - 1);
+                inicio = new Cursor(ultimo.createdAt(), ultimo.inscricaoId());
+                if (maisRecente == null || ultimo.createdAt().isAfter(maisRecente.createdAt())) {
+                    maisRecente = inicio;
+                }
+
+                if (permitidos == pagina.size() && pagina.size() < pageSize) {
+                    return true;
+                }
+            }
+        } finally {
+            if (maisRecente != null) {
+                cursores.put(campanha, maisRecente);
+            }
+            if (enfileirados > 0) {
+                log.info("{} lembrete(s) de {} min enfileirado(s) para o evento {}",
+                        enfileirados, campanha.janelaMinutos(), event.getNome());
+            }
+        }
+    }
+
+    /**
+     * Permissões do balde global para até {@code quantidade} lembretes. Com o balde vazio, espera o
+     * reabastecimento de cerca de um segundo de taxa e tenta de novo.
+     *
+     * @return permissões concedidas; 0 se o prazo acabou ou a aplicação está sendo desligada
+     */
+    private int aguardarPermissoes(int quantidade, long prazo) {
+        long esperaMs = Math.max(1L, (long) Math.ceil(1000.0 * Math.min(quantidade, Math.max(1.0, maxPerSecond)) / maxPerSecond));
+        while (ativo) {
+            int permitidos = rateLimitBucketService.tryAcquire(BALDE, maxPerSecond, burst, quantidade);
+            if (permitidos > 0) {
+                return permitidos;
+            }
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(esperaMs) > prazo) {
+                return 0;
+            }
+            try {
+                Thread.sleep(esperaMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private List<Inscrito> buscarPagina(Campanha campanha, Cursor depoisDe, int limite) {
+        return jdbcTemplate.query(SQL_PAGINA,
+                (rs, rowNum) -> new Inscrito(
+                        rs.getObject(1, UUID.class),
+                        rs.getTimestamp(2).toLocalDateTime(),
+                        rs.getObject(3, UUID.class),
+                        rs.getString(4),
+                        rs.getString(5)),
+                campanha.eventId(), Timestamp.valueOf(depoisDe.createdAt()), depoisDe.id(),
+                campanha.janelaMinutos(), limite);
+    }
+
+    /**
+     * Registra os lembretes e os grava na outbox na mesma transação; quem já tinha registro
+     * (outra instância chegou antes) é ignorado.
+     */
+    private int enfileirar(Campanha campanha, Event event, List<Inscrito> lote) {
+        Map<UUID, Inscrito> porUsuario = lote.stream()
+                .collect(Collectors.toMap(Inscrito::usuarioId, inscrito -> inscrito, (a, b) -> a));
+        String antecedencia = formatarAntecedencia(campanha.janelaMinutos());
+
+        Integer total = transactionTemplate.execute(status -> {
+            List<UUID> novos = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(SQL_REGISTRAR);
+                ps.setObject(1, campanha.eventId());
+                ps.setInt(2, campanha.janelaMinutos());
+                ps.setArray(3, connection.createArrayOf("uuid", porUsuario.keySet().toArray()));
+                return ps;
+            }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+
+            for (UUID usuarioId : novos) {
+                Inscrito inscrito = porUsuario.get(usuarioId);
+                emailService.enviarEmailLembreteEvento(usuarioId, inscrito.nome(), inscrito.email(), event, antecedencia);
+            }
+            return novos.size();
+        });
+        return total == null ? 0 : total;
+    }
+
+    static String formatarAntecedencia(int minutos) {
+        if (minutos % 60 != 0) {
+            return minutos + (minutos == 1 ? " minuto" : " minutos");
+        }
+        int horas = minutos / 60;
+        return horas + (horas == 1 ? " hora" : " horas");
+    }
+}
@@ -0,0 +1,54 @@
+package com.microsservicos.back.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Token bucket global, guardado na tabela rate_limit_bucket e compartilhado por todas as instâncias.
+ *
+ * O upsert reabastece o balde com o relógio do banco e mantém a linha bloqueada até o commit, então
+ * instâncias concorrentes consomem o mesmo saldo uma de cada vez. Como o {@link com.microsservicos.back.util.RateLimiter}
+ * local, não bloqueia: quem chama recebe quantas permissões houver e decide o que fazer com o restante.
+ */
+@Service
+@RequiredArgsConstructor
+public class RateLimitBucketService {
+
+    private static final String SQL_REABASTECER =
+            "INSERT INTO rate_limit_bucket AS b (nome, tokens, atualizado_em) " +
+            "VALUES (?, ?, clock_timestamp()) " +
+            "ON CONFLICT (nome) DO UPDATE SET " +
+            "tokens = LEAST(?, b.tokens + EXTRACT(EPOCH FROM (clock_timestamp() - b.atualizado_em)) * ?), " +
+            "atualizado_em = clock_timestamp() " +
+            "RETURNING tokens";
+
+    private static final String SQL_CONSUMIR =
+            "UPDATE rate_limit_bucket SET tokens = tokens - ? WHERE nome = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Em transação própria, para que o bloqueio da linha não dure a transação de quem chamou.
+     *
+     * @param permitsPerSecond taxa sustentada somando todas as instâncias
+     * @param burst            permissões acumuladas no máximo (tamanho do balde)
+     * @return permissões concedidas, entre 0 e {@code requested}
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public int tryAcquire(String nome, double permitsPerSecond, long burst, int requested) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Taxa e burst devem ser positivos");
+        }
+        Double disponivel = jdbcTemplate.queryForObject(SQL_REABASTECER, Double.class,
+                nome, (double) burst, (double) burst, permitsPerSecond);
+
+        int concedidas = (int) Math.min(requested, Math.floor(disponivel == null ? 0 : disponivel));
+        if (concedidas > 0) {
+            jdbcTemplate.update(SQL_CONSUMIR, concedidas, nome);
+        }
+        return concedidas;
+    }
+}
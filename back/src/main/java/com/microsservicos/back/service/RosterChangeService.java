@@ -0,0 +1,43 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.EventRosterChange;
+import com.microsservicos.back.domain.RosterChangeType;
+import com.microsservicos.back.repository.EventRosterChangeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class RosterChangeService {
+
+    private final EventRosterChangeRepository eventRosterChangeRepository;
+
+    /**
+     * Registra uma alteração no roster do evento na mesma transação da escrita de negócio,
+     * alimentando o cursor de sincronização dos dispositivos de check-in.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(UUID eventId, UUID usuarioId, RosterChangeType tipo) {
+        eventRosterChangeRepository.save(EventRosterChange.builder()
+                .eventId(eventId)
+                .usuarioId(usuarioId)
+                .tipo(tipo)
+                .build());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(UUID eventId, Collection<UUID> usuarioIds, RosterChangeType tipo) {
+        eventRosterChangeRepository.saveAll(usuarioIds.stream()
+                .map(usuarioId -> EventRosterChange.builder()
+                        .eventId(eventId)
+                        .usuarioId(usuarioId)
+                        .tipo(tipo)
+                        .build())
+                .toList());
+    }
+}
@@ -1,5 +1,6 @@
 package com.microsservicos.back.service;
 
+import com.microsservicos.back.config.AsyncConfig;
 import com.microsservicos.back.domain.UserLog;
 import com.microsservicos.back.domain.Usuario;
 import com.microsservicos.back.dto.UserLogDTO;
@@ -27,7 +28,7 @@ public class UserLogService {
     /**
      * Registra uma ação do usuário de forma assíncrona
      */
-    @Async
+    @Async(AsyncConfig.AUDIT_EXECUTOR)
     @Transactional
     public void logAction(Usuario usuario, String action, String entityType, UUID entityId, 
                          Map<String, Object> details, HttpServletRequest request) {
@@ -55,7 +56,7 @@ public class UserLogService {
     /**
      * Versão simplificada sem HttpServletRequest
      */
-    @Async
+    @Async(AsyncConfig.AUDIT_EXECUTOR)
     @Transactional
     public void logAction(Usuario usuario, String action, String entityType, UUID entityId, 
                          Map<String, Object> details) {
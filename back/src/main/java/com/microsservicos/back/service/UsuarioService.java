@@ -17,6 +17,7 @@ public class UsuarioService {
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     @Transactional
     public UsuarioResponseDTO cadastrar(CadastroUsuarioDTO dto) {
@@ -97,6 +98,7 @@ public class UsuarioService {
         }
         
         usuario = usuarioRepository.save(usuario);
+        cacheInvalidationBus.publicar(EntityCacheInvalidationHandler.USUARIO, usuario.getId());
         return toResponseDTO(usuario);
     }
 
@@ -0,0 +1,346 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.DashboardChangeType;
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.domain.ImportRowStatus;
+import com.microsservicos.back.domain.Role;
+import com.microsservicos.back.domain.RosterChangeType;
+import com.microsservicos.back.dto.CadastroRapidoUsuarioDTO;
+import com.microsservicos.back.dto.ImportacaoLinhaResultadoDTO;
+import com.microsservicos.back.dto.ImportacaoLoteResultadoDTO;
+import com.microsservicos.back.repository.EventRepository;
+import com.microsservicos.back.util.UuidV7;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Importação em lote de cadastros rápidos (walk-ins) digitados após o evento.
+ *
+ * As linhas são lidas em streaming e processadas em blocos: cada bloco grava usuários, inscrições
+ * e presenças em uma transação própria, sem carregar o arquivo nem mais de um bloco de linhas em
+ * memória. O relatório, porém, tem um resultado por linha e os emails do arquivo são guardados para
+ * detectar repetições, então essa parte cresce com o número de linhas. Os emails de boas-vindas vão
+ * para a outbox na mesma transação do bloco, como no cadastro rápido individual.
+ *
+ * Um registro malformado (ex.: tipo errado no JSON ou aspas não fechadas no CSV) é reportado como
+ * INVALIDO e a leitura continua; só um erro que impede ler o restante (ex.: JSON sintaticamente
+ * quebrado) encerra a importação, mantendo os blocos já gravados no relatório. Emails já cadastrados,
+ * inclusive concorrentemente, são ignorados pelo ON CONFLICT sem desfazer o bloco.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WalkInImportService {
+
+    private static final String SENHA_TEMPORARIA = "senhatemporaria";
+
+    /** Um comando por bloco; devolve só os ids inseridos, os emails já cadastrados ficam de fora */
+    private static final String INSERT_USUARIOS =
+            "INSERT INTO usuario (id, name, email, password, ativo, role, created_at, updated_at) " +
+            "SELECT u.id, u.name, u.email, ?, true, ?, ?, ? " +
+            "FROM unnest(?::uuid[], ?::varchar[], ?::varchar[]) AS u(id, name, email) " +
+            "ON CONFLICT (email) DO NOTHING " +
+            "RETURNING id";
+    private static final String INSERT_INSCRICAO =
+            "INSERT INTO event_inscription (id, usuario_id, event_id, created_at) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_PRESENCA =
+            "INSERT INTO event_attendance (id, usuario_id, event_id, presente, confirmado_por, created_at, confirmed_at, last_write_at) " +
+            "VALUES (?, ?, ?, true, ?, ?, ?, ?)";
+
+    private final EventRepository eventRepository;
+    private final RosterChangeService rosterChangeService;
+    private final AttendanceDashboardService attendanceDashboardService;
+    private final EventAttendanceStatsService eventAttendanceStatsService;
+    private final EmailService emailService;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    @Value("${walkin.import.chunk-size:500}")
+    private int chunkSize;
+
+    private record Linha(int numero, String nome, String email) {
+    }
+
+    public ImportacaoLoteResultadoDTO importar(UUID eventId, UUID confirmadoPor, Iterator<CadastroRapidoUsuarioDTO> registros) {
+        Event event = eventRepository.findById(eventId)
+                .orElseThrow(() -> new RuntimeException("Evento não encontrado"));
+
+        // A senha temporária é a mesma para todas as linhas: codifica uma única vez por importação
+        String senhaCodificada = passwordEncoder.encode(SENHA_TEMPORARIA);
+
+        List<ImportacaoLinhaResultadoDTO> resultados = new ArrayList<>();
+        Set<String> emailsDoArquivo = new HashSet<>();
+        List<Linha> bloco = new ArrayList<>(chunkSize);
+        int numero = 0;
+
+        while (true) {
+            try {
+                if (!registros.hasNext()) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                // Sem como localizar o próximo registro: o restante do arquivo não é lido
+                numero++;
+                resultados.add(resultado(numero, null, ImportRowStatus.INVALIDO, null,
+                        "Arquivo malformado a partir deste registro; o restante não foi lido (" + motivo(e) + ")"));
+                break;
+            }
+
+            numero++;
+            CadastroRapidoUsuarioDTO registro;
+            try {
+                registro = registros.next();
+            } catch (RuntimeException e) {
+                resultados.add(resultado(numero, null, ImportRowStatus.INVALIDO, null,
+                        "Registro malformado (" + motivo(e) + ")"));
+                continue;
+            }
+
+            String email = registro.getEmail() != null ? registro.getEmail().trim() : null;
+            registro.setEmail(email);
+            registro.setName(registro.getName() != null ? registro.getName().trim() : null);
+
+            Set<ConstraintViolation<CadastroRapidoUsuarioDTO>> violacoes = validator.validate(registro);
+            if (!violacoes.isEmpty()) {
+                resultados.add(resultado(numero, email, ImportRowStatus.INVALIDO, null, violacoes.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining("; "))));
+                continue;
+            }
+            if (!emailsDoArquivo.add(email)) {
+                resultados.add(resultado(numero, email, ImportRowStatus.DUPLICADO, null, "Email repetido no arquivo"));
+                continue;
+            }
+
+            bloco.add(new Linha(numero, registro.getName(), email));
+            if (bloco.size() >= chunkSize) {
+                resultados.addAll(gravarBloco(event, confirmadoPor, senhaCodificada, bloco));
+                bloco.clear();
+            }
+        }
+        if (!bloco.isEmpty()) {
+            resultados.addAll(gravarBloco(event, confirmadoPor, senhaCodificada, bloco));
+        }
+
+        resultados.sort((a, b) -> Integer.compare(a.getLinha(), b.getLinha()));
+        int importados = (int) resultados.stream()
+                .filter(r -> r.getStatus() == ImportRowStatus.IMPORTADO)
+                .count();
+
+        log.info("Importação de cadastros rápidos no evento {}: {} linhas, {} importadas", eventId, numero, importados);
+
+        return ImportacaoLoteResultadoDTO.builder()
+                .eventId(eventId)
+                .total(numero)
+                .importados(importados)
+                .rejeitados(numero - importados)
+                .linhas(resultados)
+                .build();
+    }
+
+    private List<ImportacaoLinhaResultadoDTO> gravarBloco(Event event, UUID confirmadoPor, String senhaCodificada,
+                                                          List<Linha> bloco) {
+        UUID eventId = event.getId();
+        try {
+            return transactionTemplate.execute(status -> {
+                Map<UUID, Linha> porId = new LinkedHashMap<>();
+                for (Linha linha : bloco) {
+                    porId.put(UuidV7.randomUUID(), linha);
+                }
+                Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+
+                Set<UUID> inseridos = new HashSet<>(jdbcTemplate.query(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(INSERT_USUARIOS);
+                    ps.setString(1, senhaCodificada);
+                    ps.setString(2, Role.USER.name());
+                    ps.setTimestamp(3, agora);
+                    ps.setTimestamp(4, agora);
+                    ps.setArray(5, connection.createArrayOf("uuid", porId.keySet().toArray()));
+                    ps.setArray(6, connection.createArrayOf("varchar", porId.values().stream().map(Linha::nome).toArray()));
+                    ps.setArray(7, connection.createArrayOf("varchar", porId.values().stream().map(Linha::email).toArray()));
+                    return ps;
+                }, (rs, rowNum) -> rs.getObject(1, UUID.class)));
+
+                List<ImportacaoLinhaResultadoDTO> resultados = new ArrayList<>(bloco.size());
+                List<Object[]> inscricoes = new ArrayList<>();
+                List<Object[]> presencas = new ArrayList<>();
+                List<UUID> usuarioIds = new ArrayList<>();
+                porId.forEach((usuarioId, linha) -> {
+                    if (!inseridos.contains(usuarioId)) {
+                        resultados.add(resultado(linha.numero(), linha.email(), ImportRowStatus.DUPLICADO, null,
+                                "Email já cadastrado"));
+                        return;
+                    }
+                    inscricoes.add(new Object[]{UuidV7.randomUUID(), usuarioId, eventId, agora});
+                    presencas.add(new Object[]{UuidV7.randomUUID(), usuarioId, eventId, confirmadoPor, agora, agora, agora});
+                    usuarioIds.add(usuarioId);
+                    resultados.add(resultado(linha.numero(), linha.email(), ImportRowStatus.IMPORTADO, usuarioId, null));
+                });
+
+                if (!usuarioIds.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_INSCRICAO, inscricoes);
+                    jdbcTemplate.batchUpdate(INSERT_PRESENCA, presencas);
+                    rosterChangeService.registrar(eventId, usuarioIds, RosterChangeType.PRESENCA);
+                    eventAttendanceStatsService.atualizar(eventId, usuarioIds.size(), usuarioIds.size());
+                    attendanceDashboardService.publicar(eventId, DashboardChangeType.LOTE, null, true);
+                    for (UUID usuarioId : usuarioIds) {
+                        Linha linha = porId.get(usuarioId);
+                        emailService.enviarEmailCadastroRapidoComPresenca(usuarioId, linha.nome(), linha.email(), event);
+                    }
+                }
+                return resultados;
+            });
+        } catch (Exception e) {
+            String causa = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            log.error("Erro ao importar bloco de {} cadastros rápidos no evento {}: {}",
+                    bloco.size(), eventId, causa, e);
+            return bloco.stream()
+                    .map(linha -> resultado(linha.numero(), linha.email(), ImportRowStatus.ERRO, null,
+                            "Erro ao gravar o bloco (" + causa + "); reenvie a linha"))
+                    .toList();
+        }
+    }
+
+    /**
+     * Lê um CSV com as colunas nome e email (cabeçalho opcional), sem carregar o arquivo em memória.
+     * Uma linha malformada faz {@code next()} lançar IllegalArgumentException, mas a leitura segue
+     * na linha seguinte.
+     */
+    public Iterator<CadastroRapidoUsuarioDTO> lerCsv(BufferedReader reader) {
+        return new Iterator<>() {
+            private boolean iniciado;
+            private String proxima;
+
+            @Override
+            public boolean hasNext() {
+                if (!iniciado) {
+                    iniciado = true;
+                    proxima = lerLinha();
+                    if (proxima != null && ehCabecalho(proxima)) {
+                        proxima = lerLinha();
+                    }
+                }
+                return proxima != null;
+            }
+
+            @Override
+            public CadastroRapidoUsuarioDTO next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String atual = proxima;
+                proxima = lerLinha();
+
+                List<String> colunas = separarColunas(atual);
+                CadastroRapidoUsuarioDTO dto = new CadastroRapidoUsuarioDTO();
+                dto.setName(colunas.get(0));
+                dto.setEmail(colunas.size() > 1 ? colunas.get(1) : null);
+                return dto;
+            }
+
+            private String lerLinha() {
+                try {
+                    String linha;
+                    while ((linha = reader.readLine()) != null) {
+                        if (!linha.isBlank()) {
+                            return linha;
+                        }
+                    }
+                    return null;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private static boolean ehCabecalho(String linha) {
+        List<String> colunas;
+        try {
+            colunas = separarColunas(linha);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        String primeira = colunas.get(0).trim().toLowerCase();
+        return colunas.size() > 1 && (primeira.equals("nome") || primeira.equals("name"))
+                && colunas.get(1).trim().equalsIgnoreCase("email");
+    }
+
+    /**
+     * Separa uma linha CSV (vírgula ou ponto e vírgula), respeitando campos entre aspas.
+     *
+     * @throws IllegalArgumentException se uma aspa não for fechada
+     */
+    private static List<String> separarColunas(String linha) {
+        char separador = linha.indexOf(';') >= 0 && linha.indexOf(',') < 0 ? ';' : ',';
+        List<String> colunas = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (c == '"') {
+                if (entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else {
+                    entreAspas = !entreAspas;
+                }
+            } else if (c == separador && !entreAspas) {
+                colunas.add(atual.toString());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        if (entreAspas) {
+            throw new IllegalArgumentException("aspas não fechadas");
+        }
+        colunas.add(atual.toString());
+        return colunas;
+    }
+
+    /** Primeira linha da mensagem (as do Jackson trazem a localização nas seguintes) */
+    private static String motivo(Exception e) {
+        String mensagem = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        return mensagem == null ? e.getClass().getSimpleName() : mensagem.lines().findFirst().orElse(mensagem);
+    }
+
+    private static ImportacaoLinhaResultadoDTO resultado(int linha, String email, ImportRowStatus status,
+                                                         UUID usuarioId, String mensagem) {
+        return ImportacaoLinhaResultadoDTO.builder()
+                .linha(linha)
+                .email(email)
+                .status(status)
+                .usuarioId(usuarioId)
+                .mensagem(mensagem)
+                .build();
+    }
+}
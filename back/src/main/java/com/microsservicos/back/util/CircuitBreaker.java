@@ -0,0 +1,77 @@
+package com.microsservicos.back.util;
+
+import java.time.Clock;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Circuit breaker mínimo baseado em falhas consecutivas.
+ *
+ * FECHADO: chamadas passam; após {@code failureThreshold} falhas seguidas o circuito abre.
+ * ABERTO: chamadas são rejeitadas até {@code openDurationMs} expirar.
+ * SEMIABERTO: uma única chamada de teste passa; sucesso fecha o circuito, falha o reabre.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final Clock clock;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openedAt = -1;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this(failureThreshold, openDurationMs, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.clock = clock;
+    }
+
+    public State getState() {
+        if (openedAt < 0) {
+            return State.CLOSED;
+        }
+        return clock.millis() - openedAt >= openDurationMs ? State.HALF_OPEN : State.OPEN;
+    }
+
+    /**
+     * @return true se a chamada pode ser feita; o chamador deve reportar o resultado
+     */
+    public boolean tryAcquire() {
+        return switch (getState()) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> trialInFlight.compareAndSet(false, true);
+        };
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        openedAt = -1;
+        trialInFlight.set(false);
+    }
+
+    /**
+     * Libera a vaga de teste quando a chamada autorizada acabou não sendo feita.
+     */
+    public void release() {
+        trialInFlight.set(false);
+    }
+
+    public void onFailure() {
+        if (getState() == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            openedAt = clock.millis();
+        }
+        trialInFlight.set(false);
+    }
+}
@@ -0,0 +1,227 @@
+package com.microsservicos.back.util;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template de email compilado uma única vez em uma lista de nós.
+ *
+ * Sintaxe (subconjunto do Mustache):
+ * <ul>
+ *     <li>{@code {{nome}}}: valor da variável (vazio se ausente; escapado em templates HTML)</li>
+ *     <li>{@code {{{nome}}}}: valor da variável sem escape (para trechos de HTML montados pela aplicação)</li>
+ *     <li>{@code {{#nome}}...{{/nome}}}: trecho incluído apenas se a variável não for vazia</li>
+ *     <li>{@code {{^nome}}...{{/nome}}}: trecho incluído apenas se a variável for vazia</li>
+ * </ul>
+ *
+ * {@link #bind} aplica parte das variáveis e devolve um novo template com esses valores já
+ * embutidos como texto, o que permite renderizar uma vez o que é comum a muitos destinatários.
+ */
+public class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final String OPEN_RAW = "{{{";
+    private static final String CLOSE_RAW = "}}}";
+
+    private sealed interface Node permits Text, Variable, Section {
+    }
+
+    private record Text(String value) implements Node {
+    }
+
+    private record Variable(String name, boolean raw) implements Node {
+    }
+
+    private record Section(String name, boolean inverted, List<Node> children) implements Node {
+    }
+
+    private final List<Node> nodes;
+    private final boolean html;
+    private final int sizeHint;
+
+    private EmailTemplate(List<Node> nodes, boolean html) {
+        this.nodes = nodes;
+        this.html = html;
+        this.sizeHint = literalLength(nodes) + 64;
+    }
+
+    /**
+     * @param html se true, os valores das variáveis são escapados como HTML
+     * @throws IllegalArgumentException se uma tag estiver malformada ou uma seção não for fechada
+     */
+    public static EmailTemplate compile(String source, boolean html) {
+        Deque<Section> open = new ArrayDeque<>();
+        List<Node> root = new ArrayList<>();
+        List<Node> current = root;
+
+        int position = 0;
+        while (position < source.length()) {
+            int start = source.indexOf(OPEN, position);
+            if (start < 0) {
+                current.add(new Text(source.substring(position)));
+                break;
+            }
+            if (start > position) {
+                current.add(new Text(source.substring(position, start)));
+            }
+            if (source.startsWith(OPEN_RAW, start)) {
+                int end = source.indexOf(CLOSE_RAW, start + OPEN_RAW.length());
+                if (end < 0) {
+                    throw new IllegalArgumentException("Tag não fechada na posição " + start);
+                }
+                current.add(new Variable(source.substring(start + OPEN_RAW.length(), end).trim(), true));
+                position = end + CLOSE_RAW.length();
+                continue;
+            }
+
+            int end = source.indexOf(CLOSE, start + OPEN.length());
+            if (end < 0) {
+                throw new IllegalArgumentException("Tag não fechada na posição " + start);
+            }
+            String tag = source.substring(start + OPEN.length(), end).trim();
+            position = end + CLOSE.length();
+
+            if (tag.startsWith("#") || tag.startsWith("^")) {
+                Section section = new Section(tag.substring(1).trim(), tag.startsWith("^"), new ArrayList<>());
+                current.add(section);
+                open.push(section);
+                current = section.children();
+            } else if (tag.startsWith("/")) {
+                String name = tag.substring(1).trim();
+                if (open.isEmpty() || !open.peek().name().equals(name)) {
+                    throw new IllegalArgumentException("Fechamento inesperado da seção '" + name + "'");
+                }
+                open.pop();
+                current = open.isEmpty() ? root : open.peek().children();
+            } else if (tag.isEmpty()) {
+                throw new IllegalArgumentException("Tag vazia na posição " + start);
+            } else {
+                current.add(new Variable(tag, false));
+            }
+        }
+        if (!open.isEmpty()) {
+            throw new IllegalArgumentException("Seção '" + open.peek().name() + "' não foi fechada");
+        }
+        return new EmailTemplate(normalize(root), html);
+    }
+
+    public boolean isHtml() {
+        return html;
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder out = new StringBuilder(sizeHint);
+        render(nodes, values, out);
+        return out.toString();
+    }
+
+    /**
+     * Substitui as variáveis presentes em {@code values} (e resolve as seções que dependem delas),
+     * mantendo as demais para o {@link #render} final.
+     */
+    public EmailTemplate bind(Map<String, String> values) {
+        return new EmailTemplate(merge(bind(nodes, values)), html);
+    }
+
+    private void render(List<Node> nodes, Map<String, String> values, StringBuilder out) {
+        for (Node node : nodes) {
+            if (node instanceof Text text) {
+                out.append(text.value());
+            } else if (node instanceof Variable variable) {
+                String value = values.get(variable.name());
+                if (value != null) {
+                    out.append(variable.raw() ? value : escape(value));
+                }
+            } else if (node instanceof Section section) {
+                if (isEmpty(values.get(section.name())) == section.inverted()) {
+                    render(section.children(), values, out);
+                }
+            }
+        }
+    }
+
+    private List<Node> bind(List<Node> nodes, Map<String, String> values) {
+        List<Node> bound = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (node instanceof Variable variable && values.containsKey(variable.name())) {
+                String value = values.get(variable.name());
+                bound.add(new Text(value == null ? "" : variable.raw() ? value : escape(value)));
+            } else if (node instanceof Section section) {
+                if (values.containsKey(section.name())) {
+                    if (isEmpty(values.get(section.name())) == section.inverted()) {
+                        bound.addAll(bind(section.children(), values));
+                    }
+                } else {
+                    bound.add(new Section(section.name(), section.inverted(), merge(bind(section.children(), values))));
+                }
+            } else {
+                bound.add(node);
+            }
+        }
+        return bound;
+    }
+
+    private String escape(String value) {
+        return html ? HtmlUtils.htmlEscape(value, "UTF-8") : value;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static List<Node> normalize(List<Node> nodes) {
+        List<Node> normalized = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (node instanceof Section section) {
+                normalized.add(new Section(section.name(), section.inverted(), normalize(section.children())));
+            } else {
+                normalized.add(node);
+            }
+        }
+        return merge(normalized);
+    }
+
+    /**
+     * Junta textos adjacentes para que a renderização percorra o mínimo de nós.
+     */
+    private static List<Node> merge(List<Node> nodes) {
+        List<Node> merged = new ArrayList<>(nodes.size());
+        StringBuilder pending = null;
+        for (Node node : nodes) {
+            if (node instanceof Text text) {
+                if (pending == null) {
+                    pending = new StringBuilder();
+                }
+                pending.append(text.value());
+                continue;
+            }
+            if (pending != null) {
+                merged.add(new Text(pending.toString()));
+                pending = null;
+            }
+            merged.add(node);
+        }
+        if (pending != null && !pending.isEmpty()) {
+            merged.add(new Text(pending.toString()));
+        }
+        return List.copyOf(merged);
+    }
+
+    private static int literalLength(List<Node> nodes) {
+        int length = 0;
+        for (Node node : nodes) {
+            if (node instanceof Text text) {
+                length += text.value().length();
+            } else if (node instanceof Section section) {
+                length += literalLength(section.children());
+            }
+        }
+        return length;
+    }
+}
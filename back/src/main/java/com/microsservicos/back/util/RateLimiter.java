@@ -0,0 +1,40 @@
+package com.microsservicos.back.util;
+
+/**
+ * Token bucket não bloqueante: quem chama recebe quantas permissões houver disponíveis e decide
+ * o que fazer com o restante (normalmente, tentar de novo mais tarde).
+ */
+public class RateLimiter {
+
+    private final double permitsPerNano;
+    private final double burst;
+    private double available;
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond taxa sustentada
+     * @param burst            permissões acumuladas no máximo (tamanho do balde)
+     */
+    public RateLimiter(double permitsPerSecond, long burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Taxa e burst devem ser positivos");
+        }
+        this.permitsPerNano = permitsPerSecond / 1_000_000_000d;
+        this.burst = burst;
+        this.available = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * @return permissões concedidas, entre 0 e {@code requested}
+     */
+    public synchronized int tryAcquire(int requested) {
+        long now = System.nanoTime();
+        available = Math.min(burst, available + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+
+        int granted = (int) Math.min(requested, Math.floor(available));
+        available -= granted;
+        return granted;
+    }
+}
@@ -0,0 +1,50 @@
+package com.microsservicos.back.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * UUIDs versão 7 (RFC 9562): 48 bits de timestamp Unix em milissegundos seguidos de bits aleatórios.
+ *
+ * Chaves geradas em sequência ficam próximas na ordenação (inclusive na do PostgreSQL, byte a byte),
+ * então inserções vão para o fim do índice da chave primária em vez de espalhar por todas as páginas.
+ * Dentro do mesmo milissegundo os 12 bits {@code rand_a} são um contador iniciado em valor aleatório
+ * (método 1 da RFC): ids gerados nesta JVM são estritamente crescentes.
+ *
+ * Para entidades JPA use {@code @UuidGenerator(style = UuidGenerator.Style.VERSION_7)}; esta classe é
+ * para ids atribuídos pela aplicação em inserts JDBC.
+ */
+public final class UuidV7 {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_MAX = 0xFFF;
+
+    private static long lastMillis;
+    private static int counter;
+
+    private UuidV7() {
+    }
+
+    public static UUID randomUUID() {
+        long millis;
+        int sequence;
+        synchronized (UuidV7.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // Metade inferior do intervalo: sobra espaço para incrementar no mesmo milissegundo
+                counter = RANDOM.nextInt(COUNTER_MAX / 2 + 1);
+            } else if (++counter > COUNTER_MAX) {
+                // Contador esgotado (ou relógio voltou): avança o timestamp lógico
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            sequence = counter;
+        }
+
+        long mostSigBits = (millis << 16) | 0x7000L | sequence;
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
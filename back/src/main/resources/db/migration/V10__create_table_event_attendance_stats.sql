@@ -0,0 +1,26 @@
+-- Migration: Criar tabela de estatísticas de presença por evento
+-- Descrição: Contadores mantidos incrementalmente pelos caminhos de escrita de inscrição e presença,
+-- para que relatórios sejam O(eventos) e não O(participantes)
+
+CREATE TABLE IF NOT EXISTS event_attendance_stats (
+    event_id UUID PRIMARY KEY,
+    inscritos BIGINT NOT NULL DEFAULT 0,
+    presentes BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_event_attendance_stats_event FOREIGN KEY (event_id) REFERENCES event(id) ON DELETE CASCADE
+);
+
+-- Carga inicial a partir dos dados existentes
+INSERT INTO event_attendance_stats (event_id, inscritos, presentes, updated_at)
+SELECT e.id,
+       (SELECT COUNT(*) FROM event_inscription i WHERE i.event_id = e.id),
+       (SELECT COUNT(*) FROM event_attendance a WHERE a.event_id = e.id AND a.presente = true),
+       CURRENT_TIMESTAMP
+FROM event e
+ON CONFLICT (event_id) DO NOTHING;
+
+-- Comentários nas colunas
+COMMENT ON TABLE event_attendance_stats IS 'Estatísticas de inscrição e presença por evento, atualizadas transacionalmente';
+COMMENT ON COLUMN event_attendance_stats.inscritos IS 'Total de inscrições no evento';
+COMMENT ON COLUMN event_attendance_stats.presentes IS 'Total de registros de presença confirmada no evento';
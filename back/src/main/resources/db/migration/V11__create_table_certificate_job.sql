@@ -0,0 +1,33 @@
+-- Migration: Criar tabela de jobs de emissão de certificados
+-- Descrição: Fila durável da geração assíncrona de certificados; workers reivindicam jobs com FOR UPDATE SKIP LOCKED
+
+CREATE TABLE IF NOT EXISTS certificate_job (
+    id UUID PRIMARY KEY,
+    event_id UUID NOT NULL,
+    usuario_id UUID NOT NULL,
+    solicitado_por UUID NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    certificate_code VARCHAR(20),
+    erro VARCHAR(500),
+    tentativas INTEGER NOT NULL DEFAULT 0,
+    disponivel_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP,
+    CONSTRAINT fk_certificate_job_event FOREIGN KEY (event_id) REFERENCES event(id) ON DELETE CASCADE,
+    CONSTRAINT fk_certificate_job_usuario FOREIGN KEY (usuario_id) REFERENCES usuario(id) ON DELETE CASCADE
+);
+
+-- Busca de jobs prontos para processar (pendentes ou com lease expirado)
+CREATE INDEX idx_certificate_job_fila ON certificate_job(status, disponivel_em);
+
+-- No máximo um job ativo por presença: pedidos repetidos reaproveitam o job existente
+CREATE UNIQUE INDEX uk_certificate_job_ativo ON certificate_job(event_id, usuario_id)
+    WHERE status IN ('PENDENTE', 'PROCESSANDO');
+
+-- Comentários nas colunas
+COMMENT ON TABLE certificate_job IS 'Jobs de geração assíncrona de certificados';
+COMMENT ON COLUMN certificate_job.solicitado_por IS 'Usuário que pediu a emissão (usado para autenticar no serviço de certificados)';
+COMMENT ON COLUMN certificate_job.status IS 'PENDENTE, PROCESSANDO, CONCLUIDO ou FALHOU';
+COMMENT ON COLUMN certificate_job.disponivel_em IS 'A partir de quando o job pode ser reivindicado (backoff entre tentativas)';
+COMMENT ON COLUMN certificate_job.locked_until IS 'Fim do lease do worker que está processando o job';
@@ -0,0 +1,19 @@
+-- Migration: Criar sequence de códigos de certificado
+-- Descrição: Substitui o "último código + 1" (varredura ordenada e sujeita a corrida) por uma sequence.
+-- O incremento define o tamanho do bloco reservado por chamada: o backend Java distribui os valores
+-- do bloco em memória (hi-lo) e só volta ao banco quando o bloco acaba.
+
+CREATE SEQUENCE IF NOT EXISTS certificate_code_seq INCREMENT BY 50 START WITH 1;
+
+-- Continua a partir do maior número já emitido (em qualquer ano) para não colidir com códigos existentes
+SELECT setval(
+    'certificate_code_seq',
+    COALESCE((
+        SELECT MAX(CAST(split_part(certificate_code, '-', 3) AS BIGINT))
+        FROM certificate
+        WHERE certificate_code ~ '^CERT-[0-9]{4}-[0-9]+$'
+    ), 0) + 1,
+    false
+);
+
+COMMENT ON SEQUENCE certificate_code_seq IS 'Números dos códigos de certificado (CERT-YYYY-NNNNNN); cada nextval reserva um bloco do tamanho do incremento';
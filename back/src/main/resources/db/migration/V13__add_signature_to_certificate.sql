@@ -0,0 +1,14 @@
+-- Migration: Adicionar assinatura e revogação aos certificados
+-- Descrição: Token assinado (Ed25519) verificável offline com a chave pública e data de revogação
+
+ALTER TABLE certificate ADD COLUMN IF NOT EXISTS signed_token VARCHAR(200);
+ALTER TABLE certificate ADD COLUMN IF NOT EXISTS revoked_at TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_certificate_revoked_at ON certificate(revoked_at) WHERE revoked_at IS NOT NULL;
+
+ALTER TABLE certificate_job ADD COLUMN IF NOT EXISTS signed_token VARCHAR(200);
+
+-- Comentários nas colunas
+COMMENT ON COLUMN certificate.signed_token IS 'Payload compacto (código, usuário, evento, emissão) assinado com Ed25519';
+COMMENT ON COLUMN certificate.revoked_at IS 'Data e hora da revogação (nulo se o certificado é válido)';
+COMMENT ON COLUMN certificate_job.signed_token IS 'Token assinado do certificado emitido pelo job';
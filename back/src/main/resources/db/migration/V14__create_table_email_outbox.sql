@@ -0,0 +1,31 @@
+-- Migration: Criar tabela de saída de emails (outbox)
+-- Descrição: Emails são gravados na mesma transação da alteração de negócio; o dispatcher reivindica lotes com FOR UPDATE SKIP LOCKED
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id UUID PRIMARY KEY,
+    tipo VARCHAR(50) NOT NULL,
+    destinatario VARCHAR(255) NOT NULL,
+    assunto VARCHAR(255) NOT NULL,
+    corpo TEXT NOT NULL,
+    usuario_id UUID,
+    event_id UUID,
+    status VARCHAR(20) NOT NULL,
+    tentativas INTEGER NOT NULL DEFAULT 0,
+    erro VARCHAR(500),
+    disponivel_em TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    locked_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Busca de emails prontos para envio (pendentes ou com lease expirado)
+CREATE INDEX idx_email_outbox_fila ON email_outbox(status, disponivel_em);
+
+-- Comentários nas colunas
+COMMENT ON TABLE email_outbox IS 'Fila transacional de emails a enviar';
+COMMENT ON COLUMN email_outbox.tipo IS 'Tipo do email (confirmação de cadastro, inscrição, certificado, ...)';
+COMMENT ON COLUMN email_outbox.usuario_id IS 'Usuário destinatário, quando houver (sem FK: o email sobrevive à exclusão)';
+COMMENT ON COLUMN email_outbox.event_id IS 'Evento relacionado, quando houver';
+COMMENT ON COLUMN email_outbox.status IS 'PENDENTE, ENVIANDO, ENVIADO ou FALHOU';
+COMMENT ON COLUMN email_outbox.disponivel_em IS 'A partir de quando o email pode ser reivindicado (backoff entre tentativas)';
+COMMENT ON COLUMN email_outbox.locked_until IS 'Fim do lease do dispatcher que está enviando o email';
@@ -0,0 +1,7 @@
+-- Migration: Adicionar corpo HTML à outbox de emails
+-- Descrição: Emails passam a ser gerados por templates com variantes texto e HTML
+
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS corpo_html TEXT;
+
+COMMENT ON COLUMN email_outbox.corpo IS 'Corpo em texto puro (também usado como alternativa ao HTML)';
+COMMENT ON COLUMN email_outbox.corpo_html IS 'Corpo em HTML, quando o template tiver essa variante';
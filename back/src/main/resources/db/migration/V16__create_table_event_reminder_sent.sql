@@ -0,0 +1,19 @@
+-- Migration: Criar tabela de lembretes de evento enviados
+-- Descrição: Garante no máximo um lembrete por (evento, janela de antecedência, usuário), mesmo com várias instâncias
+
+CREATE TABLE IF NOT EXISTS event_reminder_sent (
+    event_id UUID NOT NULL,
+    janela_minutos INTEGER NOT NULL,
+    usuario_id UUID NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT pk_event_reminder_sent PRIMARY KEY (event_id, janela_minutos, usuario_id),
+    CONSTRAINT fk_event_reminder_sent_event FOREIGN KEY (event_id) REFERENCES event(id) ON DELETE CASCADE,
+    CONSTRAINT fk_event_reminder_sent_usuario FOREIGN KEY (usuario_id) REFERENCES usuario(id) ON DELETE CASCADE
+);
+
+-- Paginação keyset das inscrições de um evento por (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_event_inscription_event_created ON event_inscription(event_id, created_at, id);
+
+-- Comentários nas colunas
+COMMENT ON TABLE event_reminder_sent IS 'Lembretes de evento já enfileirados (idempotência das campanhas)';
+COMMENT ON COLUMN event_reminder_sent.janela_minutos IS 'Antecedência do lembrete em minutos (ex.: 1440 para 24 h)';
@@ -0,0 +1,13 @@
+-- Migration: Agrupamento de notificações por destinatário na outbox de emails
+-- Descrição: Emails não urgentes esperam uma janela curta e são enviados juntos em um resumo
+
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS urgente BOOLEAN NOT NULL DEFAULT false;
+ALTER TABLE email_outbox ADD COLUMN IF NOT EXISTS agrupado_em UUID;
+
+-- Busca dos emails pendentes de um destinatário que podem entrar no resumo
+CREATE INDEX IF NOT EXISTS idx_email_outbox_destinatario_pendente ON email_outbox(destinatario)
+    WHERE status = 'PENDENTE' AND urgente = false;
+
+COMMENT ON COLUMN email_outbox.status IS 'PENDENTE, ENVIANDO, ENVIADO, AGRUPADO ou FALHOU';
+COMMENT ON COLUMN email_outbox.urgente IS 'Emails urgentes (ex.: certificados) não esperam a janela de agrupamento';
+COMMENT ON COLUMN email_outbox.agrupado_em IS 'Email de resumo que incorporou este email (status AGRUPADO)';
@@ -0,0 +1,27 @@
+-- Migration: Chaves primárias UUID versão 7 (ordenadas pelo tempo)
+-- Descrição: UUIDs v4 aleatórios espalham as inserções por todo o índice da chave primária (page splits e WAL
+-- a mais); v7 começa com o timestamp em milissegundos, então novas linhas vão para o fim do índice
+
+-- PostgreSQL 16 não tem uuidv7(): parte de um v4 (bits aleatórios e variante), troca os 48 primeiros bits
+-- pelo timestamp Unix em milissegundos e a versão 4 (0100) por 7 (0111)
+CREATE OR REPLACE FUNCTION uuid_generate_v7() RETURNS UUID AS $$
+    SELECT encode(
+        set_bit(
+            set_bit(
+                overlay(uuid_send(gen_random_uuid())
+                        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+                        FROM 1 FOR 6),
+                52, 1),
+            53, 1),
+        'hex')::UUID;
+$$ LANGUAGE SQL VOLATILE;
+
+COMMENT ON FUNCTION uuid_generate_v7() IS 'UUID versão 7 (RFC 9562): timestamp Unix em milissegundos seguido de bits aleatórios';
+
+-- Ids são gerados pela aplicação; o default vale para inserts feitos direto no banco
+ALTER TABLE usuario ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE event ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE event_inscription ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE event_attendance ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE certificate ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE user_log ALTER COLUMN id SET DEFAULT uuid_generate_v7();
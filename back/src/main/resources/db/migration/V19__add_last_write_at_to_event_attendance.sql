@@ -0,0 +1,9 @@
+-- Migration: Registrar o momento da última escrita aplicada na presença
+-- Descrição: O last-writer-wins da sincronização offline compara com esta coluna, preenchida em toda
+-- alteração (marcação ou desmarcação); confirmed_at fica nulo quando a presença é removida
+
+ALTER TABLE event_attendance ADD COLUMN IF NOT EXISTS last_write_at TIMESTAMP;
+
+UPDATE event_attendance SET last_write_at = COALESCE(confirmed_at, created_at) WHERE last_write_at IS NULL;
+
+COMMENT ON COLUMN event_attendance.last_write_at IS 'Momento da última alteração aplicada (relógio do dispositivo na sincronização offline)';
@@ -0,0 +1,18 @@
+-- Migration: Expiração das revogações de tokens de check-in
+-- Descrição: Depois do fim do evento (mais uma margem) a revogação não precisa mais ficar em memória;
+-- o merge da presença continua rejeitando inscrições canceladas
+
+ALTER TABLE checkin_token_revocation ADD COLUMN IF NOT EXISTS expires_at TIMESTAMP;
+
+UPDATE checkin_token_revocation r
+SET expires_at = e.data_hora_fim + INTERVAL '24 hours'
+FROM event e
+WHERE e.id = r.event_id AND r.expires_at IS NULL;
+
+UPDATE checkin_token_revocation SET expires_at = revoked_at + INTERVAL '24 hours' WHERE expires_at IS NULL;
+
+ALTER TABLE checkin_token_revocation ALTER COLUMN expires_at SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_checkin_token_revocation_expires_at ON checkin_token_revocation(expires_at);
+
+COMMENT ON COLUMN checkin_token_revocation.expires_at IS 'Fim do evento mais a margem; depois disso a revogação não é mais carregada';
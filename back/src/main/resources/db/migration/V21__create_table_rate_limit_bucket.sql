@@ -0,0 +1,15 @@
+-- Migration: Criar tabela de baldes de limite de taxa
+-- Descrição: Token bucket compartilhado por todas as instâncias (ex.: lembretes de evento por segundo);
+-- a linha é criada no primeiro uso e o reabastecimento usa o relógio do banco
+
+CREATE TABLE IF NOT EXISTS rate_limit_bucket (
+    nome VARCHAR(100) NOT NULL,
+    tokens DOUBLE PRECISION NOT NULL,
+    atualizado_em TIMESTAMP NOT NULL,
+    CONSTRAINT pk_rate_limit_bucket PRIMARY KEY (nome)
+);
+
+-- Comentários nas colunas
+COMMENT ON TABLE rate_limit_bucket IS 'Permissões disponíveis de cada limite de taxa global';
+COMMENT ON COLUMN rate_limit_bucket.tokens IS 'Permissões disponíveis no momento de atualizado_em';
+COMMENT ON COLUMN rate_limit_bucket.atualizado_em IS 'Último reabastecimento (relógio do banco)';
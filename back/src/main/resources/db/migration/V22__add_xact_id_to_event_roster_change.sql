@@ -0,0 +1,10 @@
+-- Migration: Cursor de sincronização do roster na ordem de commit
+-- Descrição: O id (BIGSERIAL) é reservado no INSERT, não no commit; uma transação longa pode confirmar
+-- uma alteração com id menor que um cursor já entregue. O cursor passa a ser o xmin do snapshot
+-- (toda transação com id menor já terminou) e o delta compara com o id da transação que gravou a linha
+
+ALTER TABLE event_roster_change ADD COLUMN IF NOT EXISTS xact_id BIGINT NOT NULL DEFAULT pg_current_xact_id()::text::BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_event_roster_change_event_xact ON event_roster_change(event_id, xact_id);
+
+COMMENT ON COLUMN event_roster_change.xact_id IS 'Id (xid8) da transação que registrou a alteração; base do cursor de sincronização';
@@ -0,0 +1,20 @@
+-- Migration: Um certificado válido por presença
+-- Descrição: O backend Java serializa a emissão pelo lock da presença, mas o serviço de certificados
+-- (Node.js) não; sem restrição, emissões simultâneas pelos dois caminhos geravam dois certificados.
+-- Os dois lados passam a inserir com ON CONFLICT DO NOTHING e reler o existente
+
+-- Duplicados já emitidos: o primeiro fica válido, os demais são revogados (e mantidos para auditoria)
+UPDATE certificate c
+SET revoked_at = now()
+WHERE c.revoked_at IS NULL
+  AND EXISTS (
+      SELECT 1 FROM certificate anterior
+      WHERE anterior.event_attendance_id = c.event_attendance_id
+        AND anterior.revoked_at IS NULL
+        AND (anterior.issued_at, anterior.id) < (c.issued_at, c.id)
+  );
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_certificate_event_attendance
+    ON certificate(event_attendance_id) WHERE revoked_at IS NULL;
+
+COMMENT ON INDEX uk_certificate_event_attendance IS 'No máximo um certificado não revogado por presença';
@@ -0,0 +1,25 @@
+-- Migration: Criar tabela de lotes de certificados
+-- Descrição: Lote de emissão persistido; cada participante é um job em certificate_job ligado ao lote,
+-- processado pelos mesmos workers (lease, retentativas) e visível a todas as instâncias
+
+CREATE TABLE IF NOT EXISTS certificate_batch (
+    id UUID PRIMARY KEY,
+    event_id UUID NOT NULL,
+    solicitado_por UUID NOT NULL,
+    total INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_certificate_batch_event FOREIGN KEY (event_id) REFERENCES event(id) ON DELETE CASCADE
+);
+
+ALTER TABLE certificate_job ADD COLUMN IF NOT EXISTS batch_id UUID;
+ALTER TABLE certificate_job ADD CONSTRAINT fk_certificate_job_batch
+    FOREIGN KEY (batch_id) REFERENCES certificate_batch(id) ON DELETE SET NULL;
+
+-- Progresso e ZIP do lote
+CREATE INDEX idx_certificate_job_batch ON certificate_job(batch_id, status) WHERE batch_id IS NOT NULL;
+
+-- Comentários nas colunas
+COMMENT ON TABLE certificate_batch IS 'Lotes de emissão dos certificados de todos os presentes de um evento';
+COMMENT ON COLUMN certificate_batch.solicitado_por IS 'Administrador que iniciou o lote';
+COMMENT ON COLUMN certificate_batch.total IS 'Jobs ligados ao lote na criação (um por participante presente)';
+COMMENT ON COLUMN certificate_job.batch_id IS 'Lote de certificados do job (nulo em pedidos individuais)';
@@ -0,0 +1,38 @@
+-- Migration: Criar tabelas de sincronização offline de presença
+-- Descrição: Log de alterações do roster por evento (cursor de delta) e registro idempotente de operações de check-in enviadas por dispositivos
+
+CREATE TABLE IF NOT EXISTS event_roster_change (
+    id BIGSERIAL PRIMARY KEY,
+    event_id UUID NOT NULL,
+    usuario_id UUID NOT NULL,
+    tipo VARCHAR(30) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_event_roster_change_event FOREIGN KEY (event_id) REFERENCES event(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_event_roster_change_event_id ON event_roster_change(event_id, id);
+
+CREATE TABLE IF NOT EXISTS attendance_sync_operation (
+    operation_id UUID PRIMARY KEY,
+    device_id VARCHAR(100) NOT NULL,
+    event_id UUID NOT NULL,
+    usuario_id UUID NOT NULL,
+    presente BOOLEAN NOT NULL,
+    device_timestamp TIMESTAMP NOT NULL,
+    resultado VARCHAR(30) NOT NULL,
+    processed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT fk_attendance_sync_operation_event FOREIGN KEY (event_id) REFERENCES event(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_attendance_sync_operation_event ON attendance_sync_operation(event_id);
+
+-- Comentários nas colunas
+COMMENT ON TABLE event_roster_change IS 'Log append-only de alterações no roster (inscrições e presenças) usado como cursor de sincronização';
+COMMENT ON COLUMN event_roster_change.id IS 'Cursor monotônico da alteração';
+COMMENT ON COLUMN event_roster_change.tipo IS 'Tipo da alteração (INSCRICAO, CANCELAMENTO, PRESENCA)';
+COMMENT ON TABLE attendance_sync_operation IS 'Operações de check-in recebidas de dispositivos offline, usadas para garantir idempotência';
+COMMENT ON COLUMN attendance_sync_operation.operation_id IS 'ID da operação gerado pelo dispositivo';
+COMMENT ON COLUMN attendance_sync_operation.device_timestamp IS 'Momento do check-in segundo o relógio do dispositivo';
+COMMENT ON COLUMN attendance_sync_operation.resultado IS 'Resultado do merge (APLICADA, OBSOLETA, REJEITADA)';
@@ -0,0 +1,16 @@
+-- Migration: Criar tabela de revogação de tokens de check-in
+-- Descrição: Inscrições canceladas cujos tokens de check-in assinados não devem mais ser aceitos
+
+CREATE TABLE IF NOT EXISTS checkin_token_revocation (
+    inscription_id UUID PRIMARY KEY,
+    usuario_id UUID NOT NULL,
+    event_id UUID NOT NULL,
+    revoked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_checkin_token_revocation_revoked_at ON checkin_token_revocation(revoked_at);
+
+-- Comentários nas colunas
+COMMENT ON TABLE checkin_token_revocation IS 'Tokens de check-in revogados pelo cancelamento da inscrição';
+COMMENT ON COLUMN checkin_token_revocation.inscription_id IS 'ID da inscrição cancelada (identifica o token)';
+COMMENT ON COLUMN checkin_token_revocation.revoked_at IS 'Data e hora da revogação';
@@ -0,0 +1,119 @@
+package com.microsservicos.back.benchmark;
+
+import com.microsservicos.back.config.SecondLevelCacheConfig;
+import com.microsservicos.back.config.SecondLevelCacheProperties;
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.repository.EventRepository;
+import com.microsservicos.back.service.BulkPersistenceService;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.persistence.autoconfigure.EntityScan;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.testcontainers.postgresql.PostgreSQLContainer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Banco dos benchmarks: PostgreSQL 16 em container (Testcontainers) com o schema das migrations.
+ *
+ * Para usar um banco já existente (ex.: sem Docker), informe {@code -Dbenchmark.db.url},
+ * {@code -Dbenchmark.db.username} e {@code -Dbenchmark.db.password}; as migrations são aplicadas
+ * nele e os benchmarks gravam dados de teste, então use um banco descartável.
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final String IMAGEM = "postgres:16-alpine";
+
+    private final PostgreSQLContainer container;
+    private final String url;
+    private final String username;
+    private final String password;
+
+    /**
+     * Contexto Spring só com a camada de persistência da aplicação: as propriedades de
+     * application.properties (batching, regiões do cache de segundo nível), os repositórios e o
+     * {@link BulkPersistenceService}. Sem web, listeners ou jobs agendados.
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EntityScan(basePackageClasses = Event.class)
+    @EnableJpaRepositories(basePackageClasses = EventRepository.class)
+    @Import({SecondLevelCacheConfig.class, SecondLevelCacheProperties.class, BulkPersistenceService.class})
+    static class PersistenciaConfig {
+    }
+
+    private BenchmarkDatabase(PostgreSQLContainer container, String url, String username, String password) {
+        this.container = container;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    static BenchmarkDatabase iniciar() {
+        BenchmarkDatabase database;
+        String urlExterna = System.getProperty("benchmark.db.url");
+        if (urlExterna != null) {
+            database = new BenchmarkDatabase(null, urlExterna,
+                    System.getProperty("benchmark.db.username", "postgres"),
+                    System.getProperty("benchmark.db.password", "postgres"));
+        } else {
+            PostgreSQLContainer container = new PostgreSQLContainer(IMAGEM);
+            container.start();
+            database = new BenchmarkDatabase(container, container.getJdbcUrl(),
+                    container.getUsername(), container.getPassword());
+        }
+
+        Flyway.configure()
+                .dataSource(database.url, database.username, database.password)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .load()
+                .migrate();
+        return database;
+    }
+
+    /** URL com reWriteBatchedInserts, como em spring.datasource.url */
+    String getUrl() {
+        return url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+    }
+
+    Connection conectar() throws SQLException {
+        return DriverManager.getConnection(getUrl(), username, password);
+    }
+
+    /**
+     * @param propriedades propriedades adicionais ({@code chave=valor}), com precedência sobre
+     *                     application.properties
+     */
+    ConfigurableApplicationContext iniciarContexto(String... propriedades) {
+        List<String> argumentos = new ArrayList<>(List.of(
+                "--spring.datasource.url=" + getUrl(),
+                "--spring.datasource.username=" + username,
+                "--spring.datasource.password=" + password,
+                "--spring.flyway.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"));
+        for (String propriedade : propriedades) {
+            argumentos.add("--" + propriedade);
+        }
+        return new SpringApplicationBuilder(PersistenciaConfig.class)
+                .web(WebApplicationType.NONE)
+                .run(argumentos.toArray(String[]::new));
+    }
+
+    @Override
+    public void close() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
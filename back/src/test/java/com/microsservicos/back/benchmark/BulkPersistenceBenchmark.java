@@ -0,0 +1,111 @@
+package com.microsservicos.back.benchmark;
+
+import com.microsservicos.back.domain.UserLog;
+import com.microsservicos.back.domain.Usuario;
+import com.microsservicos.back.repository.UserLogRepository;
+import com.microsservicos.back.repository.UsuarioRepository;
+import com.microsservicos.back.service.BulkPersistenceService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gravação de registros de auditoria (user_log): um {@code save} do repositório por entidade, cada um
+ * na sua transação (o padrão anterior), contra o {@link BulkPersistenceService} com batch JDBC e
+ * reWriteBatchedInserts, usando a configuração de application.properties. Vazão em linhas por segundo.
+ *
+ * Execução (precisa de Docker, ou de {@code -Dbenchmark.db.url}; ver {@link BenchmarkDatabase}):
+ * <pre>
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main BulkPersistenceBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class BulkPersistenceBenchmark {
+
+    private static final int LINHAS = 5000;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext contexto;
+    private UserLogRepository userLogRepository;
+    private BulkPersistenceService bulkPersistenceService;
+    private JdbcTemplate jdbcTemplate;
+    private Usuario usuario;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = BenchmarkDatabase.iniciar();
+        contexto = database.iniciarContexto();
+        userLogRepository = contexto.getBean(UserLogRepository.class);
+        bulkPersistenceService = contexto.getBean(BulkPersistenceService.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+        usuario = contexto.getBean(UsuarioRepository.class).save(Usuario.builder()
+                .name("Benchmark")
+                .email("benchmark-" + UUID.randomUUID() + "@benchmark.local")
+                .password("senha")
+                .build());
+    }
+
+    @TearDown(Level.Iteration)
+    public void limpar() {
+        jdbcTemplate.update("DELETE FROM user_log WHERE usuario_id = ?", usuario.getId());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public void saveLoop() {
+        for (UserLog log : registros()) {
+            userLogRepository.save(log);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public long bulkPersistence() {
+        return bulkPersistenceService.inserir("benchmark", registros());
+    }
+
+    private List<UserLog> registros() {
+        List<UserLog> registros = new ArrayList<>(LINHAS);
+        for (int i = 0; i < LINHAS; i++) {
+            registros.add(UserLog.builder()
+                    .usuario(usuario)
+                    .action("ATTENDANCE_CHECKIN")
+                    .entityType("EVENT")
+                    .entityId(UUID.randomUUID())
+                    .details(Map.of("linha", i))
+                    .ipAddress("127.0.0.1")
+                    .build());
+        }
+        return registros;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+        database.close();
+    }
+}
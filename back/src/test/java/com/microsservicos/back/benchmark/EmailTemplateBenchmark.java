@@ -0,0 +1,110 @@
+package com.microsservicos.back.benchmark;
+
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.service.EmailTemplateService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Email de confirmação de inscrição: corpo montado com {@code String.format} (como o EmailService
+ * fazia antes dos templates) contra o template compilado com o cache por evento.
+ *
+ * O template renderiza assunto, texto e HTML; o String.format, só assunto e texto.
+ *
+ * Execução:
+ * <pre>
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main EmailTemplateBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy 'às' HH:mm");
+    private static final int USUARIOS = 1024;
+
+    private EmailTemplateService emailTemplateService;
+    private Event event;
+    private String[] nomes;
+    private int proximo;
+
+    @Setup
+    public void setup() {
+        emailTemplateService = new EmailTemplateService();
+        ReflectionTestUtils.setField(emailTemplateService, "defaultLocaleTag", "pt-BR");
+        ReflectionTestUtils.setField(emailTemplateService, "eventCacheMaxEntries", 500L);
+        ReflectionTestUtils.invokeMethod(emailTemplateService, "init");
+
+        LocalDateTime inicio = LocalDateTime.of(2026, 11, 20, 19, 0);
+        event = Event.builder()
+                .id(UUID.randomUUID())
+                .nome("Semana Acadêmica de Computação")
+                .detalhes("Palestras e oficinas sobre arquitetura de software")
+                .dataHoraInicio(inicio)
+                .dataHoraFim(inicio.plusHours(3))
+                .localEvento("Auditório Central")
+                .categoria("Tecnologia")
+                .updatedAt(inicio.minusDays(30))
+                .build();
+
+        nomes = new String[USUARIOS];
+        for (int i = 0; i < USUARIOS; i++) {
+            nomes[i] = "Participante " + i;
+        }
+    }
+
+    @Benchmark
+    public void stringFormat(Blackhole blackhole) {
+        String nome = nomes[proximo++ & (USUARIOS - 1)];
+        blackhole.consume("Inscrição confirmada - " + event.getNome());
+        blackhole.consume(String.format(
+                "Olá %s,\n\n" +
+                "Sua inscrição no evento foi confirmada com sucesso!\n\n" +
+                "Detalhes do evento:\n" +
+                "- Nome: %s\n" +
+                "- Data/Hora de Início: %s\n" +
+                "- Data/Hora de Término: %s\n" +
+                "- Local: %s\n" +
+                "- Categoria: %s\n" +
+                "%s\n\n" +
+                "Não se esqueça de comparecer no dia e horário marcados!\n\n" +
+                "Atenciosamente,\n" +
+                "Equipe de Eventos",
+                nome,
+                event.getNome(),
+                event.getDataHoraInicio().format(DATE_TIME_FORMATTER),
+                event.getDataHoraFim().format(DATE_TIME_FORMATTER),
+                event.getLocalEvento() != null ? event.getLocalEvento() : "A definir",
+                event.getCategoria() != null ? event.getCategoria() : "Sem categoria",
+                event.getDetalhes() != null && !event.getDetalhes().isEmpty()
+                    ? "- Detalhes: " + event.getDetalhes() + "\n"
+                    : ""));
+    }
+
+    @Benchmark
+    public EmailTemplateService.EmailRenderizado template() {
+        String nome = nomes[proximo++ & (USUARIOS - 1)];
+        return emailTemplateService.renderizar("confirmacao-inscricao", event, Map.of("usuario.nome", nome));
+    }
+}
@@ -0,0 +1,148 @@
+package com.microsservicos.back.benchmark;
+
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.domain.Usuario;
+import com.microsservicos.back.repository.EventRepository;
+import com.microsservicos.back.repository.UsuarioRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leituras por id de Event e Usuario (o padrão de EventInscriptionService, EventAttendanceService e
+ * EmailController) com e sem o cache de segundo nível, usando a configuração de application.properties.
+ *
+ * Além da vazão, o teardown imprime os comandos SQL por busca (estatísticas do Hibernate), que é a
+ * redução de idas ao banco buscada pelo cache.
+ *
+ * Execução (precisa de Docker, ou de {@code -Dbenchmark.db.url}; ver {@link BenchmarkDatabase}):
+ * <pre>
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main SecondLevelCacheBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecondLevelCacheBenchmark {
+
+    private static final int EVENTOS = 200;
+    private static final int USUARIOS = 2000;
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private BenchmarkDatabase database;
+    private ConfigurableApplicationContext contexto;
+    private EventRepository eventRepository;
+    private UsuarioRepository usuarioRepository;
+    private TransactionTemplate leitura;
+    private Statistics estatisticas;
+
+    private List<UUID> eventos;
+    private List<UUID> usuarios;
+    private int proximo;
+    private long buscas;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        database = BenchmarkDatabase.iniciar();
+        contexto = database.iniciarContexto(
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=" + cache,
+                "spring.jpa.properties.hibernate.cache.use_query_cache=" + cache,
+                "spring.jpa.properties.hibernate.generate_statistics=true");
+        eventRepository = contexto.getBean(EventRepository.class);
+        usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        leitura = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        leitura.setReadOnly(true);
+        estatisticas = contexto.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+
+        String execucao = UUID.randomUUID().toString();
+        LocalDateTime inicio = LocalDateTime.now().plusDays(30);
+        List<Event> novosEventos = new ArrayList<>();
+        for (int i = 0; i < EVENTOS; i++) {
+            novosEventos.add(Event.builder()
+                    .nome("Evento " + i)
+                    .detalhes("Benchmark " + execucao)
+                    .dataHoraInicio(inicio)
+                    .dataHoraFim(inicio.plusHours(2))
+                    .localEvento("Auditório")
+                    .categoria("Tecnologia")
+                    .build());
+        }
+        List<Usuario> novosUsuarios = new ArrayList<>();
+        for (int i = 0; i < USUARIOS; i++) {
+            novosUsuarios.add(Usuario.builder()
+                    .name("Participante " + i)
+                    .email("participante" + i + "-" + execucao + "@benchmark.local")
+                    .password("senha")
+                    .build());
+        }
+        eventos = eventRepository.saveAll(novosEventos).stream().map(Event::getId).toList();
+        usuarios = usuarioRepository.saveAll(novosUsuarios).stream().map(Usuario::getId).toList();
+
+        estatisticas.clear();
+    }
+
+    @Setup(Level.Iteration)
+    public void limparEstatisticas() {
+        estatisticas.clear();
+        buscas = 0;
+    }
+
+    /**
+     * Uma requisição típica: evento e usuário por id numa transação somente leitura.
+     */
+    @Benchmark
+    public void buscarEventoEUsuario(Blackhole blackhole) {
+        int i = proximo++;
+        UUID eventId = eventos.get(i % EVENTOS);
+        UUID usuarioId = usuarios.get(i % USUARIOS);
+        leitura.executeWithoutResult(status -> {
+            blackhole.consume(eventRepository.findById(eventId).orElseThrow().getNome());
+            blackhole.consume(usuarioRepository.findById(usuarioId).orElseThrow().getEmail());
+        });
+        buscas++;
+    }
+
+    @TearDown(Level.Iteration)
+    public void imprimirIdasAoBanco() {
+        long acertos = estatisticas.getSecondLevelCacheHitCount();
+        long falhas = estatisticas.getSecondLevelCacheMissCount();
+        System.out.printf("%n[cache=%s] %d buscas, %.3f comandos SQL por busca, acertos no cache L2: %.1f%%%n",
+                cache, buscas, (double) estatisticas.getPrepareStatementCount() / Math.max(buscas, 1),
+                acertos + falhas == 0 ? 0.0 : 100.0 * acertos / (acertos + falhas));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+        database.close();
+    }
+}
@@ -0,0 +1,171 @@
+package com.microsservicos.back.benchmark;
+
+import com.microsservicos.back.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserção com chave primária UUID v4 (aleatória) contra v7 (ordenada pelo tempo) numa tabela que
+ * já tem milhões de linhas, no formato de user_log.
+ *
+ * A tabela é pré-carregada no banco com gen_random_uuid() ou uuid_generate_v7() (V18); o benchmark
+ * insere lotes JDBC com ids gerados pela aplicação, como os inserts em massa. A vazão é em linhas por
+ * segundo. No fim de cada versão são impressos o tamanho do índice da chave primária (bytes por linha),
+ * a densidade das folhas (pgstattuple, se disponível) e o WAL gerado por linha inserida.
+ *
+ * Execução (precisa de Docker, ou de {@code -Dbenchmark.db.url}; ver {@link BenchmarkDatabase}):
+ * <pre>
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main UuidInsertBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int LOTE = 1000;
+    private static final String TABELA = "benchmark_uuid";
+
+    @Param({"V4", "V7"})
+    public String versao;
+
+    @Param({"3000000"})
+    public int linhasIniciais;
+
+    private BenchmarkDatabase database;
+    private Connection connection;
+    private PreparedStatement insert;
+    private UUID usuarioId;
+    private String walInicial;
+    private long inseridas;
+
+    @Setup(Level.Trial)
+    public void setup() throws SQLException {
+        database = BenchmarkDatabase.iniciar();
+        connection = database.conectar();
+        usuarioId = UUID.randomUUID();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABELA);
+            statement.execute("CREATE TABLE " + TABELA + " (" +
+                    "id UUID NOT NULL, " +
+                    "usuario_id UUID NOT NULL, " +
+                    "action VARCHAR(100) NOT NULL, " +
+                    "entity_id UUID, " +
+                    "created_at TIMESTAMP NOT NULL, " +
+                    "CONSTRAINT pk_" + TABELA + " PRIMARY KEY (id))");
+            statement.execute("INSERT INTO " + TABELA + " (id, usuario_id, action, entity_id, created_at) " +
+                    "SELECT " + ("V7".equals(versao) ? "uuid_generate_v7()" : "gen_random_uuid()") + ", " +
+                    "'" + usuarioId + "', 'EVENT_INSCRIPTION', gen_random_uuid(), now() " +
+                    "FROM generate_series(1, " + linhasIniciais + ")");
+            statement.execute("VACUUM ANALYZE " + TABELA);
+            statement.execute("CHECKPOINT");
+        }
+        imprimirIndice("após a carga inicial");
+
+        connection.setAutoCommit(false);
+        insert = connection.prepareStatement("INSERT INTO " + TABELA +
+                " (id, usuario_id, action, entity_id, created_at) VALUES (?, ?, ?, ?, ?)");
+        walInicial = consultar("SELECT pg_current_wal_lsn()::text");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void inserirLote() throws SQLException {
+        boolean v7 = "V7".equals(versao);
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        for (int i = 0; i < LOTE; i++) {
+            insert.setObject(1, v7 ? UuidV7.randomUUID() : UUID.randomUUID());
+            insert.setObject(2, usuarioId);
+            insert.setString(3, "EVENT_INSCRIPTION");
+            insert.setObject(4, UUID.randomUUID());
+            insert.setTimestamp(5, agora);
+            insert.addBatch();
+        }
+        insert.executeBatch();
+        connection.commit();
+        inseridas += LOTE;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try {
+            connection.setAutoCommit(true);
+            String wal;
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), ?::pg_lsn)")) {
+                statement.setString(1, walInicial);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    wal = String.format("%.0f", rs.getDouble(1) / Math.max(inseridas, 1));
+                }
+            }
+            System.out.printf("%n[%s] %d linhas inseridas pelo benchmark, WAL por linha inserida: %s bytes%n",
+                    versao, inseridas, wal);
+            imprimirIndice("após o benchmark");
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("DROP TABLE IF EXISTS " + TABELA);
+            }
+        } finally {
+            connection.close();
+            database.close();
+        }
+    }
+
+    private void imprimirIndice(String momento) throws SQLException {
+        long linhas = Long.parseLong(consultar("SELECT count(*) FROM " + TABELA));
+        long indice = Long.parseLong(consultar("SELECT pg_relation_size('pk_" + TABELA + "')"));
+        System.out.printf("%n[%s] %s: %d linhas, índice da PK %d MB (%.1f bytes/linha)%s%n",
+                versao, momento, linhas, indice / (1024 * 1024), (double) indice / linhas, densidadeFolhas());
+    }
+
+    /** Densidade média das folhas do índice; v4 deixa páginas pela metade após os page splits */
+    private String densidadeFolhas() {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+            return ", densidade das folhas " + consultar("SELECT avg_leaf_density FROM pgstatindex('pk_" + TABELA + "')") + "%";
+        } catch (SQLException e) {
+            return "";
+        }
+    }
+
+    private String consultar(String sql) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getString(1);
+        } finally {
+            if (!autoCommit) {
+                connection.commit();
+            }
+        }
+    }
+}
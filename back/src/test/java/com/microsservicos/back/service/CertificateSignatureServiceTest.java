@@ -0,0 +1,205 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.Certificate;
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.domain.Usuario;
+import com.microsservicos.back.repository.CertificateRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CertificateSignatureServiceTest {
+
+	private CertificateRepository repository;
+	private KeyPair par;
+	private CertificateSignatureService service;
+	private Certificate certificado;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		repository = mock(CertificateRepository.class);
+		when(repository.findCodigosRevogadosDesde(any())).thenReturn(List.of());
+		par = KeyPairGenerator.getInstance(CertificateSignatureService.ALGORITHM).generateKeyPair();
+		service = criar(par, par, new MockEnvironment());
+		service.sincronizarRevogacoes();
+
+		certificado = Certificate.builder()
+				.certificateCode("CERT-2026-000123")
+				.usuario(Usuario.builder().id(UUID.randomUUID()).build())
+				.event(Event.builder().id(UUID.randomUUID()).build())
+				.issuedAt(LocalDateTime.of(2026, 5, 20, 18, 0, 42))
+				.build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void verificaOCertificadoAssinado() {
+		CertificateSignatureService.CertificadoAssinado assinado = service.verificar(service.assinar(certificado)).orElseThrow();
+
+		assertThat(assinado.certificateCode()).isEqualTo(certificado.getCertificateCode());
+		assertThat(assinado.usuarioId()).isEqualTo(certificado.getUsuario().getId());
+		assertThat(assinado.eventId()).isEqualTo(certificado.getEvent().getId());
+		assertThat(assinado.issuedAt()).isEqualTo(certificado.getIssuedAt());
+	}
+
+	@Test
+	void verificacaoDeCertificadoValidoNaoConsultaOBanco() {
+		service.verificar(service.assinar(certificado));
+
+		verify(repository, never()).existsByCertificateCodeAndRevokedAtIsNotNull(anyString());
+	}
+
+	@Test
+	void rejeitaPayloadAlterado() {
+		String token = service.assinar(certificado);
+		int separador = token.indexOf('.');
+		byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, separador));
+		payload[payload.length - 1] ^= 1;
+
+		assertThat(service.verificar(codificar(payload) + token.substring(separador))).isEmpty();
+	}
+
+	@Test
+	void rejeitaAssinaturaAlterada() {
+		String token = service.assinar(certificado);
+		int separador = token.indexOf('.');
+		byte[] assinatura = Base64.getUrlDecoder().decode(token.substring(separador + 1));
+		assinatura[10] ^= 1;
+
+		assertThat(service.verificar(token.substring(0, separador + 1) + codificar(assinatura))).isEmpty();
+	}
+
+	@Test
+	void rejeitaTokenMalformado() {
+		assertThat(service.verificar("sem-separador")).isEmpty();
+		assertThat(service.verificar(".abc")).isEmpty();
+		assertThat(service.verificar("!!!.???")).isEmpty();
+		// Payload menor que o cabeçalho
+		assertThat(service.verificar("AQID.AQID")).isEmpty();
+	}
+
+	@Test
+	void rejeitaVersaoDesconhecida() {
+		String token = service.assinar(certificado);
+		int separador = token.indexOf('.');
+		byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, separador));
+		payload[0] = 2;
+
+		assertThat(service.verificar(codificar(payload) + token.substring(separador))).isEmpty();
+	}
+
+	@Test
+	void rejeitaTokenAssinadoComOutraChave() throws Exception {
+		KeyPair outro = KeyPairGenerator.getInstance(CertificateSignatureService.ALGORITHM).generateKeyPair();
+		String token = criar(outro, outro, new MockEnvironment()).assinar(certificado);
+
+		assertThat(service.verificar(token)).isEmpty();
+	}
+
+	@Test
+	void revogacaoSoValeAposOCommit() {
+		String token = service.assinar(certificado);
+		TransactionSynchronizationManager.initSynchronization();
+
+		service.revogar(certificado);
+		verify(repository).save(certificado);
+		assertThat(service.verificar(token)).isPresent();
+
+		when(repository.existsByCertificateCodeAndRevokedAtIsNotNull(certificado.getCertificateCode())).thenReturn(true);
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+		assertThat(service.verificar(token)).isEmpty();
+		assertThat(service.isRevogado(certificado.getCertificateCode())).isTrue();
+	}
+
+	@Test
+	void carregaRevogacoesDeOutrasInstancias() {
+		String token = service.assinar(certificado);
+		when(repository.findCodigosRevogadosDesde(any())).thenReturn(List.of(certificado.getCertificateCode()));
+		when(repository.existsByCertificateCodeAndRevokedAtIsNotNull(certificado.getCertificateCode())).thenReturn(true);
+
+		service.sincronizarRevogacoes();
+
+		assertThat(service.verificar(token)).isEmpty();
+	}
+
+	@Test
+	void positivoDoFiltroEhConfirmadoNoBanco() {
+		// No filtro, mas sem revoked_at no banco (ex.: falso positivo)
+		when(repository.findCodigosRevogadosDesde(any())).thenReturn(List.of(certificado.getCertificateCode()));
+		service.sincronizarRevogacoes();
+
+		assertThat(service.verificar(service.assinar(certificado))).isPresent();
+		verify(repository).existsByCertificateCodeAndRevokedAtIsNotNull(certificado.getCertificateCode());
+	}
+
+	@Test
+	void antesDaPrimeiraSincronizacaoConsultaOBanco() {
+		CertificateSignatureService novo = criar(par, par, new MockEnvironment());
+		when(repository.existsByCertificateCodeAndRevokedAtIsNotNull(certificado.getCertificateCode())).thenReturn(true);
+
+		assertThat(novo.verificar(novo.assinar(certificado))).isEmpty();
+	}
+
+	@Test
+	void recusaChavePublicaDeOutroPar() throws Exception {
+		KeyPair outro = KeyPairGenerator.getInstance(CertificateSignatureService.ALGORITHM).generateKeyPair();
+
+		assertThatThrownBy(() -> criar(par, outro, new MockEnvironment()))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	void exigeChavesForaDoPerfilDev() {
+		assertThatThrownBy(() -> criar(null, null, new MockEnvironment()))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("obrigatórias");
+
+		MockEnvironment dev = new MockEnvironment();
+		dev.setActiveProfiles("dev");
+		CertificateSignatureService efemero = criar(null, null, dev);
+		assertThat(efemero.verificar(efemero.assinar(certificado))).isPresent();
+	}
+
+	private CertificateSignatureService criar(KeyPair privada, KeyPair publica, MockEnvironment environment) {
+		CertificateSignatureService novo = new CertificateSignatureService(repository, environment);
+		ReflectionTestUtils.setField(novo, "privateKeyBase64",
+				privada == null ? "" : Base64.getEncoder().encodeToString(privada.getPrivate().getEncoded()));
+		ReflectionTestUtils.setField(novo, "publicKeyBase64",
+				publica == null ? "" : Base64.getEncoder().encodeToString(publica.getPublic().getEncoded()));
+		ReflectionTestUtils.setField(novo, "bloomExpectedInsertions", 1000L);
+		ReflectionTestUtils.setField(novo, "bloomFalsePositiveRate", 0.01);
+		novo.init();
+		return novo;
+	}
+
+	private static String codificar(byte[] bytes) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+}
@@ -0,0 +1,193 @@
+package com.microsservicos.back.service;
+
+import com.microsservicos.back.domain.CheckInTokenRevocation;
+import com.microsservicos.back.domain.Event;
+import com.microsservicos.back.domain.EventInscription;
+import com.microsservicos.back.domain.Usuario;
+import com.microsservicos.back.repository.CheckInTokenRevocationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CheckInTokenServiceTest {
+
+	private static final String SECRET = "segredo-de-teste-com-pelo-menos-32-bytes";
+
+	private CheckInTokenRevocationRepository repository;
+	private CheckInTokenService service;
+	private EventInscription inscricao;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(CheckInTokenRevocationRepository.class);
+		when(repository.findRevogadasDesde(any(), any())).thenReturn(List.of());
+		service = criar(SECRET);
+
+		Event event = Event.builder()
+				.id(UUID.randomUUID())
+				.dataHoraFim(LocalDateTime.now().plusHours(2))
+				.build();
+		inscricao = EventInscription.builder()
+				.id(UUID.randomUUID())
+				.usuario(Usuario.builder().id(UUID.randomUUID()).build())
+				.event(event)
+				.createdAt(LocalDateTime.of(2026, 3, 10, 14, 30, 15))
+				.build();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void verificaOTokenEmitido() {
+		CheckInTokenService.CheckInClaims claims = service.verificar(service.emitir(inscricao));
+
+		assertThat(claims.inscriptionId()).isEqualTo(inscricao.getId());
+		assertThat(claims.usuarioId()).isEqualTo(inscricao.getUsuario().getId());
+		assertThat(claims.eventId()).isEqualTo(inscricao.getEvent().getId());
+		assertThat(claims.issuedAt()).isEqualTo(inscricao.getCreatedAt());
+	}
+
+	@Test
+	void tokenEhDeterministico() {
+		assertThat(service.emitir(inscricao)).isEqualTo(service.emitir(inscricao));
+	}
+
+	@Test
+	void rejeitaPayloadAlterado() {
+		String token = service.emitir(inscricao);
+		int separador = token.indexOf('.');
+		byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, separador));
+		payload[payload.length - 1] ^= 1;
+		String adulterado = Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + token.substring(separador);
+
+		assertThatThrownBy(() -> service.verificar(adulterado))
+				.isInstanceOf(RuntimeException.class)
+				.hasMessage("Token de check-in inválido");
+	}
+
+	@Test
+	void rejeitaAssinaturaAlterada() {
+		String token = service.emitir(inscricao);
+		int separador = token.indexOf('.');
+		byte[] assinatura = Base64.getUrlDecoder().decode(token.substring(separador + 1));
+		assinatura[0] ^= 1;
+		String adulterado = token.substring(0, separador + 1)
+				+ Base64.getUrlEncoder().withoutPadding().encodeToString(assinatura);
+
+		assertThatThrownBy(() -> service.verificar(adulterado))
+				.hasMessage("Token de check-in inválido");
+	}
+
+	@Test
+	void rejeitaTokenMalformado() {
+		assertThatThrownBy(() -> service.verificar("sem-separador")).hasMessage("Token de check-in inválido");
+		assertThatThrownBy(() -> service.verificar(".abc")).hasMessage("Token de check-in inválido");
+		assertThatThrownBy(() -> service.verificar("!!!.???")).hasMessage("Token de check-in inválido");
+		assertThatThrownBy(() -> service.verificar("YWJj.YWJj")).hasMessage("Token de check-in inválido");
+	}
+
+	@Test
+	void rejeitaTokenAssinadoComOutroSegredo() {
+		String token = criar("outro-segredo-de-teste-com-32-bytes-ou-mais").emitir(inscricao);
+
+		assertThatThrownBy(() -> service.verificar(token)).hasMessage("Token de check-in inválido");
+	}
+
+	@Test
+	void tokenDeOutroEventoNaoServeParaEsteEvento() {
+		EventInscription outraInscricao = EventInscription.builder()
+				.id(UUID.randomUUID())
+				.usuario(inscricao.getUsuario())
+				.event(Event.builder().id(UUID.randomUUID()).dataHoraFim(LocalDateTime.now()).build())
+				.createdAt(inscricao.getCreatedAt())
+				.build();
+
+		// O token é válido, mas o evento assinado é o outro: quem faz o check-in compara com o evento da portaria
+		CheckInTokenService.CheckInClaims claims = service.verificar(service.emitir(outraInscricao));
+		assertThat(claims.eventId()).isNotEqualTo(inscricao.getEvent().getId());
+
+		// Trocar o evento no payload invalida a assinatura
+		String token = service.emitir(outraInscricao);
+		int separador = token.indexOf('.');
+		byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, separador));
+		byte[] eventId = Base64.getUrlDecoder().decode(service.emitir(inscricao).substring(0, separador));
+		System.arraycopy(eventId, 32, payload, 32, 16);
+		String trocado = Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + token.substring(separador);
+
+		assertThatThrownBy(() -> service.verificar(trocado)).hasMessage("Token de check-in inválido");
+	}
+
+	@Test
+	void revogacaoSoValeAposOCommit() {
+		String token = service.emitir(inscricao);
+		TransactionSynchronizationManager.initSynchronization();
+
+		service.revogar(inscricao);
+		assertThat(service.verificar(token).inscriptionId()).isEqualTo(inscricao.getId());
+
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertThatThrownBy(() -> service.verificar(token)).hasMessage("Token de check-in revogado");
+	}
+
+	@Test
+	void carregaRevogacoesDeOutrasInstancias() {
+		String token = service.emitir(inscricao);
+		when(repository.findRevogadasDesde(any(), any())).thenReturn(List.of(revogacao(LocalDateTime.now().plusHours(1))));
+
+		service.sincronizarRevogacoes();
+
+		assertThatThrownBy(() -> service.verificar(token)).hasMessage("Token de check-in revogado");
+	}
+
+	@Test
+	void descartaRevogacoesExpiradas() {
+		when(repository.findRevogadasDesde(any(), any())).thenReturn(List.of(revogacao(LocalDateTime.now().minusMinutes(1))));
+
+		service.sincronizarRevogacoes();
+
+		assertThat(service.verificar(service.emitir(inscricao)).inscriptionId()).isEqualTo(inscricao.getId());
+	}
+
+	@Test
+	void exigeSegredoComPeloMenos32Bytes() {
+		assertThatThrownBy(() -> criar("curto"))
+				.isInstanceOf(IllegalStateException.class)
+				.hasMessageContaining("32 bytes");
+	}
+
+	private CheckInTokenService criar(String segredo) {
+		CheckInTokenService novo = new CheckInTokenService(repository);
+		ReflectionTestUtils.setField(novo, "secret", segredo);
+		ReflectionTestUtils.setField(novo, "revocationGraceHours", 24L);
+		novo.init();
+		return novo;
+	}
+
+	private CheckInTokenRevocation revogacao(LocalDateTime expiraEm) {
+		return CheckInTokenRevocation.builder()
+				.inscriptionId(inscricao.getId())
+				.usuarioId(inscricao.getUsuario().getId())
+				.eventId(inscricao.getEvent().getId())
+				.expiresAt(expiraEm)
+				.build();
+	}
+}
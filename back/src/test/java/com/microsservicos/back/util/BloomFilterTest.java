@@ -0,0 +1,95 @@
+package com.microsservicos.back.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+	@Test
+	void naoTemFalsosNegativos() {
+		BloomFilter filtro = BloomFilter.create(100_000, 0.01);
+		for (int i = 0; i < 100_000; i++) {
+			filtro.put(codigo(i));
+		}
+
+		for (int i = 0; i < 100_000; i++) {
+			assertThat(filtro.mightContain(codigo(i))).as(codigo(i)).isTrue();
+		}
+	}
+
+	@Test
+	void naoTemFalsosNegativosAcimaDaCapacidade() {
+		BloomFilter filtro = BloomFilter.create(1_000, 0.01);
+		for (int i = 0; i < 10_000; i++) {
+			filtro.put(codigo(i));
+		}
+
+		assertThat(filtro.isSaturated()).isTrue();
+		for (int i = 0; i < 10_000; i++) {
+			assertThat(filtro.mightContain(codigo(i))).as(codigo(i)).isTrue();
+		}
+	}
+
+	@Test
+	void naoTemFalsosNegativosComInsercoesConcorrentes() throws Exception {
+		BloomFilter filtro = BloomFilter.create(80_000, 0.01);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> tarefas = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int inicio = t * 10_000;
+				tarefas.add(executor.submit(() -> {
+					for (int i = inicio; i < inicio + 10_000; i++) {
+						filtro.put(codigo(i));
+					}
+				}));
+			}
+			for (Future<?> tarefa : tarefas) {
+				tarefa.get();
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertThat(filtro.getInsertions()).isEqualTo(80_000);
+		for (int i = 0; i < 80_000; i++) {
+			assertThat(filtro.mightContain(codigo(i))).as(codigo(i)).isTrue();
+		}
+	}
+
+	@Test
+	void taxaDeFalsosPositivosFicaProximaDaConfigurada() {
+		BloomFilter filtro = BloomFilter.create(100_000, 0.01);
+		for (int i = 0; i < 100_000; i++) {
+			filtro.put(codigo(i));
+		}
+
+		int falsosPositivos = 0;
+		for (int i = 100_000; i < 200_000; i++) {
+			if (filtro.mightContain(codigo(i))) {
+				falsosPositivos++;
+			}
+		}
+		assertThat(falsosPositivos / 100_000.0).isLessThan(0.02);
+	}
+
+	@Test
+	void filtroVazioNaoContemNada() {
+		BloomFilter filtro = BloomFilter.create(1_000, 0.01);
+
+		assertThat(filtro.mightContain(codigo(1))).isFalse();
+		assertThat(filtro.isSaturated()).isFalse();
+	}
+
+	private static String codigo(int numero) {
+		return String.format("CERT-2026-%06d", numero);
+	}
+
+}
@@ -0,0 +1,143 @@
+package com.microsservicos.back.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+	private static final long OPEN_DURATION_MS = 1000;
+
+	private RelogioManual relogio;
+	private CircuitBreaker breaker;
+
+	@BeforeEach
+	void setUp() {
+		relogio = new RelogioManual();
+		breaker = new CircuitBreaker(3, OPEN_DURATION_MS, relogio);
+	}
+
+	@Test
+	void abreAposFalhasConsecutivas() {
+		falhar(2);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+		falhar(1);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void sucessoZeraAsFalhasConsecutivas() {
+		falhar(2);
+		breaker.onSuccess();
+		falhar(2);
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+	}
+
+	@Test
+	void ficaSemiabertoAposOTempoDeAbertura() {
+		falhar(3);
+
+		relogio.avancar(OPEN_DURATION_MS - 1);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+		relogio.avancar(1);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+	}
+
+	@Test
+	void semiabertoDeixaPassarUmaUnicaChamadaDeTeste() {
+		falhar(3);
+		relogio.avancar(OPEN_DURATION_MS);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.tryAcquire()).isFalse();
+	}
+
+	@Test
+	void sucessoNaChamadaDeTesteFechaOCircuito() {
+		falhar(3);
+		relogio.avancar(OPEN_DURATION_MS);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onSuccess();
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+		assertThat(breaker.tryAcquire()).isTrue();
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void falhaNaChamadaDeTesteReabreOCircuito() {
+		falhar(3);
+		relogio.avancar(OPEN_DURATION_MS);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.onFailure();
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+		assertThat(breaker.tryAcquire()).isFalse();
+
+		// A reabertura conta a partir da falha da chamada de teste
+		relogio.avancar(OPEN_DURATION_MS);
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	@Test
+	void releaseDevolveAVagaDeTeste() {
+		falhar(3);
+		relogio.avancar(OPEN_DURATION_MS);
+
+		assertThat(breaker.tryAcquire()).isTrue();
+		breaker.release();
+
+		assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+		assertThat(breaker.tryAcquire()).isTrue();
+	}
+
+	private void falhar(int vezes) {
+		for (int i = 0; i < vezes; i++) {
+			assertThat(breaker.tryAcquire()).isTrue();
+			breaker.onFailure();
+		}
+	}
+
+	private static class RelogioManual extends Clock {
+
+		private long millis = 1_000_000;
+
+		void avancar(long ms) {
+			millis += ms;
+		}
+
+		@Override
+		public long millis() {
+			return millis;
+		}
+
+		@Override
+		public Instant instant() {
+			return Instant.ofEpochMilli(millis);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.microsservicos.back.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmailTemplateTest {
+
+	@Test
+	void substituiVariaveisEOmiteAusentes() {
+		EmailTemplate template = EmailTemplate.compile("Olá {{ nome }}, {{faltando}}fim", false);
+
+		assertThat(template.render(Map.of("nome", "Ana"))).isEqualTo("Olá Ana, fim");
+	}
+
+	@Test
+	void secaoNormalEInvertida() {
+		EmailTemplate template = EmailTemplate.compile(
+				"Local: {{#local}}{{local}}{{/local}}{{^local}}A definir{{/local}}", false);
+
+		assertThat(template.render(Map.of("local", "Auditório"))).isEqualTo("Local: Auditório");
+		assertThat(template.render(Map.of("local", ""))).isEqualTo("Local: A definir");
+		assertThat(template.render(Map.of())).isEqualTo("Local: A definir");
+	}
+
+	@Test
+	void secoesAninhadas() {
+		EmailTemplate template = EmailTemplate.compile(
+				"{{#a}}A{{#b}}B{{^c}}sem C{{/c}}{{/b}}{{^b}}sem B{{/b}}{{/a}}.", false);
+
+		assertThat(template.render(Map.of("a", "1", "b", "1"))).isEqualTo("ABsem C.");
+		assertThat(template.render(Map.of("a", "1", "b", "1", "c", "1"))).isEqualTo("AB.");
+		assertThat(template.render(Map.of("a", "1"))).isEqualTo("Asem B.");
+		assertThat(template.render(Map.of("b", "1"))).isEqualTo(".");
+	}
+
+	@Test
+	void secaoComOMesmoNomeAninhada() {
+		EmailTemplate template = EmailTemplate.compile("{{#x}}[{{#x}}{{x}}{{/x}}]{{/x}}", false);
+
+		assertThat(template.render(Map.of("x", "v"))).isEqualTo("[v]");
+		assertThat(template.render(Map.of())).isEmpty();
+	}
+
+	@Test
+	void escapaValoresEmTemplatesHtml() {
+		EmailTemplate template = EmailTemplate.compile("<p>{{nome}}</p>{{{bruto}}}", true);
+
+		assertThat(template.render(Map.of("nome", "<b>\"Ana\" & 'Bia'</b>", "bruto", "<i>ok</i>")))
+				.isEqualTo("<p>&lt;b&gt;&quot;Ana&quot; &amp; &#39;Bia&#39;&lt;/b&gt;</p><i>ok</i>");
+	}
+
+	@Test
+	void naoEscapaValoresEmTemplatesDeTexto() {
+		EmailTemplate template = EmailTemplate.compile("{{nome}}", false);
+
+		assertThat(template.render(Map.of("nome", "<b>&</b>"))).isEqualTo("<b>&</b>");
+	}
+
+	@Test
+	void bindEmbuteValoresEResolveSecoes() {
+		EmailTemplate template = EmailTemplate.compile(
+				"{{evento}}: {{#local}}{{local}}{{/local}}{{^local}}A definir{{/local}} - {{#usuario}}Olá {{usuario}}{{/usuario}}",
+				false);
+
+		Map<String, String> evento = new HashMap<>();
+		evento.put("evento", "Semana Acadêmica");
+		evento.put("local", null);
+		EmailTemplate parcial = template.bind(evento);
+
+		assertThat(parcial.render(Map.of("usuario", "Ana"))).isEqualTo("Semana Acadêmica: A definir - Olá Ana");
+		// Valores do bind não são substituídos pelos do render
+		assertThat(parcial.render(Map.of("evento", "Outro", "local", "Sala 1"))).isEqualTo("Semana Acadêmica: A definir - ");
+	}
+
+	@Test
+	void bindEscapaValoresEmTemplatesHtml() {
+		EmailTemplate template = EmailTemplate.compile("{{evento}} {{{raw}}} {{usuario}}", true);
+
+		EmailTemplate parcial = template.bind(Map.of("evento", "A & B", "raw", "<br>"));
+
+		assertThat(parcial.isHtml()).isTrue();
+		assertThat(parcial.render(Map.of("usuario", "<Ana>"))).isEqualTo("A &amp; B <br> &lt;Ana&gt;");
+	}
+
+	@Test
+	void bindMantemSecoesDeVariaveisNaoInformadas() {
+		EmailTemplate template = EmailTemplate.compile("{{#a}}{{b}}{{#c}}-{{c}}{{/c}}{{/a}}", false);
+
+		EmailTemplate parcial = template.bind(Map.of("b", "B"));
+
+		assertThat(parcial.render(Map.of("a", "1", "c", "C"))).isEqualTo("B-C");
+		assertThat(parcial.render(Map.of())).isEmpty();
+	}
+
+	@Test
+	void rejeitaTemplatesMalformados() {
+		assertThatThrownBy(() -> EmailTemplate.compile("{{#a}}sem fim", false))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> EmailTemplate.compile("{{#a}}{{/b}}", false))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> EmailTemplate.compile("{{/a}}", false))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> EmailTemplate.compile("{{nome", false))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> EmailTemplate.compile("{{{nome}}", false))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> EmailTemplate.compile("{{ }}", false))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
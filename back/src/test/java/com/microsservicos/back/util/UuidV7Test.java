@@ -0,0 +1,84 @@
+package com.microsservicos.back.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7Test {
+
+	@Test
+	void versaoEVariante() {
+		for (int i = 0; i < 10_000; i++) {
+			UUID uuid = UuidV7.randomUUID();
+			assertThat(uuid.version()).isEqualTo(7);
+			assertThat(uuid.variant()).isEqualTo(2);
+		}
+	}
+
+	@Test
+	void timestampEmMilissegundosNosPrimeiros48Bits() {
+		long antes = System.currentTimeMillis();
+		UUID uuid = UuidV7.randomUUID();
+		long depois = System.currentTimeMillis();
+
+		long timestamp = uuid.getMostSignificantBits() >>> 16;
+		// O timestamp lógico pode estar à frente do relógio se o contador esgotou em chamadas anteriores
+		assertThat(timestamp).isGreaterThanOrEqualTo(antes).isLessThan(depois + 1000);
+	}
+
+	@Test
+	void estritamenteCrescentesNaOrdemDoPostgres() {
+		UUID anterior = UuidV7.randomUUID();
+		// Muito mais que 4096 ids por milissegundo: força o esgotamento do contador
+		for (int i = 0; i < 200_000; i++) {
+			UUID atual = UuidV7.randomUUID();
+			assertThat(compararComoBytes(atual, anterior)).as("%s depois de %s", atual, anterior).isPositive();
+			anterior = atual;
+		}
+	}
+
+	@Test
+	void unicosECrescentesPorThreadComGeracaoConcorrente() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<List<UUID>>> tarefas = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				tarefas.add(executor.submit(() -> {
+					List<UUID> ids = new ArrayList<>(20_000);
+					for (int i = 0; i < 20_000; i++) {
+						ids.add(UuidV7.randomUUID());
+					}
+					return ids;
+				}));
+			}
+
+			Set<UUID> todos = new HashSet<>();
+			for (Future<List<UUID>> tarefa : tarefas) {
+				List<UUID> ids = tarefa.get();
+				for (int i = 1; i < ids.size(); i++) {
+					assertThat(compararComoBytes(ids.get(i), ids.get(i - 1))).isPositive();
+				}
+				todos.addAll(ids);
+			}
+			assertThat(todos).hasSize(8 * 20_000);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/** Ordenação do tipo uuid do PostgreSQL (bytes sem sinal); UUID.compareTo compara com sinal */
+	private static int compararComoBytes(UUID a, UUID b) {
+		int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+		return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+	}
+
+}
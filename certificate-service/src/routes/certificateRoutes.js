@@ -56,7 +56,7 @@ const emailService = require('../services/emailService');
  */
 router.post('/generate', authenticateToken, async (req, res) => {
   try {
-    const { eventId, usuarioId } = req.body;
+    const { eventId, usuarioId, sendEmail = true } = req.body;
 
     if (!eventId || !usuarioId) {
       return res.status(400).json({ error: 'eventId e usuarioId são obrigatórios' });
@@ -72,14 +72,17 @@ router.post('/generate', authenticateToken, async (req, res) => {
       attendance.id
     );
 
-    // Enviar email de confirmação (não bloqueia se falhar)
-    emailService.enviarEmailCertificado(
-      usuarioId,
-      eventId,
-      certificate.certificate_code
-    ).catch(err => {
-      console.error('Falha ao enviar email (não crítico):', err);
-    });
+    // Enviar email de confirmação (não bloqueia se falhar).
+    // O backend Java envia o email por conta própria quando gera o certificado via job (sendEmail=false)
+    if (sendEmail !== false) {
+      emailService.enviarEmailCertificado(
+        usuarioId,
+        eventId,
+        certificate.certificate_code
+      ).catch(err => {
+        console.error('Falha ao enviar email (não crítico):', err);
+      });
+    }
 
     res.json({
       certificateCode: certificate.certificate_code,
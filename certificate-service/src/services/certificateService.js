@@ -1,27 +1,50 @@
 const dbService = require('./dbService');
 
+// Bloco de números reservado da sequence (hi-lo), distribuído em memória
+let nextNumber = 0;
+let blockLimit = 0;
+let pendingReservation = null;
+
 /**
- * Gera um código único de certificado no formato CERT-YYYY-NNNNNN
+ * Reserva o próximo bloco da sequence certificate_code_seq. Cada nextval reserva tantos números
+ * quanto o incremento da sequence (o mesmo esquema do backend Java), então não há números pulados.
  */
-async function generateCertificateCode() {
-  const year = new Date().getFullYear();
-  
-  // Buscar o último código do ano atual
+async function reserveBlock() {
   const result = await dbService.query(
-    `SELECT certificate_code FROM certificate 
-     WHERE certificate_code LIKE $1 
-     ORDER BY certificate_code DESC 
-     LIMIT 1`,
-    [`CERT-${year}-%`]
+    `SELECT nextval('certificate_code_seq') AS inicio, s.increment_by AS tamanho
+     FROM pg_sequences s
+     WHERE s.schemaname = current_schema() AND s.sequencename = 'certificate_code_seq'`
   );
+  if (result.rows.length === 0) {
+    throw new Error('Sequence certificate_code_seq não encontrada');
+  }
+  nextNumber = Number(result.rows[0].inicio);
+  blockLimit = nextNumber + Number(result.rows[0].tamanho);
+}
 
-  let sequence = 1;
-  
-  if (result.rows.length > 0) {
-    const lastCode = result.rows[0].certificate_code;
-    const lastSequence = parseInt(lastCode.split('-')[2]);
-    sequence = lastSequence + 1;
+/**
+ * Próximo número do bloco; só volta ao banco quando o bloco acaba. Chamadas concorrentes
+ * esperam a mesma reserva em vez de reservar um bloco cada.
+ */
+async function allocateNumber() {
+  while (nextNumber >= blockLimit) {
+    if (!pendingReservation) {
+      pendingReservation = reserveBlock().finally(() => {
+        pendingReservation = null;
+      });
+    }
+    await pendingReservation;
   }
+  return nextNumber++;
+}
+
+/**
+ * Gera um código único de certificado no formato CERT-YYYY-NNNNNN
+ * O número vem da sequence certificate_code_seq, compartilhada com o backend Java
+ */
+async function generateCertificateCode() {
+  const year = new Date().getFullYear();
+  const sequence = await allocateNumber();
 
   // Formatar sequência com 6 dígitos
   const formattedSequence = sequence.toString().padStart(6, '0');
@@ -52,7 +75,9 @@ async function verifyAttendance(usuarioId, eventId) {
 async function checkExistingCertificate(eventAttendanceId) {
   const result = await dbService.query(
     `SELECT id, certificate_code FROM certificate 
-     WHERE event_attendance_id = $1`,
+     WHERE event_attendance_id = $1
+     ORDER BY revoked_at NULLS FIRST
+     LIMIT 1`,
     [eventAttendanceId]
   );
 
@@ -72,17 +97,43 @@ async function createCertificate(usuarioId, eventId, eventAttendanceId) {
   // Gerar código único
   const certificateCode = await generateCertificateCode();
 
-  // Inserir certificado
+  // Inserir certificado; o índice único por presença barra a emissão simultânea pelo backend Java
   const result = await dbService.query(
     `INSERT INTO certificate (certificate_code, usuario_id, event_id, event_attendance_id, issued_at, created_at)
      VALUES ($1, $2, $3, $4, NOW(), NOW())
+     ON CONFLICT (event_attendance_id) WHERE revoked_at IS NULL DO NOTHING
      RETURNING id, certificate_code, issued_at`,
     [certificateCode, usuarioId, eventId, eventAttendanceId]
   );
 
+  if (result.rows.length === 0) {
+    // Emitido por outro caminho depois da verificação acima
+    return checkExistingCertificate(eventAttendanceId);
+  }
+
+  await notifyCertificateIssued(result.rows[0].certificate_code);
+
   return result.rows[0];
 }
 
+/**
+ * Avisa as instâncias do backend Java (LISTEN/NOTIFY no canal de invalidação de cache) que o código
+ * foi emitido, para que o filtro de códigos existentes da validação o inclua sem esperar o refresh.
+ * Payload no formato do CacheInvalidationBus: origem;tipo;chave
+ */
+async function notifyCertificateIssued(certificateCode) {
+  const channel = process.env.CACHE_INVALIDATION_CHANNEL || 'cache_invalidation';
+  try {
+    await dbService.query('SELECT pg_notify($1, $2)', [
+      channel,
+      `certificate-service;certificado-emitido;${certificateCode}`,
+    ]);
+  } catch (error) {
+    // O refresh periódico do filtro no backend cobre a notificação perdida
+    console.error('Erro ao notificar emissão do certificado:', error.message);
+  }
+}
+
 /**
  * Busca informações completas do certificado para validação
  */
@@ -100,7 +151,8 @@ async function getCertificateForValidation(certificateCode) {
      FROM certificate c
      INNER JOIN usuario u ON c.usuario_id = u.id
      INNER JOIN event e ON c.event_id = e.id
-     WHERE c.certificate_code = $1`,
+     WHERE c.certificate_code = $1
+       AND c.revoked_at IS NULL`,
     [certificateCode]
   );
 
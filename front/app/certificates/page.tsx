@@ -70,7 +70,7 @@ export default function CertificatesPage() {
       window.URL.revokeObjectURL(url);
       document.body.removeChild(a);
     } catch (error: any) {
-      toast.error(error.response?.data?.error || 'Erro ao gerar certificado');
+      toast.error(error.response?.data?.error || error.message || 'Erro ao gerar certificado');
     } finally {
       setGenerating(null);
     }
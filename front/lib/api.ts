@@ -686,14 +686,34 @@ certificateClient.interceptors.response.use(
   }
 );
 
-// Certificate APIs - Usa certificateClient (porta 3001)
+// Certificate APIs - Usa certificateClient (porta 3001); a geração passa pelo backend Java
+interface CertificateJob {
+  jobId: string;
+  status: 'PENDENTE' | 'PROCESSANDO' | 'CONCLUIDO' | 'FALHOU';
+  certificateCode?: string;
+  downloadUrl?: string;
+  erro?: string;
+}
+
+const CERTIFICATE_JOB_POLL_INTERVAL = 1000; // 1 segundo
+const CERTIFICATE_JOB_MAX_POLLS = 60;
+
 export const certificateApi = {
+  // A geração é assíncrona no backend Java: o POST retorna um job, consultado até concluir
   generate: async (eventId: string, usuarioId: string): Promise<{ certificateCode: string; downloadUrl: string }> => {
-    const response = await certificateClient.post<{ certificateCode: string; downloadUrl: string }>(
-      '/api/certificates/generate',
-      { eventId, usuarioId }
-    );
-    return response.data;
+    const { data: job } = await apiClient.post<CertificateJob>('/api/certificates/generate', { eventId, usuarioId });
+    let atual = job;
+    for (let tentativa = 0; tentativa < CERTIFICATE_JOB_MAX_POLLS; tentativa++) {
+      if (atual.status === 'CONCLUIDO' && atual.certificateCode) {
+        return { certificateCode: atual.certificateCode, downloadUrl: atual.downloadUrl! };
+      }
+      if (atual.status === 'FALHOU') {
+        throw new Error(atual.erro || 'Erro ao gerar certificado');
+      }
+      await new Promise((resolve) => setTimeout(resolve, CERTIFICATE_JOB_POLL_INTERVAL));
+      atual = (await apiClient.get<CertificateJob>(`/api/certificates/jobs/${job.jobId}`)).data;
+    }
+    throw new Error('Tempo esgotado aguardando a geração do certificado');
   },
   
   download: async (code: string): Promise<Blob> => {